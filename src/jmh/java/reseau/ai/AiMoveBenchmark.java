@@ -0,0 +1,61 @@
+package reseau.ai;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import reseau.model.GameState;
+
+/**
+ * Choix du coup de l'IA, tel que le font le serveur (Game) et le client
+ * (GameModel, MorpionClientFX) : encodage du plateau puis lecture de la table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiMoveBenchmark {
+
+    @Param({"EASY", "PERFECT"})
+    public Difficulty difficulty;
+
+    private GameState state;
+    private char[][] board;
+
+    @Setup
+    public void setUp() {
+        state = new GameState();
+        state.setCell(0, 0, 'X');
+        state.setCell(1, 1, 'O');
+        state.setCell(2, 2, 'X');
+
+        board = new char[3][3];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                board[row][col] = state.getCell(row, col);
+            }
+        }
+    }
+
+    @Benchmark
+    public int serverMove() {
+        return PerfectPlayTable.chooseMove(PerfectPlayTable.encode(state), 'O', difficulty);
+    }
+
+    @Benchmark
+    public int clientMove() {
+        return PerfectPlayTable.chooseMove(PerfectPlayTable.encode(board), 'O', difficulty);
+    }
+}
@@ -0,0 +1,51 @@
+package reseau.ai;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import reseau.model.GameState;
+
+/**
+ * Coup de l'IA Monte-Carlo au niveau HARD, soit 5 000 parties simulées :
+ * le temps d'un coup divisé par 5 000 donne le coût d'une simulation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MctsBenchmark {
+
+    @Param({"3", "15"})
+    public int size;
+
+    private MctsPlayer player;
+    private GameState state;
+
+    @Setup
+    public void setUp() {
+        // Budget large : c'est le plafond de simulations du niveau qui arrête la recherche
+        player = new MctsPlayer(10_000, MctsPlayer.DEFAULT_ARENA_NODES, 1);
+        state = new GameState(size, GameState.defaultWinLength(size));
+        int centre = size / 2;
+        state.setCell(centre, centre, 'X');
+        state.setCell(centre, centre - 1, 'O');  // Aucune menace : la recherche va jusqu'au plafond
+    }
+
+    @Benchmark
+    public int hardMove() {
+        return player.chooseMove(state, 'X', Difficulty.HARD);
+    }
+}
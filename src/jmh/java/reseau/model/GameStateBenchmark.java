@@ -0,0 +1,85 @@
+package reseau.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Opérations de GameState appelées à chaque coup : détection de victoire,
+ * copie de l'état et hachage. Le coup sur un plateau 15×15 doit coûter à
+ * peu près autant que sur le 3×3 : seules les lignes de la case sont lues.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    private GameState inProgress;
+    private GameState won;
+    private GameState gomoku;
+
+    @Setup
+    public void setUp() {
+        // X O X / . O . / . . X : personne n'a gagné
+        inProgress = new GameState();
+        inProgress.setCell(0, 0, 'X');
+        inProgress.setCell(0, 1, 'O');
+        inProgress.setCell(0, 2, 'X');
+        inProgress.setCell(1, 1, 'O');
+        inProgress.setCell(2, 2, 'X');
+
+        // X gagne sur la diagonale secondaire
+        won = inProgress.copy();
+        won.setCell(1, 0, 'O');
+        won.setCell(1, 1, 'X');
+        won.setCell(2, 0, 'X');
+
+        // Milieu de partie de Gomoku : deux lignes de 4 qui ne se complètent pas
+        gomoku = new GameState(15, 5);
+        for (int i = 0; i < 4; i++) {
+            gomoku.setCell(7, 5 + i, 'X');
+            gomoku.setCell(8, 5 + i, 'O');
+        }
+    }
+
+    @Benchmark
+    public boolean checkWinNoLine() {
+        return inProgress.checkWin('X');
+    }
+
+    @Benchmark
+    public boolean checkWinLine() {
+        return won.checkWin('X');
+    }
+
+    @Benchmark
+    public boolean wouldWin3x3() {
+        return inProgress.wouldWin('O', 2, 0);
+    }
+
+    @Benchmark
+    public boolean wouldWin15x15() {
+        return gomoku.wouldWin('X', 6, 6);
+    }
+
+    @Benchmark
+    public GameState copy() {
+        return inProgress.copy();
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return inProgress.hashCode();
+    }
+}
@@ -0,0 +1,66 @@
+package reseau.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Analyse côté client des messages du protocole texte : reconnaissance
+ * d'un message et reconstruction du plateau à partir de son dessin.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkManagerBenchmark {
+
+    /**
+     * Messages reconnus par classify, du premier au dernier test : le coût
+     * dépend de la position du message dans la chaîne de tests
+     */
+    @State(Scope.Thread)
+    public static class Messages {
+        @Param({
+            "🎲 Player-127.0.0.1 commence la partie",
+            "🎲 C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)",
+            "🏆 Félicitations! Vous avez gagné!",
+            "🤝 Match nul! Le plateau est plein.",
+            "🤔 Souhaitez-vous jouer contre l'IA (tapez AI) ou attendre un autre joueur (tapez WAIT)?"
+        })
+        public String message;
+    }
+
+    private String boardData;
+
+    @Setup
+    public void setUp() {
+        GameState state = new GameState();
+        state.setCell(0, 0, 'X');
+        state.setCell(1, 1, 'O');
+        state.setCell(2, 2, 'X');
+        state.setCell(0, 2, 'O');
+        boardData = state.toString();
+    }
+
+    @Benchmark
+    public NetworkManager.TextMessage classify(Messages messages) {
+        return NetworkManager.classify(messages.message);
+    }
+
+    @Benchmark
+    public GameState parseBoard() {
+        return NetworkManager.parseBoard(boardData);
+    }
+}
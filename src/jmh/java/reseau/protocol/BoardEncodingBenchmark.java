@@ -0,0 +1,74 @@
+package reseau.protocol;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import reseau.model.GameState;
+
+/**
+ * Plateau envoyé après chaque coup, dans les trois formes du protocole :
+ * dessin texte (celui de Game.formatBoard, en cache ou construit), ligne
+ * BOARD des codes de message et trame binaire.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardEncodingBenchmark {
+    private GameState state;
+    private String boardText;
+    private byte[] frame;
+
+    @Setup
+    public void setUp() {
+        state = new GameState();
+        state.setCell(0, 0, 'X');
+        state.setCell(1, 1, 'O');
+        state.setCell(2, 2, 'X');
+        state.setCell(0, 2, 'O');
+        boardText = MessageCode.textOf(MessageCode.boardLine(state));
+        frame = BoardFrame.encode(state, 'X');
+    }
+
+    @Benchmark
+    public byte[] boardTextCached() {
+        return BoardText.encode(state);
+    }
+
+    @Benchmark
+    public String boardTextBuilt() {
+        return state.toString();
+    }
+
+    @Benchmark
+    public String boardLine() {
+        return MessageCode.boardLine(state);
+    }
+
+    @Benchmark
+    public GameState parseBoardLine() {
+        return MessageCode.parseBoard(boardText);
+    }
+
+    @Benchmark
+    public byte[] encodeFrame() {
+        return BoardFrame.encode(state, 'X');
+    }
+
+    @Benchmark
+    public GameState decodeFrame() {
+        return BoardFrame.decodeBoard(frame);
+    }
+}
@@ -4,6 +4,7 @@ module reseau {
     requires java.logging;
     requires java.prefs;
     requires java.desktop;
+    requires jdk.httpserver;
     requires javafx.media;
     requires javafx.graphics;
     
@@ -51,6 +51,13 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import reseau.ai.Difficulty;
+import reseau.ai.Tablebase;
+import reseau.model.GameState;
+import reseau.protocol.Heartbeat;
+import reseau.protocol.MessageCode;
+import reseau.protocol.MoveCommand;
+import reseau.protocol.SessionResume;
 
 
 public class MorpionClientFX extends Application {
@@ -65,16 +72,19 @@ public class MorpionClientFX extends Application {
     private boolean connectionActive = false;
     
     // UI elements
+    private GridPane gameBoard;
     private Button[][] cells = new Button[3][3];
     private Label statusLabel;
     private Label connectionLabel;
     private Button reconnectButton;
     private Button replayButton;
     
-    // Game state
+    // Game state (3×3 unless the server sends a larger board)
     private char[][] boardState = new char[3][3];
     private boolean myTurn = false;
     private boolean gameOver = false;
+    private volatile boolean messageCodes = false;
+    private volatile String resumeToken;  // lets the reconnect button resume the current game
     private int lastPlayedRow = -1;
     private int lastPlayedCol = -1;
     private char playerSymbol = 'X';  // Default symbol for player
@@ -83,6 +93,7 @@ public class MorpionClientFX extends Application {
     private String serverAddress = "127.0.0.1";
     private int port = 55555;
     private boolean multiPlayerMode = true;  // Default to multiplayer mode
+    private Difficulty aiDifficulty = Difficulty.PERFECT;  // Computer level in single player mode
 
     @Override
     public void start(Stage primaryStage) {
@@ -98,6 +109,9 @@ public class MorpionClientFX extends Application {
                 System.err.println("Format de port invalide, utilisation du port par défaut: " + port);
             }
         }
+        if (params.getRaw().size() >= 4) {
+            aiDifficulty = Difficulty.fromName(params.getRaw().get(3), aiDifficulty);
+        }
         if (params.getRaw().size() >= 3) {
             multiPlayerMode = "multi".equalsIgnoreCase(params.getRaw().get(2));
         } else {
@@ -415,7 +429,7 @@ private void showTitleScreen(Stage primaryStage) {
         root.setTop(headerBox);
         
         // Game board
-        GridPane gameBoard = createGameBoard();
+        gameBoard = createGameBoard();
         root.setCenter(gameBoard);
         
         // Status and buttons
@@ -504,22 +518,33 @@ private void showTitleScreen(Stage primaryStage) {
     private GridPane createGameBoard() {
         GridPane gameBoard = new GridPane();
         gameBoard.setAlignment(Pos.CENTER);
-        gameBoard.setHgap(10);
-        gameBoard.setVgap(10);
+        fillGameBoard(gameBoard);
+        return gameBoard;
+    }
+    
+    /**
+     * Creates one button per cell of the board, sized so that large boards fit the window
+     */
+    private void fillGameBoard(GridPane gameBoard) {
+        int size = boardState.length;
+        int cellSize = cellSize();
+        gameBoard.getChildren().clear();
+        gameBoard.setHgap(size <= 3 ? 10 : 2);
+        gameBoard.setVgap(size <= 3 ? 10 : 2);
         
         // Initialize cells array if it's null
-        if (cells == null) {
-            cells = new Button[3][3];
+        if (cells == null || cells.length != size) {
+            cells = new Button[size][size];
         }
         
-        // Create all 9 button cells with consistent size
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
+        // Create all the button cells with consistent size
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 Button cell = new Button();
-                cell.setMinSize(100, 100);
-                cell.setPrefSize(100, 100);
-                cell.setMaxSize(100, 100);
-                cell.setFont(Font.font("System", FontWeight.BOLD, 36));
+                cell.setMinSize(cellSize, cellSize);
+                cell.setPrefSize(cellSize, cellSize);
+                cell.setMaxSize(cellSize, cellSize);
+                cell.setFont(Font.font("System", FontWeight.BOLD, fontSize()));
                 
                 // Add click event handler
                 final int r = row;
@@ -534,8 +559,37 @@ private void showTitleScreen(Stage primaryStage) {
                 cell.setStyle("-fx-background-color: white; -fx-border-color: #aaaaaa; -fx-border-width: 1px;");
             }
         }
-        
-        return gameBoard;
+    }
+    
+    /**
+     * Switches to the size of the board the server plays on
+     */
+    private void resizeBoard(int size) {
+        if (size == boardState.length) {
+            return;
+        }
+        boardState = new char[size][size];
+        for (char[] row : boardState) {
+            Arrays.fill(row, ' ');
+        }
+        lastPlayedRow = -1;
+        lastPlayedCol = -1;
+        if (gameBoard != null) {
+            fillGameBoard(gameBoard);
+        }
+    }
+    
+    private int cellSize() {
+        int size = boardState.length;
+        return size <= 3 ? 100 : Math.max(24, 480 / size);
+    }
+    
+    private int fontSize() {
+        return boardState.length <= 3 ? 36 : cellSize() / 2;
+    }
+    
+    private String symbolStyle(String color) {
+        return "-fx-text-fill: " + color + "; -fx-font-weight: bold; -fx-font-size: " + fontSize() + "px;";
     }
     
     private void handleCellClick(int row, int col) {
@@ -563,7 +617,7 @@ private void showTitleScreen(Stage primaryStage) {
             
             // Valid move - send to server
             myTurn = false;
-            String move = row + "" + col;
+            String move = MoveCommand.format(row, col);
             output.println(move);
             debugLog("Envoi du coup au serveur: " + move);
             
@@ -593,7 +647,7 @@ private void showTitleScreen(Stage primaryStage) {
         // Make player's move
         boardState[row][col] = playerSymbol;
         cells[row][col].setText(String.valueOf(playerSymbol));
-        cells[row][col].setStyle("-fx-text-fill: blue; -fx-font-weight: bold; -fx-font-size: 36px;");
+        cells[row][col].setStyle(symbolStyle("blue"));
         
         // Check if player won
         if (checkWin(playerSymbol)) {
@@ -632,81 +686,19 @@ private void showTitleScreen(Stage primaryStage) {
     private void makeComputerMove() {
         char computerSymbol = playerSymbol == 'X' ? 'O' : 'X';
         
-        // Try to win
-        if (tryWinningMove(computerSymbol)) return;
-        
-        // Block player if they're about to win
-        if (tryBlockingMove(playerSymbol)) return;
-        
-        // Try center
-        if (boardState[1][1] == ' ') {
-            makeMoveAt(1, 1, computerSymbol);
-            return;
-        }
-        
-        // Try corners
-        int[][] corners = {{0, 0}, {0, 2}, {2, 0}, {2, 2}};
-        for (int[] corner : corners) {
-            if (boardState[corner[0]][corner[1]] == ' ') {
-                makeMoveAt(corner[0], corner[1], computerSymbol);
-                return;
-            }
-        }
-        
-        // Any remaining square
+        // Tablebase (or perfect-play table) lookup, with mistakes depending on the difficulty
+        GameState state = new GameState();
         for (int row = 0; row < 3; row++) {
             for (int col = 0; col < 3; col++) {
-                if (boardState[row][col] == ' ') {
-                    makeMoveAt(row, col, computerSymbol);
-                    return;
+                if (boardState[row][col] != ' ') {
+                    state.setCell(row, col, boardState[row][col]);
                 }
             }
         }
-    }
-    
-    private boolean tryWinningMove(char symbol) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (boardState[row][col] == ' ') {
-                    // Try move
-                    boardState[row][col] = symbol;
-                    boolean isWinning = checkWin(symbol);
-                    if (isWinning) {
-                        if (symbol == playerSymbol) {
-                            // Just checking, don't actually make the move
-                            boardState[row][col] = ' ';
-                        } else {
-                            // Make the winning move for computer
-                            makeMoveAt(row, col, symbol);
-                        }
-                        return true;
-                    }
-                    boardState[row][col] = ' '; // Reset
-                }
-            }
+        int cell = Tablebase.classic().chooseMove(state, computerSymbol, aiDifficulty);
+        if (cell >= 0) {
+            makeMoveAt(cell / 3, cell % 3, computerSymbol);
         }
-        return false;
-    }
-    
-    private boolean tryBlockingMove(char playerSymbol) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (boardState[row][col] == ' ') {
-                    // Try player move to see if they would win
-                    boardState[row][col] = playerSymbol;
-                    boolean wouldWin = checkWin(playerSymbol);
-                    boardState[row][col] = ' '; // Reset
-                    
-                    if (wouldWin) {
-                        // Block it
-                        char computerSymbol = playerSymbol == 'X' ? 'O' : 'X';
-                        makeMoveAt(row, col, computerSymbol);
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
     }
     
     private void makeMoveAt(int row, int col, char symbol) {
@@ -714,7 +706,7 @@ private void showTitleScreen(Stage primaryStage) {
         
         Platform.runLater(() -> {
             cells[row][col].setText(String.valueOf(symbol));
-            cells[row][col].setStyle("-fx-text-fill: red; -fx-font-weight: bold; -fx-font-size: 36px;");
+            cells[row][col].setStyle(symbolStyle("red"));
             
             // Check if computer won
             if (checkWin(symbol)) {
@@ -764,6 +756,19 @@ private void showTitleScreen(Stage primaryStage) {
                 input = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
                 output = new PrintWriter(socket.getOutputStream(), true);
                 
+                // Ask for coded messages; an older server answers "Option non reconnue"
+                messageCodes = false;
+                output.println(MessageCode.HANDSHAKE);
+                
+                // Answer the server's pings, so it can tell a dead connection from a quiet one
+                output.println(Heartbeat.HANDSHAKE);
+                
+                // Ask for a resume token, and take back the game a dropped connection left
+                output.println(SessionResume.HANDSHAKE);
+                if (resumeToken != null) {
+                    output.println(SessionResume.resumeCommand(resumeToken));
+                }
+                
                 Platform.runLater(() -> {
                     connectionLabel.setText("🟢 Connecté");
                     connectionLabel.setTextFill(Color.GREEN);
@@ -780,6 +785,34 @@ private void showTitleScreen(Stage primaryStage) {
                     final String message = line;
                     debugLog("Message du serveur: [" + message + "]");
                     
+                    if (message.equals(MessageCode.HANDSHAKE_ACK)) {
+                        messageCodes = true;
+                        continue;
+                    }
+                    if (message.equals(SessionResume.HANDSHAKE_ACK) || message.equals(Heartbeat.HANDSHAKE_ACK)) {
+                        continue;
+                    }
+                    if (Heartbeat.isPing(message)) {
+                        output.println(Heartbeat.pongFor(message));
+                        continue;
+                    }
+                    if (SessionResume.tokenOf(message) != null) {
+                        resumeToken = SessionResume.tokenOf(message);
+                        continue;
+                    }
+                    if (message.equals(SessionResume.RESUMED)) {
+                        Platform.runLater(() -> updateStatus("🔁 Partie reprise"));
+                        continue;
+                    }
+                    if (message.equals(SessionResume.FAILED)) {
+                        resumeToken = null;
+                        continue;
+                    }
+                    if (messageCodes) {
+                        Platform.runLater(() -> handleCodedMessage(message));
+                        continue;
+                    }
+                    
                     // Check for game start and first turn
                     if (message.contains("commence") || message.contains("commence la partie")) {
                         if (message.contains("Vous commencez") || message.contains("Votre tour")) {
@@ -832,7 +865,7 @@ private void showTitleScreen(Stage primaryStage) {
                             updateTurnStatus(true);
                         } else if (message.contains("gagné") || message.contains("perdu") || message.contains("nul")) {
                             gameOver = true;
-                            showGameResult(message);
+                            showGameResult(legacyResultCode(message));
                         } else if (message.contains("Coup invalide") || message.contains("occupée")) {
                             myTurn = true; // Give the turn back to the player
                             updateStatus("⛔ " + message);
@@ -898,6 +931,72 @@ private void showTitleScreen(Stage primaryStage) {
         connectionThread.start();
     }
     
+    /**
+     * Handles a message prefixed with its code: the code decides what to do,
+     * the text is only displayed
+     */
+    private void handleCodedMessage(String line) {
+        MessageCode code = MessageCode.of(line);
+        if (code == null) {
+            updateStatus(line);
+            return;
+        }
+        
+        String text = MessageCode.textOf(line);
+        switch (code) {
+            case TURN:
+                myTurn = true;
+                updateStatus("🎲 C'est votre tour! Cliquez sur une case.");
+                updateTurnStatus(true);
+                break;
+            case WAIT:
+                myTurn = false;
+                updateStatus(text);
+                updateTurnStatus(false);
+                break;
+            case BOARD:
+                try {
+                    GameState state = MessageCode.parseBoard(text);
+                    resizeBoard(state.getSize());
+                    for (int i = 0; i < state.getSize(); i++) {
+                        for (int j = 0; j < state.getSize(); j++) {
+                            boardState[i][j] = state.getCell(i, j);
+                        }
+                    }
+                    updateUIFromBoardState();
+                } catch (IllegalArgumentException e) {
+                    debugLog("Error parsing board: " + e.getMessage());
+                }
+                break;
+            case WIN:
+            case LOSE:
+            case DRAW:
+                gameOver = true;
+                showGameResult(code);
+                break;
+            case INVALID:
+                myTurn = true; // Give the turn back to the player
+                updateStatus(text);
+                updateTurnStatus(true);
+                break;
+            case INFO:
+            default:
+                updateStatus(text);
+                break;
+        }
+    }
+    
+    /**
+     * Result of a finished game from a server message without code
+     */
+    private static MessageCode legacyResultCode(String message) {
+        // "Vous avez perdu. X a gagné." is a defeat: look for "perdu" first
+        if (message.contains("perdu")) {
+            return MessageCode.LOSE;
+        }
+        return message.contains("gagné") ? MessageCode.WIN : MessageCode.DRAW;
+    }
+    
     private void updateBoard(String boardData) {
         // First log the raw data we received
         debugLog("Raw board data received:\n" + boardData);
@@ -974,15 +1073,15 @@ private void showTitleScreen(Stage primaryStage) {
     
     private void updateUIFromBoardState() {
         Platform.runLater(() -> {
-            for (int row = 0; row < 3; row++) {
-                for (int col = 0; col < 3; col++) {
+            for (int row = 0; row < boardState.length; row++) {
+                for (int col = 0; col < boardState.length; col++) {
                     final char symbol = boardState[row][col];
                     if (symbol == 'X') {
                         cells[row][col].setText("X");
-                        cells[row][col].setStyle("-fx-text-fill: blue; -fx-font-weight: bold; -fx-font-size: 36px;");
+                        cells[row][col].setStyle(symbolStyle("blue"));
                     } else if (symbol == 'O') {
                         cells[row][col].setText("O");
-                        cells[row][col].setStyle("-fx-text-fill: red; -fx-font-weight: bold; -fx-font-size: 36px;");
+                        cells[row][col].setStyle(symbolStyle("red"));
                     } else {
                         cells[row][col].setText("");
                         cells[row][col].setStyle("-fx-background-color: white; -fx-border-color: #aaaaaa; -fx-border-width: 1px;");
@@ -1053,18 +1152,18 @@ private void showTitleScreen(Stage primaryStage) {
     // }
     
 
-    private void showGameResult(String result) {
+    private void showGameResult(MessageCode result) {
     String title = "Fin de la partie";
     String headerText;
     String contentText;
     String cssStyle = "";
     
     // Déterminer le type de résultat (victoire, défaite ou match nul)
-    if (result.contains("gagné")) {
+    if (result == MessageCode.WIN) {
         headerText = "🎉 VICTOIRE ! 🏆";
         contentText = "Félicitations, vous avez remporté la partie !";
         cssStyle = "-fx-background-color: #e0ffe0;"; // Fond vert clair pour victoire
-    } else if (result.contains("perdu") || result.contains("serveur a gagné")) {
+    } else if (result == MessageCode.LOSE) {
         headerText = "😢 DÉFAITE";
         contentText = "Vous avez perdu la partie. Plus de chance la prochaine fois !";
         cssStyle = "-fx-background-color: #ffe0e0;"; // Fond rouge clair pour défaite
@@ -1095,9 +1194,9 @@ private void showTitleScreen(Stage primaryStage) {
     Label emojiLabel = new Label();
     emojiLabel.setFont(Font.font("System", FontWeight.BOLD, 48));
     
-    if (result.contains("gagné")) {
+    if (result == MessageCode.WIN) {
         emojiLabel.setText("🏆");
-    } else if (result.contains("perdu")) {
+    } else if (result == MessageCode.LOSE) {
         emojiLabel.setText("😢");
     } else {
         emojiLabel.setText("🤝");
@@ -1160,8 +1259,8 @@ private void showTitleScreen(Stage primaryStage) {
     }
     
     private void resetBoard() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
+        for (int row = 0; row < boardState.length; row++) {
+            for (int col = 0; col < boardState.length; col++) {
                 boardState[row][col] = ' ';
                 
                 if (cells[row][col] != null) {
@@ -1212,6 +1311,7 @@ private void showTitleScreen(Stage primaryStage) {
     
     private void disconnect() {
         connectionActive = false;
+        resumeToken = null;
         
         if (output != null) {
             output.println("QUIT");
@@ -1242,8 +1342,12 @@ private void showTitleScreen(Stage primaryStage) {
     private void logBoardState() {
         if (DEBUG_MODE) {
             System.out.println("Current Board State:");
-            for (int i = 0; i < 3; i++) {
-                System.out.println(boardState[i][0] + " | " + boardState[i][1] + " | " + boardState[i][2]);
+            for (char[] row : boardState) {
+                StringBuilder line = new StringBuilder();
+                for (int col = 0; col < row.length; col++) {
+                    line.append(col > 0 ? " | " : "").append(row[col]);
+                }
+                System.out.println(line);
             }
             System.out.println();
         }
@@ -1,7 +1,12 @@
 package reseau;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 import javafx.application.Application;
 import javafx.stage.Stage;
+import reseau.ai.TablebaseSolver;
+import reseau.loadtest.LoadTest;
 import reseau.view.GameView;
 
 /**
@@ -18,7 +23,16 @@ public class MorpionLauncher {
      *   java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher
      * 
      * - Lancer le serveur: 
-     *   java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher server
+     *   java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher server [port] [options]
+     * 
+     * - Lancer le serveur avec le moteur NIO (sélecteurs non bloquants): 
+     *   java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher server 55555 --engine=nio
+     * 
+     * - Tester la capacité d'un serveur avec des joueurs automatiques, sans JavaFX : 
+     *   java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher loadtest [hôte] [port] [options]
+     * 
+     * - Résoudre un petit plateau et écrire sa table de finales (pour --tablebase) : 
+     *   java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher tablebase [taille] [alignement] [fichier]
      * 
      * @param args Arguments de ligne de commande
      */
@@ -26,14 +40,25 @@ public class MorpionLauncher {
         if (args.length > 0 && args[0].equalsIgnoreCase("server")) {
             System.out.println("🖥️ Lancement du serveur Morpion...");
             
-            // Extraire le port s'il est fourni
-            String[] serverArgs = new String[0];
-            if (args.length > 1) {
-                serverArgs = new String[] { args[1] };
-            }
+            // Transmettre le port et les options (--engine=nio, ...) au serveur
+            String[] serverArgs = Arrays.copyOfRange(args, 1, args.length);
             
             // Lancer le serveur
             MorpionServer.main(serverArgs);
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("loadtest")) {
+            System.out.println("📈 Lancement du test de charge...");
+            
+            try {
+                LoadTest.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (args.length > 0 && args[0].equalsIgnoreCase("tablebase")) {
+            try {
+                TablebaseSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("❌ Impossible d'écrire la table de finales: " + e.getMessage());
+            }
         } else {
             System.out.println("🎮 Lancement du client Morpion...");
             
@@ -3,78 +3,460 @@ package reseau;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import reseau.ai.AiPlayer;
+import reseau.ai.AlphaBetaPlayer;
+import reseau.ai.Difficulty;
+import reseau.ai.MctsPlayer;
+import reseau.ai.Tablebase;
+import reseau.cluster.ClusterRouting;
+import reseau.cluster.ClusterTransport;
+import reseau.cluster.PlayerDescriptor;
+import reseau.cluster.RemoteClientChannel;
+import reseau.cluster.TcpTransport;
+import reseau.model.GameState;
+import reseau.protocol.BoardFrame;
+import reseau.protocol.BoardText;
+import reseau.protocol.Heartbeat;
+import reseau.protocol.MessageCode;
+import reseau.protocol.MoveCommand;
+import reseau.protocol.SessionResume;
+import reseau.server.AiScheduler;
+import reseau.server.ClientChannel;
+import reseau.server.ClientListener;
+import reseau.server.GameExecutor;
+import reseau.server.GameLifecycle;
+import reseau.server.GameLifecycle.Phase;
+import reseau.server.IdGenerator;
+import reseau.server.IdleReaper;
+import reseau.server.LatencyHistogram;
+import reseau.server.Matchmaker;
+import reseau.server.Metrics;
+import reseau.server.MetricsEndpoint;
+import reseau.server.NioServer;
+import reseau.server.ServerConfig;
+import reseau.server.ServerLog;
+import reseau.server.SessionRegistry;
+import reseau.server.SocketClientChannel;
+import reseau.server.VirtualThreads;
+import reseau.server.WriteCoalescer;
 
 public class MorpionServer {
     // Server configuration
     private static final int MAX_CLIENTS = 50;
-    private static final int DEFAULT_PORT = 55555;
-    private static final boolean DEBUG_MODE = true;
     
     // Thread pool for handling client connections
     private static ExecutorService threadPool;
     
     // Player matching and game management
-    private static final List<PlayerHandler> waitingPlayers = new ArrayList<>();
-    private static final ConcurrentHashMap<String, Game> activeGames = new ConcurrentHashMap<>();
-    private static final Random random = new Random();
+    private static Matchmaker<PlayerHandler> matchmaker;
+    private static ClusterRouting<PlayerHandler> clusterRouting;  // null when running alone
+    private static IdGenerator ids = new IdGenerator(0);  // node number 0 when running alone
+    private static final ConcurrentHashMap<Long, Game> activeGames = new ConcurrentHashMap<>();
+    private static GameLifecycle gameLifecycle;
+    
+    // Shared workers running the events of every game, one game at a time
+    private static GameExecutor gameExecutor;
+    
+    // Shared timer playing the AI moves of every game
+    private static AiScheduler aiScheduler;
+    private static Difficulty aiDifficulty = Difficulty.PERFECT;
+    private static AiPlayer largeBoardAi = AiPlayer.GREEDY;
+    private static AlphaBetaPlayer alphaBeta;  // null unless it plays the large boards
+    private static MctsPlayer mcts;  // null unless it plays the large boards
+    private static Tablebase tablebase;  // null unless --tablebase names a file solved for this board
+    
+    // Board of every game: 3×3 tic-tac-toe by default, up to Gomoku-sized variants
+    private static int boardSize = GameState.CLASSIC_SIZE;
+    private static int winLength = GameState.CLASSIC_SIZE;
+    
+    // Output batching: messages of one game event are written together
+    private static WriteCoalescer writeCoalescer;
+    
+    // Resume tokens and grace period of dropped players
+    private static SessionRegistry<PlayerHandler> sessions;
+    
+    // Heartbeats and idle timeouts
+    private static IdleReaper idleReaper;
+    private static long idleLobbyMillis;
+    private static long idleGameMillis;
+    
+    // Instrumentation, served by --metrics-port and dumped by the "metrics" console command
+    private static final Metrics metrics = new Metrics("morpion_");
+    private static final LongAdder connectedClients = new LongAdder();
+    private static final LongAdder acceptedConnections = new LongAdder();
+    private static final LongAdder movesPlayed = new LongAdder();
+    private static final LatencyHistogram moveLatency = new LatencyHistogram(TimeUnit.SECONDS.toMicros(10));
+    private static final LatencyHistogram aiDecisionTime = new LatencyHistogram(TimeUnit.SECONDS.toMicros(10));
 
     public static void main(String[] args) {
-        int port = DEFAULT_PORT;
-
-        if (args.length > 0) {
+        ServerConfig config = ServerConfig.parse(args);
+        gameExecutor = new GameExecutor(config.getGameThreads());
+        aiScheduler = new AiScheduler(config.getAiThreads(), config.getAiDelayMillis(), config.getAiQueueSize());
+        aiDifficulty = config.getAiDifficulty();
+        boardSize = config.getBoardSize();
+        winLength = config.getWinLength();
+        if (config.getAiEngine() == ServerConfig.AiEngine.ALPHABETA) {
+            alphaBeta = new AlphaBetaPlayer(config.getAiTimeMillis(), AlphaBetaPlayer.DEFAULT_TABLE_BITS, config.getAiSearchThreads());
+            largeBoardAi = alphaBeta;
+        } else if (config.getAiEngine() == ServerConfig.AiEngine.MCTS) {
+            mcts = new MctsPlayer(config.getAiTimeMillis(), MctsPlayer.DEFAULT_ARENA_NODES, config.getAiSearchThreads());
+            largeBoardAi = mcts;
+        }
+        writeCoalescer = new WriteCoalescer(config.getWriteLatencyMillis());
+        sessions = new SessionRegistry<>(config.getResumeGraceMillis());
+        gameLifecycle = new GameLifecycle(config.getRematchTimeoutMillis());
+        idleReaper = new IdleReaper(config.getPingIntervalMillis());
+        idleLobbyMillis = config.getIdleLobbyMillis();
+        idleGameMillis = config.getIdleGameMillis();
+        matchmaker = new Matchmaker<>(config.getMatchIntervalMillis(), PlayerHandler::isConnected, MorpionServer::startMatchedGame);
+        if (config.getClusterNode() != null) {
+            startCluster(config);
+        }
+        try {
+            ServerLog.configure(config.getLogLevel(), config.getLogFile());
+        } catch (IOException e) {
+            System.err.println("❌ Impossible d'ouvrir le journal " + config.getLogFile() + ": " + e.getMessage());
+        }
+        if (config.getLogFile() != null) {
+            System.out.println("📝 Journal du serveur: " + config.getLogFile());
+        }
+        if (config.isBenchmark()) {
+            ServerLog.info("⏱️ Mode benchmark: l'IA joue sans délai");
+        }
+        if (!isClassicBoard()) {
+            ServerLog.info("🔲 Plateau " + boardSize + "×" + boardSize + ", " + winLength + " symboles à aligner");
+            if (alphaBeta != null) {
+                ServerLog.info("🧠 IA alpha-bêta, " + alphaBeta.getBudgetMillis() + " ms de réflexion par coup sur "
+                        + alphaBeta.getThreads() + " threads");
+            } else if (mcts != null) {
+                ServerLog.info("🧠 IA Monte-Carlo, " + mcts.getBudgetMillis() + " ms de réflexion par coup sur "
+                        + mcts.getThreads() + " threads");
+            } else {
+                ServerLog.info("🧠 IA gloutonne");
+            }
+        }
+        if (config.getTablebase() != null) {
+            loadTablebase(config.getTablebase());
+        }
+        registerMetrics();
+        if (config.getMetricsPort() > 0) {
             try {
-                port = Integer.parseInt(args[0]);
-            } catch (NumberFormatException e) {
-                System.err.println("Format de port invalide, utilisation du port par défaut: " + port);
+                new MetricsEndpoint(config.getMetricsPort(), metrics);
+                ServerLog.info("📊 Métriques: http://127.0.0.1:" + config.getMetricsPort() + MetricsEndpoint.PATH);
+            } catch (IOException e) {
+                ServerLog.error("❌ Impossible de servir les métriques sur le port " + config.getMetricsPort() + ": " + e.getMessage());
             }
         }
+        startConsole();
+
+        if (config.getEngine() == ServerConfig.Engine.NIO) {
+            runNioEngine(config);
+        } else {
+            runBlockingEngine(config);
+        }
+    }
+
+    /**
+     * Default engine: one thread per connected client, either from a fixed
+     * pool or, with --engine=virtual on Java 21+, a virtual thread each
+     */
+    private static void runBlockingEngine(ServerConfig config) {
+        int port = config.getPort();
+        String threadMode;
+        ExecutorService writerPool;
 
         // Create thread pool for handling multiple clients
-        threadPool = Executors.newFixedThreadPool(MAX_CLIENTS);
+        if (config.getEngine() == ServerConfig.Engine.VIRTUAL && VirtualThreads.isSupported()) {
+            threadPool = VirtualThreads.newThreadPerTaskExecutor();
+            writerPool = VirtualThreads.newThreadPerTaskExecutor();
+            threadMode = "threads virtuels, sans limite de clients";
+        } else {
+            if (config.getEngine() == ServerConfig.Engine.VIRTUAL) {
+                ServerLog.warn("⚠️ Threads virtuels indisponibles sur Java " + SystemInfo.javaVersion() +
+                        ", utilisation d'un pool de " + MAX_CLIENTS + " threads");
+            }
+            threadPool = Executors.newFixedThreadPool(MAX_CLIENTS);
+            // Each connection with output to write holds one writer: a client that stops reading only blocks its own
+            AtomicInteger writerCount = new AtomicInteger();
+            writerPool = Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "client-writer-" + writerCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadMode = "pool de " + MAX_CLIENTS + " threads";
+        }
         
         try (ServerSocket serverSocket = new ServerSocket(port)) {
-            System.out.println("🎮 Serveur Morpion en attente de connexion sur le port " + port + "...");
-            System.out.println("✨ Serveur multi-joueurs activé avec option IA");
+            ServerLog.info("🎮 Serveur Morpion en attente de connexion sur le port " + port + "...");
+            ServerLog.info("✨ Serveur multi-joueurs activé avec option IA (" + threadMode + ")");
 
             while (true) {
                 Socket clientSocket = serverSocket.accept();
-                System.out.println("✅ Client connecté : " + clientSocket.getInetAddress());
+                ServerLog.info(() -> "✅ Client connecté : " + clientSocket.getInetAddress());
                 
                 // Create handler for this new player
-                PlayerHandler playerHandler = new PlayerHandler(clientSocket);
-                threadPool.submit(playerHandler);
+                SocketClientChannel channel = new SocketClientChannel(clientSocket, writeCoalescer, writerPool);
+                channel.setListener(new PlayerHandler(channel));
+                threadPool.submit(channel);
             }
         } catch (IOException e) {
-            System.err.println("❌ Erreur serveur: " + e.getMessage());
-            e.printStackTrace();
+            ServerLog.error("❌ Erreur serveur: " + e.getMessage(), e);
         } finally {
             if (threadPool != null) {
                 threadPool.shutdown();
             }
+            writerPool.shutdown();
         }
     }
 
     /**
-     * Inner class to represent a game between two players
+     * NIO engine: a few selector threads serve every connected client
+     */
+    private static void runNioEngine(ServerConfig config) {
+        int port = config.getPort();
+
+        try {
+            NioServer nioServer = new NioServer(port, config.getIoThreads(), writeCoalescer, channel -> {
+                ServerLog.info(() -> "✅ Client connecté : " + channel.getRemoteAddress());
+                return new PlayerHandler(channel);
+            });
+
+            ServerLog.info("🎮 Serveur Morpion en attente de connexion sur le port " + port + "...");
+            ServerLog.info("✨ Serveur multi-joueurs activé avec option IA (moteur NIO, " +
+                    config.getIoThreads() + " boucles)");
+            nioServer.run();
+        } catch (IOException e) {
+            ServerLog.error("❌ Erreur serveur: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Joins the cluster: waiting players are paired by the coordinator node
+     * and games may be hosted by the node of the other player
+     */
+    private static void startCluster(ServerConfig config) {
+        try {
+            ClusterTransport transport = new TcpTransport(config.getClusterNode(), config.getClusterPort(),
+                    TcpTransport.parsePeers(config.getClusterPeers()));
+            // Position among the sorted node ids: distinct on every node with the same peer list
+            ids = new IdGenerator(transport.getNodes().headSet(transport.getNodeId()).size());
+            clusterRouting = new ClusterRouting<>(transport, new ClusterPlayers(), config.getMatchIntervalMillis());
+            transport.start(clusterRouting);
+            ServerLog.info("🔗 Cluster: nœuds " + transport.getNodes() + ", appariement sur " + clusterRouting.coordinator());
+        } catch (IOException | IllegalArgumentException e) {
+            ServerLog.error("❌ Impossible de rejoindre le cluster, fonctionnement autonome: " + e.getMessage());
+            clusterRouting = null;
+            ids = new IdGenerator(0);
+        }
+    }
+
+    /**
+     * Maps the solved positions of the board; the AI then answers from the
+     * file instead of searching
+     */
+    private static void loadTablebase(Path file) {
+        try {
+            Tablebase loaded = Tablebase.open(file);
+            if (loaded.getSize() != boardSize || loaded.getWinLength() != winLength) {
+                ServerLog.warn("⚠️ Table de finales " + file + " résolue pour un autre plateau ("
+                        + loaded.getSize() + "×" + loaded.getSize() + ", " + loaded.getWinLength() + " à aligner), ignorée");
+                return;
+            }
+            tablebase = loaded;
+            ServerLog.info("📚 Table de finales " + file + ": " + loaded.getEntries() + " positions");
+        } catch (IOException e) {
+            ServerLog.error("❌ Impossible de lire la table de finales " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exposes the counters of every server component
+     */
+    private static void registerMetrics() {
+        metrics.gauge("connected_clients", "Client connections currently open", connectedClients::sum);
+        metrics.counter("connections_total", "Client connections accepted", acceptedConnections::sum);
+        metrics.gauge("waiting_players", "Players waiting for an opponent", () -> matchmaker.getQueuedPlayers());
+        metrics.counter("matches_total", "Pairs formed by the matchmaker", matchmaker::getMatches);
+        metrics.counter("widened_matches_total", "Pairs formed after widening the rating or latency band", matchmaker::getWidenedMatches);
+        metrics.summary("matchmaker_wait_seconds", "Time matched players spent waiting for an opponent", matchmaker.getWaitTimes());
+        metrics.gauge("active_games", "Games not closed yet, by opponent", "mode", MorpionServer::gamesByMode);
+        metrics.gauge("games", "Games in each lifecycle phase (closed: since start-up)", "phase", MorpionServer::gamesByPhase);
+        metrics.counter("games_timed_out_total", "Games closed because no rematch started in time", gameLifecycle::getTimedOutGames);
+        metrics.gauge("game_worker_threads", "Threads running the game events", () -> gameExecutor.getThreads());
+        metrics.gauge("game_events_pending", "Game events posted and not finished yet", gameExecutor::getPendingEvents);
+        metrics.gauge("game_mailboxes_ready", "Games with events waiting for a free worker", () -> gameExecutor.getReadyGames());
+        metrics.counter("game_events_total", "Game events run (moves, AI turns, rematches, departures...)", gameExecutor::getCompletedEvents);
+        metrics.counter("game_events_failed_total", "Game events that ended with an error", gameExecutor::getFailedEvents);
+        metrics.counter("moves_total", "Moves played, by players and by the AI", movesPlayed::sum);
+        metrics.summary("move_processing_seconds", "Time from a player's move being posted to its replies being queued", moveLatency);
+        metrics.summary("ai_decision_seconds", "Time for the AI to choose a move", aiDecisionTime);
+        if (alphaBeta != null) {
+            metrics.counter("ai_searches_total", "Alpha-beta searches run for the AI moves", alphaBeta::getSearches);
+            metrics.counter("ai_search_nodes_total", "Positions visited by the alpha-beta searches", alphaBeta::getSearchedNodes);
+            metrics.counter("ai_table_hits_total", "Positions found in the transposition tables", alphaBeta::getTableHits);
+            metrics.gauge("ai_search_depth_average", "Average depth completed within the time budget", alphaBeta::getAverageDepth);
+            metrics.gauge("ai_search_threads", "Threads of the alpha-beta searches, shared by every game", () -> alphaBeta.getThreads());
+            metrics.gauge("ai_searches_running", "Alpha-beta searches started and not finished yet", () -> alphaBeta.getRunningSearches());
+            metrics.counter("ai_search_split_tasks_total", "Tasks searching the root moves after the first one in parallel", alphaBeta::getSplitTasks);
+            metrics.counter("ai_search_steals_total", "Search tasks taken by an idle search thread from a busy one", alphaBeta::getSteals);
+        }
+        if (mcts != null) {
+            metrics.counter("ai_searches_total", "Monte Carlo searches run for the AI moves", mcts::getSearches);
+            metrics.counter("ai_playouts_total", "Random games played out by the Monte Carlo searches", mcts::getPlayouts);
+            metrics.counter("ai_full_arenas_total", "Monte Carlo searches that filled their node arena", mcts::getFullArenas);
+            metrics.gauge("ai_search_threads", "Threads of the Monte Carlo searches, shared by every game", () -> mcts.getThreads());
+            metrics.gauge("ai_searches_queued", "Monte Carlo searches waiting for a free thread", () -> mcts.getQueuedSearches());
+        }
+        metrics.gauge("ai_queue_depth", "AI moves waiting for their delay or a free thread", () -> aiScheduler.getQueueDepth());
+        metrics.counter("ai_turns_scheduled_total", "AI moves handed to the AI threads", aiScheduler::getScheduledTurns);
+        metrics.counter("ai_turns_inline_total", "AI moves posted without delay because the queue was full", aiScheduler::getInlineTurns);
+        metrics.counter("ai_turns_completed_total", "AI moves played", aiScheduler::getCompletedTurns);
+        metrics.gauge("ai_lag_average_seconds", "Average delay between the planned and actual start of an AI move",
+                () -> aiScheduler.getAverageLagMicros() / 1e6);
+        metrics.gauge("ai_lag_max_seconds", "Longest delay between the planned and actual start of an AI move",
+                () -> aiScheduler.getMaxLagMicros() / 1e6);
+        metrics.counter("output_messages_total", "Lines and frames sent to clients", writeCoalescer::getMessages);
+        metrics.counter("output_bytes_total", "Bytes sent to clients", writeCoalescer::getBytes);
+        metrics.counter("output_writes_total", "Socket writes (flushes) of client output", writeCoalescer::getWrites);
+        metrics.counter("output_syscalls_saved_total", "Socket writes avoided by batching (messages minus writes)", writeCoalescer::getSyscallsSaved);
+        metrics.counter("output_timer_flushes_total", "Flushes done by the latency timer", writeCoalescer::getTimerFlushes);
+        metrics.gauge("thread_pool_threads", "Client thread pool of the blocking engine", "state", MorpionServer::threadPoolUsage);
+        metrics.gauge("board_text_cached", "Text boards already encoded", BoardText::getCachedBoards);
+        metrics.gauge("sessions_active", "Resume tokens currently valid", sessions::getActiveSessions);
+        metrics.counter("sessions_issued_total", "Resume tokens issued", sessions::getIssued);
+        metrics.counter("sessions_parked_total", "Players parked after a dropped connection", sessions::getParked);
+        metrics.counter("sessions_resumed_total", "Players back in their game", sessions::getResumed);
+        metrics.counter("sessions_expired_total", "Parked players who did not come back in time", sessions::getExpired);
+        metrics.gauge("tracked_connections", "Connections watched by the idle reaper", idleReaper::getTrackedConnections);
+        metrics.counter("reaped_idle_total", "Connections closed for inactivity", idleReaper::getReapedIdle);
+        metrics.counter("reaped_unresponsive_total", "Connections closed for not answering pings", idleReaper::getReapedUnresponsive);
+        metrics.counter("pings_total", "Heartbeat pings sent", idleReaper::getPingsSent);
+        metrics.counter("pongs_total", "Heartbeat replies received", idleReaper::getPongs);
+        metrics.counter("log_entries_written_total", "Log entries written", () -> ServerLog.getAppender().getWrittenEntries());
+        metrics.counter("log_entries_dropped_total", "Log entries dropped because the buffer was full", () -> ServerLog.getAppender().getDroppedEntries());
+        metrics.counter("log_batches_total", "Batches written by the log thread", () -> ServerLog.getAppender().getBatches());
+    }
+    
+    private static Map<String, Long> gamesByMode() {
+        long ai = 0;
+        long human = 0;
+        for (Game game : activeGames.values()) {
+            if (game.isAgainstAI()) {
+                ai++;
+            } else {
+                human++;
+            }
+        }
+        Map<String, Long> games = new LinkedHashMap<>();
+        games.put("ai", ai);
+        games.put("pvp", human);
+        return games;
+    }
+    
+    private static Map<String, Long> gamesByPhase() {
+        Map<String, Long> games = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            games.put(phase.name().toLowerCase(), gameLifecycle.getGames(phase));
+        }
+        return games;
+    }
+    
+    private static Map<String, Integer> threadPoolUsage() {
+        if (!(threadPool instanceof ThreadPoolExecutor)) {
+            return Collections.emptyMap();  // Virtual threads or NIO engine
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) threadPool;
+        Map<String, Integer> usage = new LinkedHashMap<>();
+        usage.put("active", pool.getActiveCount());
+        usage.put("started", pool.getPoolSize());
+        usage.put("max", pool.getMaximumPoolSize());
+        usage.put("queued", pool.getQueue().size());
+        return usage;
+    }
+    
+    /**
+     * Reads commands typed on the server's terminal: "metrics" prints the
+     * metrics, like a thread dump on SIGQUIT. Ends quietly without a terminal.
+     */
+    private static void startConsole() {
+        Thread console = new Thread(() -> {
+            BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = input.readLine()) != null) {
+                    if (line.trim().equalsIgnoreCase("metrics")) {
+                        System.out.print(metrics.render());
+                        System.out.flush();
+                    } else if (!line.trim().isEmpty()) {
+                        System.out.println("❓ Commande inconnue: " + line.trim() + " (commande disponible: metrics)");
+                    }
+                }
+            } catch (IOException e) {
+                // No terminal
+            }
+        }, "server-console");
+        console.setDaemon(true);
+        console.start();
+    }
+    
+    /**
+     * Starts the game of two players paired by the matchmaker (on its thread)
+     */
+    private static void startMatchedGame(PlayerHandler first, PlayerHandler second) {
+        Game game = new Game(first, second);
+        
+        // A player may have disconnected while being matched, before joining the game
+        if (!first.isConnected()) {
+            game.handlePlayerDisconnect(first);
+        } else if (!second.isConnected()) {
+            game.handlePlayerDisconnect(second);
+        }
+    }
+
+    /**
+     * @return true for the 3×3 board, the only one binary frames and the perfect-play table know
+     */
+    private static boolean isClassicBoard() {
+        return boardSize == GameState.CLASSIC_SIZE && winLength == GameState.CLASSIC_SIZE;
+    }
+    
+    /**
+     * Inner class to represent a game between two players.
+     *
+     * Every change of the game's state is an event posted to its mailbox:
+     * the events run one at a time on the shared game workers, so the
+     * fields below are never touched by two threads at once.
      */
     private static class Game {
         private final PlayerHandler player1;
         private final PlayerHandler player2;  // Can be null for AI games
-        private final String gameId;
-        private char[][] board = new char[3][3];
-        private boolean gameActive = true;
+        private final long gameId;
+        private final GameState board = new GameState(boardSize, winLength);
+        private final GameExecutor.Mailbox mailbox = gameExecutor.newMailbox();
+        private final GameLifecycle.Tracker lifecycle = gameLifecycle.track(() -> post(this::closedForTimeout));
         private PlayerHandler currentTurn;
+        private int aiTurns;  // AI moves asked for, to drop the answer of a stale search
         private boolean againstAI = false;
         private boolean startingPlayerAlternates = true;
+        private static final int RATING_K_FACTOR = 32;
 
         /**
          * Constructor for a game between two human players
@@ -82,10 +464,11 @@ public class MorpionServer {
         public Game(PlayerHandler player1, PlayerHandler player2) {
             this.player1 = player1;
             this.player2 = player2;
-            this.gameId = generateGameId();
+            this.gameId = ids.next();
             this.againstAI = false;
             
-            initializeGame();
+            seatPlayers();
+            post(this::initializeGame);
         }
         
         /**
@@ -94,36 +477,34 @@ public class MorpionServer {
         public Game(PlayerHandler humanPlayer, boolean humanStarts) {
             this.player1 = humanPlayer;
             this.player2 = null;  // No second player for AI games
-            this.gameId = generateGameId();
+            this.gameId = ids.next();
             this.againstAI = true;
             
-            initializeGame();
-            
-            // Set who starts
-            if (humanStarts) {
-                currentTurn = player1;
-                System.out.println("🎲 " + player1.getPlayerName() + " commence la partie contre l'IA");
-                player1.sendMessage("🎲 Vous commencez. C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
-            } else {
-                currentTurn = null; // Indicates AI's turn
-                System.out.println("🤖 L'IA commence la partie contre " + player1.getPlayerName());
-                player1.sendMessage("🤖 L'ordinateur commence. Veuillez attendre...");
+            seatPlayers();
+            post(() -> {
+                initializeGame();
                 
-                // Use a separate thread with a small delay for the AI's first move
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(1000);
-                        makeAIMove();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }).start();
-            }
+                // Set who starts
+                if (humanStarts) {
+                    currentTurn = player1;
+                    ServerLog.info(() -> "🎲 " + player1.getPlayerName() + " commence la partie contre l'IA");
+                    player1.sendMessage(MessageCode.TURN, "🎲 Vous commencez. C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
+                } else {
+                    currentTurn = null; // Indicates AI's turn
+                    ServerLog.info(() -> "🤖 L'IA commence la partie contre " + player1.getPlayerName());
+                    player1.sendMessage(MessageCode.WAIT, "🤖 L'ordinateur commence. Veuillez attendre...");
+                    
+                    // Play the AI's first move after a small delay
+                    scheduleAIMove();
+                }
+            });
         }
         
-        private void initializeGame() {
-            resetBoard();
-            
+        /**
+         * Gives the players their symbol and this game, on the creating thread:
+         * whatever they send from then on is posted after the game's start
+         */
+        private void seatPlayers() {
             // Set player symbols
             player1.setSymbol('X');
             if (player2 != null) {
@@ -135,87 +516,139 @@ public class MorpionServer {
             if (player2 != null) {
                 player2.joinGame(this);
             }
+        }
+        
+        private void initializeGame() {
+            resetBoard();
             
             // Add to active games
             activeGames.put(gameId, this);
+            lifecycle.moveTo(Phase.IN_PROGRESS);
+            
+            if (!board.isClassic()) {
+                notifyBothPlayers(MessageCode.INFO, "🔲 Plateau " + board.getSize() + "×" + board.getSize() + ": alignez "
+                        + board.getWinLength() + " symboles pour gagner. Format: ligne colonne (ex: " + MoveCommand.format(board.getSize() / 2, board.getSize() - 1) + ")");
+            }
             
             if (!againstAI) {
                 // Human vs Human: Randomly decide who starts
-                boolean player1Starts = random.nextBoolean();
+                boolean player1Starts = ThreadLocalRandom.current().nextBoolean();
                 this.currentTurn = player1Starts ? player1 : player2;
                 
-                System.out.println("🆕 Nouvelle partie créée: " + gameId + 
+                ServerLog.info(() -> "🆕 Nouvelle partie créée: " + name() + 
                     " - " + player1.getPlayerName() + " (X) vs " + player2.getPlayerName() + " (O)");
-                System.out.println("🎲 " + currentTurn.getPlayerName() + " commence la partie");
+                ServerLog.info(() -> "🎲 " + currentTurn.getPlayerName() + " commence la partie");
                 
                 // Send initial messages to players
-                notifyBothPlayers("Partie commencée ! " + player1.getPlayerName() + " (X) vs " + player2.getPlayerName() + " (O)");
+                notifyBothPlayers(MessageCode.INFO, "Partie commencée ! " + player1.getPlayerName() + " (X) vs " + player2.getPlayerName() + " (O)");
                 
                 // Tell players who starts (explicitly tell each player if it's their turn)
                 if (currentTurn == player1) {
-                    player1.sendMessage("🎲 Vous commencez! C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
-                    player2.sendMessage("⌛ " + player1.getPlayerName() + " commence. Attendez votre tour...");
+                    player1.sendMessage(MessageCode.TURN, "🎲 Vous commencez! C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
+                    player2.sendMessage(MessageCode.WAIT, "⌛ " + player1.getPlayerName() + " commence. Attendez votre tour...");
                 } else {
-                    player2.sendMessage("🎲 Vous commencez! C'EST VOTRE TOUR (O)! Format: ligne colonne (ex: 01)");
-                    player1.sendMessage("⌛ " + player2.getPlayerName() + " commence. Attendez votre tour...");
+                    player2.sendMessage(MessageCode.TURN, "🎲 Vous commencez! C'EST VOTRE TOUR (O)! Format: ligne colonne (ex: 01)");
+                    player1.sendMessage(MessageCode.WAIT, "⌛ " + player2.getPlayerName() + " commence. Attendez votre tour...");
                 }
                 
                 // Send the board
                 sendBoard();
             } else {
                 // Human vs AI: Information is sent in the constructor
-                System.out.println("🆕 Nouvelle partie contre l'IA créée: " + gameId + 
+                ServerLog.info(() -> "🆕 Nouvelle partie contre l'IA créée: " + name() + 
                     " - " + player1.getPlayerName() + " (X) vs IA (O)");
-                player1.sendMessage("Partie commencée ! Vous (X) vs Ordinateur (O)");
+                player1.sendMessage(MessageCode.INFO, "Partie commencée ! Vous (X) vs Ordinateur (O)");
                 sendBoard();
             }
         }
         
-        private String generateGameId() {
-            return "game-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+        /**
+         * @return the compact form of the game id, for logs
+         */
+        private String name() {
+            return IdGenerator.format(gameId);
+        }
+        
+        public boolean isAgainstAI() {
+            return againstAI;
         }
         
         public void resetBoard() {
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    board[i][j] = ' ';
+            board.resetBoard();
+        }
+        
+        /**
+         * Runs a game event on the game's mailbox, then hands what it queued
+         * for the players to their connections. Flushing never blocks: a
+         * client that stops reading cannot hold a game worker.
+         */
+        private void post(Runnable event) {
+            mailbox.execute(() -> {
+                try {
+                    event.run();
+                } finally {
+                    flushPlayers();
                 }
-            }
+            });
         }
         
-        public synchronized boolean makeMove(PlayerHandler player, int row, int col) {
+        private void scheduleAIMove() {
+            aiScheduler.schedule(() -> post(this::makeAIMove));
+        }
+        
+        public void makeMove(PlayerHandler player, int row, int col) {
+            // Measured from the post, so the time spent waiting for the game's turn counts
+            long start = System.nanoTime();
+            post(() -> {
+                applyMove(player, row, col);
+                moveLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            });
+        }
+        
+        private boolean applyMove(PlayerHandler player, int row, int col) {
             // Debug info
-            System.out.println("Tentative de coup: Joueur=" + player.getPlayerName() + 
-                ", Position=[" + row + "," + col + "], Tour actuel=" + 
-                (currentTurn == player ? "correct" : "incorrect - C'est le tour de " + 
-                (currentTurn != null ? currentTurn.getPlayerName() : "l'IA")));
+            if (ServerLog.isEnabled(ServerLog.Level.DEBUG)) {
+                ServerLog.debug("Tentative de coup: Joueur=" + player.getPlayerName() + 
+                    ", Position=[" + row + "," + col + "], Tour actuel=" + 
+                    (currentTurn == player ? "correct" : "incorrect - C'est le tour de " + 
+                    (currentTurn != null ? currentTurn.getPlayerName() : "l'IA")));
+            }
+            
+            if (!isInProgress()) {
+                player.sendMessage(MessageCode.INVALID, "⛔ La partie est terminée. Tapez REPLAY pour rejouer.");
+                return false;
+            }
             
             // Check if it's this player's turn
             if (player != currentTurn) {
-                player.sendMessage("⛔ Ce n'est pas votre tour!");
+                player.sendMessage(MessageCode.INVALID, "⛔ Ce n'est pas votre tour!");
                 return false;
             }
             
             // Check if the move is valid
-            if (row < 0 || row > 2 || col < 0 || col > 2 || board[row][col] != ' ') {
-                player.sendMessage("⛔ Coup invalide. La case est occupée ou hors limites.");
+            if (!board.isInside(row, col) || board.getCell(row, col) != ' ') {
+                player.sendMessage(MessageCode.INVALID, "⛔ Coup invalide. La case est occupée ou hors limites.");
                 return false;
             }
             
             // Make the move
-            board[row][col] = player.getSymbol();
-            System.out.println("🎯 " + player.getPlayerName() + " joue en [" + row + "," + col + "]");
+            board.setCell(row, col, player.getSymbol());
+            movesPlayed.increment();
+            if (ServerLog.isEnabled(ServerLog.Level.DEBUG)) {
+                ServerLog.debug("🎯 " + player.getPlayerName() + " joue en [" + row + "," + col + "]");
+            }
             
             // Send updated board
             sendBoard();
             
             // Check if the game is over
             if (checkWin(player.getSymbol())) {
-                gameActive = false;
-                player.sendMessage("🏆 Félicitations! Vous avez gagné!");
+                lifecycle.moveTo(Phase.FINISHED);
+                player.sendMessage(MessageCode.WIN, "🏆 Félicitations! Vous avez gagné!");
                 
                 if (!againstAI && player2 != null) {
-                    getOtherPlayer(player).sendMessage("😢 Vous avez perdu. " + player.getPlayerName() + " a gagné.");
+                    updateRatings(player, getOtherPlayer(player), 1.0);
+                    getOtherPlayer(player).sendMessage(MessageCode.LOSE, "😢 Vous avez perdu. " + player.getPlayerName() + " a gagné.");
                 }
                 
                 endGame();
@@ -223,11 +656,12 @@ public class MorpionServer {
             }
             
             if (isBoardFull()) {
-                gameActive = false;
+                lifecycle.moveTo(Phase.FINISHED);
                 if (againstAI) {
-                    player1.sendMessage("🤝 Match nul! Le plateau est plein.");
+                    player1.sendMessage(MessageCode.DRAW, "🤝 Match nul! Le plateau est plein.");
                 } else {
-                    notifyBothPlayers("🤝 Match nul! Le plateau est plein.");
+                    updateRatings(player1, player2, 0.5);
+                    notifyBothPlayers(MessageCode.DRAW, "🤝 Match nul! Le plateau est plein.");
                 }
                 endGame();
                 return true;
@@ -236,145 +670,76 @@ public class MorpionServer {
             // Switch turns
             if (againstAI) {
                 // AI's turn next
-                player1.sendMessage("🤖 Tour de l'ordinateur...");
+                player1.sendMessage(MessageCode.WAIT, "🤖 Tour de l'ordinateur...");
                 currentTurn = null; // Indicates AI's turn
                 
                 // Small delay before AI move
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(1000);
-                        makeAIMove();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }).start();
+                scheduleAIMove();
             } else {
                 // Switch to other human player
                 PlayerHandler nextPlayer = getOtherPlayer(player);
                 currentTurn = nextPlayer;
                 
                 // Notify players of next turn with explicit turn indication
-                currentTurn.sendMessage("🎲 C'EST VOTRE TOUR (" + currentTurn.getSymbol() + ")! Format: ligne colonne (ex: 01)");
-                getOtherPlayer(currentTurn).sendMessage("⌛ En attente du coup de " + currentTurn.getPlayerName() + "...");
+                currentTurn.sendMessage(MessageCode.TURN, "🎲 C'EST VOTRE TOUR (" + currentTurn.getSymbol() + ")! Format: ligne colonne (ex: 01)");
+                getOtherPlayer(currentTurn).sendMessage(MessageCode.WAIT, "⌛ En attente du coup de " + currentTurn.getPlayerName() + "...");
             }
             
             return true;
         }
         
         /**
-         * Makes a move for the AI
+         * Makes a move for the AI: the tablebase when one is loaded, else the
+         * perfect-play table on 3×3 and the configured engine on larger boards
          */
         private void makeAIMove() {
-            if (!gameActive) {
-                System.out.println("⚠️ AI tried to move but game is not active");
+            if (!isInProgress()) {
+                ServerLog.debug(() -> "⚠️ AI tried to move but game is not active");
                 return;
             }
             
-            System.out.println("🤖 L'IA réfléchit à son coup...");
-            
-            char aiSymbol = 'O';  // AI is always O
-            char humanSymbol = 'X';  // Human is always X
-            
-            // For the first move, prefer center then corners
-            boolean isFirstMove = true;
-            for (int row = 0; row < 3; row++) {
-                for (int col = 0; col < 3; col++) {
-                    if (board[row][col] != ' ') {
-                        isFirstMove = false;
-                        break;
-                    }
-                }
-                if (!isFirstMove) break;
-            }
-            
-            if (isFirstMove) {
-                System.out.println("🤖 L'IA fait le premier coup de la partie");
-                // For first move, strongly prefer center
-                if (board[1][1] == ' ') {
-                    makeAIMoveAt(1, 1);
-                    return;
-                }
-            }
-            
-            // Try to win
-            if (tryWinningMove(aiSymbol)) return;
-            
-            // Block human if they're about to win
-            if (tryBlockingMove(humanSymbol)) return;
+            ServerLog.debug(() -> "🤖 L'IA réfléchit à son coup...");
             
-            // Try center
-            if (board[1][1] == ' ') {
-                makeAIMoveAt(1, 1);
-                return;
-            }
-            
-            // Try corners
-            int[][] corners = {{0, 0}, {0, 2}, {2, 0}, {2, 2}};
-            for (int[] corner : corners) {
-                if (board[corner[0]][corner[1]] == ' ') {
-                    makeAIMoveAt(corner[0], corner[1]);
-                    return;
-                }
-            }
-            
-            // Any remaining square
-            for (int row = 0; row < 3; row++) {
-                for (int col = 0; col < 3; col++) {
-                    if (board[row][col] == ' ') {
-                        makeAIMoveAt(row, col);
-                        return;
+            // AI is always O
+            long start = System.nanoTime();
+            int turn = ++aiTurns;
+            AiPlayer ai = tablebase != null ? tablebase : (board.isClassic() ? AiPlayer.PERFECT_TABLE : largeBoardAi);
+            CompletableFuture<Integer> move = ai.chooseMoveAsync(board, 'O', aiDifficulty);
+            if (move.isDone()) {
+                playAIMove(turn, move.join(), start);
+            } else {
+                // Searched on the AI threads: this game's worker goes on with other games meanwhile
+                move.whenComplete((cell, error) -> post(() -> {
+                    if (error != null) {
+                        ServerLog.error("❌ Erreur de l'IA, coup joué par l'IA gloutonne: " + error.getMessage(), error);
+                        playAIMove(turn, AiPlayer.GREEDY.chooseMove(board, 'O', aiDifficulty), start);
+                    } else {
+                        playAIMove(turn, cell, start);
                     }
-                }
+                }));
             }
         }
         
-        private boolean tryWinningMove(char symbol) {
-            for (int row = 0; row < 3; row++) {
-                for (int col = 0; col < 3; col++) {
-                    if (board[row][col] == ' ') {
-                        // Try move
-                        board[row][col] = symbol;
-                        boolean isWinning = checkWin(symbol);
-                        if (isWinning) {
-                            if (symbol == 'X') {  // Human symbol
-                                // Just checking, don't actually make the move
-                                board[row][col] = ' ';
-                            } else {
-                                // Make the winning move for AI
-                                finishAIMove(row, col);
-                            }
-                            return true;
-                        }
-                        board[row][col] = ' ';  // Reset
-                    }
-                }
+        /**
+         * Plays the move chosen for AI turn number {@code turn}, unless the
+         * game moved on while it was searched (player gone, game closed)
+         */
+        private void playAIMove(int turn, int cell, long start) {
+            if (turn != aiTurns || !isInProgress() || currentTurn != null) {
+                return;
             }
-            return false;
-        }
-        
-        private boolean tryBlockingMove(char humanSymbol) {
-            for (int row = 0; row < 3; row++) {
-                for (int col = 0; col < 3; col++) {
-                    if (board[row][col] == ' ') {
-                        // Try player move to see if they would win
-                        board[row][col] = humanSymbol;
-                        boolean wouldWin = checkWin(humanSymbol);
-                        board[row][col] = ' ';  // Reset
-                        
-                        if (wouldWin) {
-                            // Block it
-                            makeAIMoveAt(row, col);
-                            return true;
-                        }
-                    }
-                }
+            aiDecisionTime.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            if (cell >= 0) {
+                makeAIMoveAt(cell / board.getSize(), cell % board.getSize());
             }
-            return false;
         }
         
         private void makeAIMoveAt(int row, int col) {
-            board[row][col] = 'O';  // AI is always O
-            System.out.println("🤖 L'IA joue en [" + row + "," + col + "]");
+            board.setCell(row, col, 'O');  // AI is always O
+            movesPlayed.increment();
+            if (ServerLog.isEnabled(ServerLog.Level.DEBUG)) {
+                ServerLog.debug("🤖 L'IA joue en [" + row + "," + col + "]");
+            }
             finishAIMove(row, col);
         }
         
@@ -382,97 +747,122 @@ public class MorpionServer {
             // Send updated board
             sendBoard();
             
-            player1.sendMessage("🤖 L'ordinateur a joué en " + row + col);
+            player1.sendMessage(MessageCode.INFO, "🤖 L'ordinateur a joué en " + MoveCommand.format(row, col));
             
             // Check if AI won
             if (checkWin('O')) {
-                gameActive = false;
-                player1.sendMessage("😢 Vous avez perdu. L'ordinateur a gagné!");
+                lifecycle.moveTo(Phase.FINISHED);
+                player1.sendMessage(MessageCode.LOSE, "😢 Vous avez perdu. L'ordinateur a gagné!");
                 endGame();
                 return;
             }
             
             // Check for draw
             if (isBoardFull()) {
-                gameActive = false;
-                player1.sendMessage("🤝 Match nul! Le plateau est plein.");
+                lifecycle.moveTo(Phase.FINISHED);
+                player1.sendMessage(MessageCode.DRAW, "🤝 Match nul! Le plateau est plein.");
                 endGame();
                 return;
             }
             
             // Human's turn again
             currentTurn = player1;
-            player1.sendMessage("🎲 C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
+            player1.sendMessage(MessageCode.TURN, "🎲 C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
+        }
+        
+        /**
+         * Elo update of two human players, used by the matchmaker's rating bands
+         * @param scoreA 1 if a won, 0.5 for a draw
+         */
+        private void updateRatings(PlayerHandler a, PlayerHandler b, double scoreA) {
+            double expectedA = 1 / (1 + Math.pow(10, (b.getRating() - a.getRating()) / 400.0));
+            int delta = (int) Math.round(RATING_K_FACTOR * (scoreA - expectedA));
+            a.setRating(a.getRating() + delta);
+            b.setRating(b.getRating() - delta);
         }
         
         private boolean checkWin(char symbol) {
-            // Check rows
-            for (int i = 0; i < 3; i++) {
-                if (board[i][0] == symbol && board[i][1] == symbol && board[i][2] == symbol) {
-                    return true;
-                }
-            }
-            
-            // Check columns
-            for (int i = 0; i < 3; i++) {
-                if (board[0][i] == symbol && board[1][i] == symbol && board[2][i] == symbol) {
-                    return true;
-                }
-            }
+            return board.checkWin(symbol);
+        }
+        
+        private boolean isBoardFull() {
+            return board.isBoardFull();
+        }
+        
+        public void sendBoard() {
+            // Text drawing for legacy clients, compact frame for binary protocol clients,
+            // one BOARD line for clients that negotiated message codes
+            boolean secondPlayer = !againstAI && player2 != null;
+            boolean anyBinary = player1.usesBinaryProtocol() || (secondPlayer && player2.usesBinaryProtocol());
+            boolean anyCoded = usesBoardLine(player1) || (secondPlayer && usesBoardLine(player2));
+            boolean anyText = usesBoardText(player1) || (secondPlayer && usesBoardText(player2));
             
-            // Check diagonals
-            if (board[0][0] == symbol && board[1][1] == symbol && board[2][2] == symbol) {
-                return true;
-            }
+            byte[] boardText = anyText ? formatBoard() : null;
+            String boardLine = anyCoded ? MessageCode.boardLine(board) : null;
+            byte[] boardFrame = anyBinary ? BoardFrame.encode(board, nextTurnSymbol()) : null;
             
-            if (board[0][2] == symbol && board[1][1] == symbol && board[2][0] == symbol) {
-                return true;
+            sendBoardTo(player1, boardText, boardLine, boardFrame);
+            if (secondPlayer) {
+                sendBoardTo(player2, boardText, boardLine, boardFrame);
             }
-            
-            return false;
         }
         
-        private boolean isBoardFull() {
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    if (board[i][j] == ' ') {
-                        return false;
-                    }
-                }
+        private void sendBoardTo(PlayerHandler player, byte[] boardText, String boardLine, byte[] boardFrame) {
+            if (player.usesBinaryProtocol()) {
+                player.sendFrame(boardFrame);
+            } else if (player.usesMessageCodes()) {
+                player.sendCodedLine(boardLine);
+            } else {
+                player.sendFrame(boardText);
             }
-            return true;
         }
         
-        public void sendBoard() {
-            String boardStr = formatBoard();
-            player1.sendMessage(boardStr);
-            
-            if (!againstAI && player2 != null) {
-                player2.sendMessage(boardStr);
+        private static boolean usesBoardLine(PlayerHandler player) {
+            return !player.usesBinaryProtocol() && player.usesMessageCodes();
+        }
+        
+        private static boolean usesBoardText(PlayerHandler player) {
+            return !player.usesBinaryProtocol() && !player.usesMessageCodes();
+        }
+        
+        /**
+         * Symbol of the player who moves next (' ' when the game is over).
+         * The board is sent right after a move, before currentTurn is switched,
+         * so the next player is deduced from the last move.
+         */
+        private char nextTurnSymbol() {
+            if (BoardFrame.resultOf(board) != BoardFrame.RESULT_IN_PROGRESS) {
+                return ' ';
             }
+            if (board.getLastPlayedRow() >= 0) {
+                char lastSymbol = board.getCell(board.getLastPlayedRow(), board.getLastPlayedCol());
+                return lastSymbol == 'X' ? 'O' : 'X';
+            }
+            return currentTurn != null ? currentTurn.getSymbol() : 'O';  // null means AI's turn
         }
         
-        private String formatBoard() {
-            StringBuilder sb = new StringBuilder();
-            sb.append("\n    0   1   2\n");
-            sb.append("  ┌───┬───┬───┐\n");
-            for (int i = 0; i < 3; i++) {
-                sb.append(i).append(" │ ");
-                for (int j = 0; j < 3; j++) {
-                    sb.append(board[i][j] == ' ' ? " " : board[i][j]).append(" │ ");
-                }
-                sb.append("\n");
-                if (i < 2) sb.append("  ├───┼───┼───┤\n");
+        /**
+         * Text drawing of the board, already encoded and shared by every game
+         */
+        private byte[] formatBoard() {
+            return BoardText.encode(board);
+        }
+        
+        /**
+         * Writes what the current game event queued for the players
+         */
+        private void flushPlayers() {
+            player1.flush();
+            if (player2 != null) {
+                player2.flush();
             }
-            sb.append("  └───┴───┴───┘\n");
-            return sb.toString();
         }
         
-        private void notifyBothPlayers(String message) {
-            player1.sendMessage(message);
+        private void notifyBothPlayers(MessageCode code, String message) {
+            player1.sendMessage(code, message);
             
             if (!againstAI && player2 != null) {
-                player2.sendMessage(message);
+                player2.sendMessage(code, message);
             }
         }
         
@@ -481,77 +871,153 @@ public class MorpionServer {
             return (player == player1) ? player2 : player1;
         }
         
+        /**
+         * A player left for good: no rematch is possible, so the game is closed
+         */
         public void handlePlayerDisconnect(PlayerHandler player) {
-            if (!gameActive) return;
-            
-            gameActive = false;
-            System.out.println("🚫 " + player.getPlayerName() + " s'est déconnecté de la partie " + gameId);
+            post(() -> playerLeft(player));
+        }
+        
+        private void playerLeft(PlayerHandler player) {
+            if (lifecycle.getPhase() == Phase.CLOSED) {
+                return;
+            }
+            ServerLog.info(() -> "🚫 " + player.getPlayerName() + " s'est déconnecté de la partie " + name());
             
             // Notify the other player if this is a human vs human game
-            if (!againstAI && player2 != null) {
+            PlayerHandler otherPlayer = getOtherPlayer(player);
+            if (otherPlayer != null) {
+                otherPlayer.sendMessage(MessageCode.INFO, isInProgress()
+                        ? "❌ " + player.getPlayerName() + " s'est déconnecté. Partie terminée."
+                        : "❌ " + player.getPlayerName() + " est parti.");
+            }
+            
+            if (lifecycle.moveTo(Phase.CLOSED)) {
+                release();
+            }
+        }
+        
+        /**
+         * Posted by the lifecycle timer once the game closed for lack of a rematch
+         */
+        private void closedForTimeout() {
+            ServerLog.info(() -> "⌛ Pas de revanche pour la partie " + name());
+            notifyBothPlayers(MessageCode.INFO, "⌛ Pas de nouvelle partie demandée à temps.");
+            release();
+        }
+        
+        /**
+         * Removes the closed game and sends its players back to the mode choice
+         */
+        private void release() {
+            activeGames.remove(gameId);
+            ServerLog.info(() -> "🗑️ Partie " + name() + " terminée et supprimée.");
+            
+            player1.leaveGame(this);
+            if (player2 != null) {
+                player2.leaveGame(this);
+            }
+        }
+        
+        private boolean isInProgress() {
+            return lifecycle.getPhase() == Phase.IN_PROGRESS;
+        }
+        
+        /**
+         * Keeps the game going while a dropped player may come back
+         */
+        public void handlePlayerPaused(PlayerHandler player) {
+            post(() -> {
+                ServerLog.info(() -> "⏸️ " + player.getPlayerName() + " a perdu la connexion, partie " + name() + " en attente");
+                
                 PlayerHandler otherPlayer = getOtherPlayer(player);
                 if (otherPlayer != null) {
-                    otherPlayer.sendMessage("❌ " + player.getPlayerName() + " s'est déconnecté. Partie terminée.");
+                    otherPlayer.sendMessage(MessageCode.INFO, "⏸️ " + player.getPlayerName() + " a perdu la connexion. Attente de son retour ("
+                            + sessions.getGraceMillis() / 1000 + " s)...");
                 }
+            });
+        }
+        
+        /**
+         * Sends the whole game state to a player back on a new connection
+         */
+        public void handlePlayerResumed(PlayerHandler player) {
+            post(() -> playerResumed(player));
+        }
+        
+        private void playerResumed(PlayerHandler player) {
+            ServerLog.info(() -> "▶️ " + player.getPlayerName() + " a repris la partie " + name());
+            
+            player.sendMessage(MessageCode.INFO, "🔁 Partie reprise! Vous jouez les " + player.getSymbol() + ".");
+            sendBoardTo(player,
+                    usesBoardText(player) ? formatBoard() : null,
+                    usesBoardLine(player) ? MessageCode.boardLine(board) : null,
+                    player.usesBinaryProtocol() ? BoardFrame.encode(board, nextTurnSymbol()) : null);
+            
+            if (!isInProgress()) {
+                player.sendMessage(MessageCode.INFO, "🔄 Partie terminée. Tapez REPLAY pour jouer à nouveau ou autre chose pour quitter.");
+            } else if (currentTurn == player) {
+                player.sendMessage(MessageCode.TURN, "🎲 C'EST VOTRE TOUR (" + player.getSymbol() + ")! Format: ligne colonne (ex: 01)");
+            } else if (currentTurn == null) {
+                player.sendMessage(MessageCode.WAIT, "🤖 Tour de l'ordinateur...");
+            } else {
+                player.sendMessage(MessageCode.WAIT, "⌛ En attente du coup de " + currentTurn.getPlayerName() + "...");
             }
             
-            // Clean up
-            endGame();
+            PlayerHandler otherPlayer = getOtherPlayer(player);
+            if (otherPlayer != null) {
+                otherPlayer.sendMessage(MessageCode.INFO, "▶️ " + player.getPlayerName() + " est de retour.");
+            }
         }
         
         private void endGame() {
             if (againstAI) {
                 // For AI games, ask if player wants another game
-                player1.sendMessage("🔄 Partie terminée. Tapez REPLAY pour jouer à nouveau ou autre chose pour quitter.");
+                player1.sendMessage(MessageCode.INFO, "🔄 Partie terminée. Tapez REPLAY pour jouer à nouveau ou autre chose pour quitter.");
             } else {
                 // For human games, ask both players
-                notifyBothPlayers("🔄 Partie terminée. Tapez REPLAY pour jouer à nouveau ou autre chose pour quitter.");
-            }
-            
-            // Remove from active games if all players disconnect
-            if (player1 == null || !player1.isConnected()) {
-                if (againstAI || player2 == null || !player2.isConnected()) {
-                    activeGames.remove(gameId);
-                    System.out.println("🗑️ Partie " + gameId + " terminée et supprimée.");
-                }
+                notifyBothPlayers(MessageCode.INFO, "🔄 Partie terminée. Tapez REPLAY pour jouer à nouveau ou autre chose pour quitter.");
             }
         }
         
         public void handleRematch(PlayerHandler requestingPlayer) {
+            post(() -> {
+                if (!lifecycle.getPhase().isOver()) {
+                    requestingPlayer.sendMessage(MessageCode.INVALID, "⛔ La partie n'est pas terminée.");
+                    return;
+                }
+                startRematch(requestingPlayer);
+            });
+        }
+        
+        private void startRematch(PlayerHandler requestingPlayer) {
             if (againstAI) {
                 // AI game - restart immediately
                 resetBoard();
-                gameActive = true;
+                lifecycle.moveTo(Phase.IN_PROGRESS);
                 
                 // Decide who starts - alternate from previous game
                 boolean humanStarts = currentTurn == player1;
                 
                 if (humanStarts) {
                     currentTurn = player1;
-                    player1.sendMessage("🆕 Nouvelle partie! Vous commencez.");
-                    player1.sendMessage("🎲 C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
+                    player1.sendMessage(MessageCode.INFO, "🆕 Nouvelle partie! Vous commencez.");
+                    player1.sendMessage(MessageCode.TURN, "🎲 C'EST VOTRE TOUR (X)! Format: ligne colonne (ex: 01)");
                 } else {
                     currentTurn = null; // Indicates AI's turn
-                    player1.sendMessage("🆕 Nouvelle partie! L'ordinateur commence.");
-                    player1.sendMessage("🤖 Tour de l'ordinateur...");
+                    player1.sendMessage(MessageCode.INFO, "🆕 Nouvelle partie! L'ordinateur commence.");
+                    player1.sendMessage(MessageCode.WAIT, "🤖 Tour de l'ordinateur...");
                     sendBoard();
                     
                     // AI starts - make first move
-                    new Thread(() -> {
-                        try {
-                            Thread.sleep(1000);
-                            makeAIMove();
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        }
-                    }).start();
+                    scheduleAIMove();
                 }
             } else {
                 // Human vs Human game
                 PlayerHandler otherPlayer = getOtherPlayer(requestingPlayer);
                 
                 if (otherPlayer == null || !otherPlayer.isConnected()) {
-                    requestingPlayer.sendMessage("❌ L'autre joueur n'est plus connecté.");
+                    requestingPlayer.sendMessage(MessageCode.INFO, "❌ L'autre joueur n'est plus connecté.");
                     return;
                 }
                 
@@ -560,7 +1026,7 @@ public class MorpionServer {
                 if (requestingPlayer.wantsRematch() && otherPlayer.wantsRematch()) {
                     // Both players want a rematch
                     resetBoard();
-                    gameActive = true;
+                    lifecycle.moveTo(Phase.IN_PROGRESS);
                     
                     // Reset rematch flags
                     player1.setWantsRematch(false);
@@ -571,22 +1037,23 @@ public class MorpionServer {
                         currentTurn = (currentTurn == player1) ? player2 : player1;
                     } else {
                         // Random selection
-                        currentTurn = random.nextBoolean() ? player1 : player2;
+                        currentTurn = ThreadLocalRandom.current().nextBoolean() ? player1 : player2;
                     }
                     
-                    System.out.println("🔄 Nouvelle partie entre " + player1.getPlayerName() + " et " + player2.getPlayerName());
-                    System.out.println("🎲 " + currentTurn.getPlayerName() + " commence");
+                    ServerLog.info(() -> "🔄 Nouvelle partie entre " + player1.getPlayerName() + " et " + player2.getPlayerName());
+                    ServerLog.info(() -> "🎲 " + currentTurn.getPlayerName() + " commence");
                     
-                    notifyBothPlayers("🆕 Nouvelle partie commencée! " + currentTurn.getPlayerName() + " commence.");
+                    notifyBothPlayers(MessageCode.INFO, "🆕 Nouvelle partie commencée! " + currentTurn.getPlayerName() + " commence.");
                     sendBoard();
                     
                     // Explicitly tell who's turn it is
-                    currentTurn.sendMessage("🎲 C'EST VOTRE TOUR (" + currentTurn.getSymbol() + ")! Format: ligne colonne (ex: 01)");
-                    getOtherPlayer(currentTurn).sendMessage("⌛ En attente du coup de " + currentTurn.getPlayerName() + "...");
+                    currentTurn.sendMessage(MessageCode.TURN, "🎲 C'EST VOTRE TOUR (" + currentTurn.getSymbol() + ")! Format: ligne colonne (ex: 01)");
+                    getOtherPlayer(currentTurn).sendMessage(MessageCode.WAIT, "⌛ En attente du coup de " + currentTurn.getPlayerName() + "...");
                 } else {
                     // Still waiting for other player
-                    requestingPlayer.sendMessage("⏳ En attente de la réponse de l'autre joueur...");
-                    otherPlayer.sendMessage("🔄 " + requestingPlayer.getPlayerName() + " veut rejouer. Tapez REPLAY si vous voulez aussi.");
+                    lifecycle.moveTo(Phase.AWAITING_REMATCH);
+                    requestingPlayer.sendMessage(MessageCode.WAIT, "⏳ En attente de la réponse de l'autre joueur...");
+                    otherPlayer.sendMessage(MessageCode.INFO, "🔄 " + requestingPlayer.getPlayerName() + " veut rejouer. Tapez REPLAY si vous voulez aussi.");
                 }
             }
         }
@@ -595,124 +1062,433 @@ public class MorpionServer {
     /**
      * Inner class to handle each client connection
      */
-    private static class PlayerHandler implements Runnable {
-        private final Socket clientSocket;
-        private BufferedReader input;
-        private PrintWriter output;
+    private static class PlayerHandler implements ClientListener, IdleReaper.Session {
+        // Connection this handler listens to, and the one its output goes to:
+        // they differ once the player resumed its session on a new connection
+        private final ClientChannel connection;
+        private volatile ClientChannel channel;
         private String playerName;
         private char symbol;
-        private Game currentGame;
-        private boolean connected = true;
-        private boolean wantsRematch = false;
+        private volatile Game currentGame;  // cleared by the game's own events
+        private volatile boolean connected = true;
+        private volatile boolean choiceMade = false;
+        private volatile boolean wantsRematch = false;
+        private volatile boolean binaryProtocol = false;
+        private volatile boolean messageCodes = false;
+        private volatile Matchmaker.Ticket<PlayerHandler> matchTicket;
+        private volatile int rating = Matchmaker.DEFAULT_RATING;
+        private final String playerId;
+        
+        // Session resumption
+        private volatile boolean resumable = false;
+        private String sessionToken;
+        private volatile PlayerHandler resumedPlayer;  // seat taken back by this connection
+        private final ReentrantLock connectionLock = new ReentrantLock();
+        
+        // Liveness of the connection, null for stand-ins of remote players
+        private IdleReaper.Activity activity;
 
-        public PlayerHandler(Socket socket) {
-            this.clientSocket = socket;
-            this.playerName = "Player-" + clientSocket.getInetAddress().getHostAddress();
+        public PlayerHandler(ClientChannel channel) {
+            this.connection = channel;
+            this.channel = channel;
+            this.playerName = "Player-" + channel.getRemoteAddress();
+            this.playerId = IdGenerator.format(ids.next());
+        }
+        
+        /**
+         * Stand-in for a player connected to another node, playing a game hosted here
+         */
+        public PlayerHandler(ClientChannel channel, String playerId, String playerName, int rating,
+                             boolean binaryProtocol, boolean messageCodes) {
+            this.connection = channel;
+            this.channel = channel;
+            this.playerId = playerId;
+            this.playerName = playerName;
+            this.rating = rating;
+            this.binaryProtocol = binaryProtocol;
+            this.messageCodes = messageCodes;
+            this.choiceMade = true;
+        }
+        
+        @Override
+        public void onOpen() {
+            activity = idleReaper.track(this);
+            acceptedConnections.increment();
+            connectedClients.increment();
+            
+            // Welcome the player
+            sendMessage(MessageCode.INFO, "👋 Bienvenue sur le serveur Morpion!");
+            sendMessage(MessageCode.INFO, "🤔 Souhaitez-vous jouer contre l'IA (tapez AI) ou attendre un autre joueur (tapez WAIT)?");
+            flush();
         }
         
         @Override
-        public void run() {
+        public void onLine(String inputLine) {
+            IdleReaper.Activity tracked = activity;
+            if (Heartbeat.isPong(inputLine)) {
+                if (tracked != null) {
+                    tracked.pong(Heartbeat.sequenceOf(inputLine));
+                }
+                return;
+            }
+            if (tracked != null) {
+                tracked.touch();
+            }
+            
+            PlayerHandler seat = resumedPlayer;
+            if (seat != null) {
+                seat.receiveLine(connection, inputLine);
+            } else {
+                receiveLine(connection, inputLine);
+            }
+        }
+        
+        /**
+         * Handles a line from one of the connections of this player, ignoring
+         * a connection replaced by a resumed session
+         */
+        private void receiveLine(ClientChannel from, String inputLine) {
+            if (from != channel) {
+                return;
+            }
+            
+            // Game hosted by another node: its stand-in handles the line
+            if (clusterRouting != null && clusterRouting.relayInput(playerId, inputLine)) {
+                return;
+            }
+            
             try {
-                // Setup I/O
-                input = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-                output = new PrintWriter(clientSocket.getOutputStream(), true);
-                
-                // Welcome the player
-                sendMessage("👋 Bienvenue sur le serveur Morpion!");
-                sendMessage("🤔 Souhaitez-vous jouer contre l'IA (tapez AI) ou attendre un autre joueur (tapez WAIT)?");
-                
-                boolean choiceMade = false;
-                String inputLine;
-                
                 // Wait for AI or WAIT choice
-                while (!choiceMade && (inputLine = input.readLine()) != null) {
-                    if (inputLine.equalsIgnoreCase("AI")) {
-                        choiceMade = true;
-                        sendMessage("🤖 Vous allez jouer contre l'IA.");
-                        
-                        // Decide randomly who starts
-                        boolean humanStarts = random.nextBoolean();
-                        sendMessage(humanStarts ? 
-                            "🎲 Vous commencez la partie." : 
-                            "🤖 L'ordinateur commence la partie.");
-                        
-                        // Start a game against the AI
-                        new Game(this, humanStarts);
-                    } else if (inputLine.equalsIgnoreCase("WAIT")) {
-                        choiceMade = true;
-                        sendMessage("⏳ Recherche d'un adversaire humain...");
-                        
-                        // Add to waiting list or match with waiting player
-                        synchronized (waitingPlayers) {
-                            if (waitingPlayers.isEmpty()) {
-                                waitingPlayers.add(this);
-                                sendMessage("⏳ En attente d'un autre joueur...");
-                            } else {
-                                // Match with first waiting player
-                                PlayerHandler opponent = waitingPlayers.remove(0);
-                                new Game(opponent, this);
-                            }
-                        }
-                    } else {
-                        sendMessage("❓ Option non reconnue. Tapez AI pour jouer contre l'ordinateur ou WAIT pour attendre un autre joueur.");
-                    }
+                if (!choiceMade) {
+                    processModeChoice(inputLine);
+                    return;
                 }
                 
-                // Main communication loop for game commands
-                while (connected && (inputLine = input.readLine()) != null) {
-                    if (DEBUG_MODE) {
-                        System.out.println("[" + playerName + "] Commande reçue: " + inputLine);
-                    }
-                    
-                    processCommand(inputLine);
+                // Main communication for game commands
+                if (!connected) return;
+                
+                if (ServerLog.isEnabled(ServerLog.Level.DEBUG)) {
+                    ServerLog.debug("[" + playerName + "] Commande reçue: " + inputLine);
                 }
                 
-            } catch (IOException e) {
-                System.out.println("❌ Erreur avec " + playerName + ": " + e.getMessage());
+                processCommand(inputLine);
             } finally {
-                disconnect();
+                // One write for the replies to this line; game events flush their own output
+                flush();
+            }
+        }
+        
+        @Override
+        public void onDisconnect(IOException cause) {
+            if (cause != null) {
+                ServerLog.info(() -> "❌ Erreur avec " + playerName + ": " + cause.getMessage());
+            }
+            if (activity != null) {
+                activity.cancel();
+                connectedClients.decrement();
+            }
+            PlayerHandler seat = resumedPlayer;
+            if (seat != null) {
+                seat.connectionLost(connection);
+            } else {
+                connectionLost(connection);
+            }
+        }
+        
+        /**
+         * A connection of this player ended: parks the player if it can come
+         * back to its game, otherwise ends its session
+         */
+        private void connectionLost(ClientChannel from) {
+            Game game;
+            String token;
+            connectionLock.lock();
+            try {
+                if (from != channel) {
+                    return;  // Replaced by a resumed session
+                }
+                game = currentGame;
+                token = sessionToken;
+                if (token == null || game == null || !connected || isRelayed()) {
+                    disconnect();
+                    return;
+                }
+                connected = false;
+            } finally {
+                connectionLock.unlock();
+            }
+            
+            closeChannel();
+            game.handlePlayerPaused(this);
+            sessions.park(token, this::sessionExpired);  // Expires at once if the game ended meanwhile
+        }
+        
+        @Override
+        public long getIdleTimeoutMillis() {
+            PlayerHandler seat = seat();
+            return seat.currentGame != null || seat.isRelayed() ? idleGameMillis : idleLobbyMillis;
+        }
+        
+        @Override
+        public void sendPing(long sequence) {
+            sendCodedLine(Heartbeat.ping(sequence));
+            flush();
+        }
+        
+        @Override
+        public void reapIdle() {
+            ServerLog.info(() -> "💤 " + playerName + " inactif depuis trop longtemps, déconnexion.");
+            PlayerHandler seat = seat();
+            seat.sendMessage(MessageCode.INFO, "💤 Déconnexion pour inactivité.");
+            seat.disconnect();
+        }
+        
+        @Override
+        public void reapUnresponsive() {
+            // Handled like a dropped connection: the player may resume its game
+            ServerLog.info(() -> "📵 " + playerName + " ne répond plus, connexion fermée.");
+            connection.abort();
+        }
+        
+        /**
+         * @return the player whose seat this connection plays
+         */
+        private PlayerHandler seat() {
+            PlayerHandler seat = resumedPlayer;
+            return seat != null ? seat : this;
+        }
+        
+        /**
+         * @return heartbeat round-trip time of the connection, or Matchmaker.UNKNOWN_RTT
+         */
+        private long getRttMillis() {
+            IdleReaper.Activity tracked = activity;
+            long rtt = tracked != null ? tracked.getRttMillis() : -1;
+            return rtt >= 0 ? rtt : Matchmaker.UNKNOWN_RTT;
+        }
+        
+        /**
+         * @return true if this player's game is hosted by another node of the cluster
+         */
+        private boolean isRelayed() {
+            return clusterRouting != null && clusterRouting.isRelayed(playerId);
+        }
+        
+        private void sessionExpired() {
+            ServerLog.info(() -> "⌛ " + playerName + " n'est pas revenu à temps.");
+            disconnect();
+        }
+        
+        /**
+         * Moves this player's seat to a new connection
+         *
+         * @return false if the game ended in the meantime
+         */
+        private boolean resumeOn(ClientChannel newChannel, boolean binary, boolean codes) {
+            ClientChannel previous;
+            Game game;
+            connectionLock.lock();
+            try {
+                game = currentGame;
+                if (game == null) {
+                    return false;
+                }
+                previous = channel;
+                channel = newChannel;
+                binaryProtocol = binary;
+                messageCodes = codes;
+                connected = true;
+            } finally {
+                connectionLock.unlock();
+            }
+            
+            // A connection not yet seen as dropped is replaced
+            if (previous.isOpen()) {
+                try {
+                    previous.close();
+                } catch (IOException e) {
+                    ServerLog.warn("❌ Erreur lors de la fermeture de l'ancienne connexion: " + e.getMessage());
+                }
+            }
+            
+            sendCodedLine(SessionResume.RESUMED);
+            game.handlePlayerResumed(this);
+            return true;
+        }
+        
+        private void resumeSession(String token) {
+            PlayerHandler seat = sessions.resume(token);
+            if (seat == null || seat == this || !seat.resumeOn(connection, binaryProtocol, messageCodes)) {
+                ServerLog.info(() -> "❌ " + playerName + ": reprise de session refusée");
+                sendCodedLine(SessionResume.FAILED);
+                sendMessage(MessageCode.INFO, "❌ Partie introuvable ou délai de reprise dépassé. Tapez AI ou WAIT.");
+                return;
+            }
+            
+            choiceMade = true;
+            resumedPlayer = seat;
+        }
+        
+        private void processModeChoice(String inputLine) {
+            String resumeToken = SessionResume.tokenOfCommand(inputLine);
+            if (inputLine.equalsIgnoreCase(BoardFrame.HANDSHAKE) && isClassicBoard()) {
+                // Client asks for binary board frames instead of the text drawing
+                // (3×3 only: on larger boards it is refused like on an older server)
+                binaryProtocol = true;
+                sendCodedLine(BoardFrame.HANDSHAKE_ACK);
+            } else if (inputLine.equalsIgnoreCase(MessageCode.HANDSHAKE)) {
+                // Client asks for a code in front of every message
+                sendCodedLine(MessageCode.HANDSHAKE_ACK);
+                messageCodes = true;
+            } else if (inputLine.equalsIgnoreCase(Heartbeat.HANDSHAKE) && activity != null && idleReaper.isHeartbeatEnabled()) {
+                // Client answers pings: dead connections are found without waiting for the idle timeout
+                sendCodedLine(Heartbeat.HANDSHAKE_ACK);
+                activity.enableHeartbeat();
+            } else if (inputLine.equalsIgnoreCase(SessionResume.HANDSHAKE) && sessions.isEnabled()) {
+                // Client wants a token to come back to its game after a dropped connection
+                sendCodedLine(SessionResume.HANDSHAKE_ACK);
+                resumable = true;
+            } else if (resumeToken != null) {
+                resumeSession(resumeToken);
+            } else if (inputLine.equalsIgnoreCase("AI")) {
+                choiceMade = true;
+                sendMessage(MessageCode.INFO, "🤖 Vous allez jouer contre l'IA.");
+                
+                // Decide randomly who starts
+                boolean humanStarts = ThreadLocalRandom.current().nextBoolean();
+                sendMessage(MessageCode.INFO, humanStarts ? 
+                    "🎲 Vous commencez la partie." : 
+                    "🤖 L'ordinateur commence la partie.");
+                
+                // Start a game against the AI
+                new Game(this, humanStarts);
+            } else if (inputLine.equalsIgnoreCase("WAIT")) {
+                choiceMade = true;
+                sendMessage(MessageCode.WAIT, "⏳ Recherche d'un adversaire humain...");
+                sendMessage(MessageCode.WAIT, "⏳ En attente d'un autre joueur...");
+                
+                // The matchmaker thread starts the game once an opponent is found
+                if (clusterRouting != null) {
+                    clusterRouting.enqueue(this);
+                } else {
+                    matchTicket = matchmaker.enqueue(this, rating, getRttMillis());
+                }
+            } else {
+                sendMessage(MessageCode.INVALID, "❓ Option non reconnue. Tapez AI pour jouer contre l'ordinateur ou WAIT pour attendre un autre joueur.");
             }
         }
         
         private void processCommand(String command) {
             if (command.equalsIgnoreCase("QUIT")) {
-                sendMessage("👋 Au revoir!");
+                sendMessage(MessageCode.INFO, "👋 Au revoir!");
                 disconnect();
                 return;
             }
             
+            // Cleared by the game's own events: read once
+            Game game = currentGame;
             if (command.equalsIgnoreCase("REPLAY")) {
-                if (currentGame != null) {
-                    currentGame.handleRematch(this);
+                if (game != null) {
+                    game.handleRematch(this);
                 }
                 return;
             }
             
-            // Process game moves (format: row col)
-            if (currentGame != null && command.length() == 2 && Character.isDigit(command.charAt(0)) && Character.isDigit(command.charAt(1))) {
-                int row = Character.getNumericValue(command.charAt(0));
-                int col = Character.getNumericValue(command.charAt(1));
-                currentGame.makeMove(this, row, col);
+            // Process game moves (format: row col, "01" or "12 7")
+            int[] move = game != null ? MoveCommand.parse(command) : null;
+            if (move != null) {
+                game.makeMove(this, move[0], move[1]);
             } else {
-                sendMessage("⚠️ Commande non reconnue. Utilisez le format 'ligne colonne' (ex: 01) pour jouer.");
+                sendMessage(MessageCode.INVALID, "⚠️ Commande non reconnue. Utilisez le format 'ligne colonne' (ex: 01) pour jouer.");
             }
         }
         
-        public void sendMessage(String message) {
-            if (output != null && connected) {
-                output.println(message);
-                if (DEBUG_MODE && !message.contains("┌───┬───┬───┐")) {
-                    System.out.println("[SERVEUR → " + playerName + "] " + message);
+        /**
+         * Sends a message, prefixed with its code if the client negotiated message codes
+         */
+        public void sendMessage(MessageCode code, String message) {
+            if (connected) {
+                channel.sendLine(messageCodes ? code.format(message) : message);
+                if (code != MessageCode.BOARD && ServerLog.isEnabled(ServerLog.Level.DEBUG)) {
+                    ServerLog.debug("[SERVEUR → " + playerName + "] " + message);
                 }
             }
         }
         
+        /**
+         * Sends a line as is (handshake replies, already coded BOARD lines)
+         */
+        public void sendCodedLine(String line) {
+            if (connected) {
+                channel.sendLine(line);
+            }
+        }
+        
+        /**
+         * Writes the messages queued for this player
+         */
+        public void flush() {
+            channel.flush();
+        }
+        
+        public void sendFrame(byte[] frame) {
+            if (connected) {
+                channel.sendBytes(frame);
+            }
+        }
+        
+        public boolean usesBinaryProtocol() {
+            return binaryProtocol;
+        }
+        
+        public boolean usesMessageCodes() {
+            return messageCodes;
+        }
+        
+        /**
+         * Leaves a closed game: back to the mode choice, or, for the stand-in
+         * of a remote player, back to its home node
+         */
+        public void leaveGame(Game game) {
+            if (currentGame != game) {
+                return;
+            }
+            // Token first: a RESUME can no longer find this seat once its game is cleared
+            if (sessionToken != null) {
+                sessions.release(sessionToken);
+                sessionToken = null;
+            }
+            connectionLock.lock();
+            try {
+                currentGame = null;
+            } finally {
+                connectionLock.unlock();
+            }
+            wantsRematch = false;
+            
+            if (channel instanceof RemoteClientChannel) {
+                ((RemoteClientChannel) channel).release();
+            } else if (connected) {
+                returnToLobby();
+            }
+        }
+        
+        /**
+         * Asks the player for a new mode choice (AI or WAIT)
+         */
+        public void returnToLobby() {
+            choiceMade = false;
+            sendMessage(MessageCode.LOBBY, "🏠 Retour à l'accueil.");
+            sendMessage(MessageCode.INFO, "🤔 Souhaitez-vous jouer contre l'IA (tapez AI) ou attendre un autre joueur (tapez WAIT)?");
+        }
+        
         public void joinGame(Game game) {
             this.currentGame = game;
+            this.matchTicket = null;
             
-            // Remove from waiting list if present
-            synchronized (waitingPlayers) {
-                waitingPlayers.remove(this);
+            if (resumable && sessionToken == null) {
+                sessionToken = sessions.issue(this);
+                sendCodedLine(SessionResume.tokenLine(sessionToken));
             }
         }
         
@@ -720,20 +1496,39 @@ public class MorpionServer {
             connected = false;
             
             try {
-                if (currentGame != null) {
-                    currentGame.handlePlayerDisconnect(this);
+                Game game = currentGame;
+                if (game != null) {
+                    game.handlePlayerDisconnect(this);
                 }
                 
-                synchronized (waitingPlayers) {
-                    waitingPlayers.remove(this);
+                // Leave the matchmaking queue if still waiting
+                Matchmaker.Ticket<PlayerHandler> ticket = matchTicket;
+                if (ticket != null) {
+                    ticket.cancel();
+                }
+                if (clusterRouting != null) {
+                    clusterRouting.playerLeft(playerId, this);
+                }
+                if (sessionToken != null) {
+                    sessions.release(sessionToken);
                 }
                 
-                if (clientSocket != null && !clientSocket.isClosed()) {
-                    clientSocket.close();
-                    System.out.println("🔌 " + playerName + " s'est déconnecté.");
+                if (channel.isOpen()) {
+                    channel.close();
+                    ServerLog.info(() -> "🔌 " + playerName + " s'est déconnecté.");
                 }
             } catch (IOException e) {
-                System.err.println("❌ Erreur lors de la déconnexion: " + e.getMessage());
+                ServerLog.warn("❌ Erreur lors de la déconnexion: " + e.getMessage());
+            }
+        }
+        
+        private void closeChannel() {
+            try {
+                if (channel.isOpen()) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                ServerLog.warn("❌ Erreur lors de la fermeture de " + playerName + ": " + e.getMessage());
             }
         }
         
@@ -753,6 +1548,28 @@ public class MorpionServer {
             return connected;
         }
         
+        public int getRating() {
+            return rating;
+        }
+        
+        public String getPlayerId() {
+            return playerId;
+        }
+        
+        /**
+         * Writes output produced for this player on the node hosting its game
+         */
+        public void sendRelayedOutput(byte[] output) {
+            if (connected) {
+                channel.sendBytes(output);
+                channel.flush();
+            }
+        }
+        
+        public void setRating(int rating) {
+            this.rating = rating;
+        }
+        
         public void setWantsRematch(boolean wantsRematch) {
             this.wantsRematch = wantsRematch;
         }
@@ -761,10 +1578,62 @@ public class MorpionServer {
             return wantsRematch;
         }
     }
-    
-    private static void debugLog(String message) {
-        if (DEBUG_MODE) {
-            System.out.println("[SERVER-DEBUG] " + message);
+
+    /**
+     * What the cluster routing does with the players of this server
+     */
+    private static final class ClusterPlayers implements ClusterRouting.Host<PlayerHandler> {
+        @Override
+        public PlayerDescriptor describe(PlayerHandler player) {
+            return new PlayerDescriptor(player.getPlayerId(), player.getPlayerName(), player.getRating(),
+                    player.getRttMillis(), player.usesBinaryProtocol(), player.usesMessageCodes(),
+                    player.channel.getRemoteAddress());
+        }
+        
+        @Override
+        public PlayerHandler createStandIn(PlayerDescriptor descriptor, RemoteClientChannel channel, boolean connected) {
+            PlayerHandler standIn = new PlayerHandler(channel, descriptor.getPlayerId(), descriptor.getPlayerName(),
+                    descriptor.getRating(), descriptor.usesBinaryProtocol(), descriptor.usesMessageCodes());
+            standIn.connected = connected;
+            return standIn;
+        }
+        
+        @Override
+        public boolean isConnected(PlayerHandler player) {
+            return player.isConnected();
+        }
+        
+        @Override
+        public void startGame(PlayerHandler first, PlayerHandler second) {
+            startMatchedGame(first, second);
+        }
+        
+        @Override
+        public void onRelayedInput(PlayerHandler standIn, String line) {
+            standIn.onLine(line);
+        }
+        
+        @Override
+        public void onRemoteLeft(PlayerHandler standIn) {
+            standIn.onDisconnect(null);
+        }
+        
+        @Override
+        public void onRelayedOutput(PlayerHandler player, byte[] output) {
+            player.sendRelayedOutput(output);
+        }
+        
+        @Override
+        public void onReleased(PlayerHandler player) {
+            if (player.isConnected()) {
+                player.returnToLobby();
+                player.flush();
+            }
+        }
+        
+        @Override
+        public void onClosed(PlayerHandler player) {
+            player.disconnect();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package reseau.ai;
+
+import java.util.concurrent.CompletableFuture;
+
+import reseau.model.GameState;
+
+/**
+ * IA qui choisit le coup d'un joueur sur un plateau.
+ *
+ * Le serveur et le client ne connaissent que cette interface : la table de
+ * jeu parfait sert le 3×3, la recherche alpha-bêta ou l'IA gloutonne les
+ * plateaux plus grands.
+ */
+@FunctionalInterface
+public interface AiPlayer {
+    /** Jeu parfait lu dans la table, plateau 3×3 uniquement */
+    AiPlayer PERFECT_TABLE = (state, toMove, difficulty) ->
+            PerfectPlayTable.chooseMove(PerfectPlayTable.encode(state), toMove, difficulty);
+
+    /** Un coup d'avance : gagner, bloquer, sinon prolonger la plus longue ligne */
+    AiPlayer GREEDY = GreedyPlayer::chooseMove;
+
+    /**
+     * Choisit le coup de {@code toMove}, avec la probabilité d'erreur du niveau.
+     *
+     * @return la case jouée (ligne * taille + colonne), ou -1 si la partie est finie
+     */
+    int chooseMove(GameState state, char toMove, Difficulty difficulty);
+
+    /**
+     * Choisit le coup sans forcément bloquer l'appelant. Par défaut le coup
+     * est choisi tout de suite ; une IA qui cherche longtemps le calcule sur
+     * ses propres threads, à partir d'une copie de l'état.
+     *
+     * @return la case jouée (ligne * taille + colonne), ou -1 si la partie est finie
+     */
+    default CompletableFuture<Integer> chooseMoveAsync(GameState state, char toMove, Difficulty difficulty) {
+        return CompletableFuture.completedFuture(chooseMove(state, toMove, difficulty));
+    }
+}
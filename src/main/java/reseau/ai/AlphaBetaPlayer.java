@@ -0,0 +1,628 @@
+package reseau.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import reseau.model.GameState;
+
+/**
+ * IA des grands plateaux : recherche alpha-bêta (negamax) en
+ * approfondissement itératif, arrêtée au bout du budget de temps du coup.
+ *
+ * Chaque profondeur terminée donne un coup ; quand le temps est écoulé, la
+ * recherche en cours est abandonnée et l'IA joue le coup de la dernière
+ * profondeur complète. Les coups sont examinés du plus prometteur au moins
+ * prometteur (coup de la table de transposition, victoire, blocage, puis
+ * heuristique des lignes), et seuls les meilleurs sont explorés sous la racine.
+ *
+ * Les recherches tournent sur un ForkJoinPool partagé par toutes les
+ * parties. À chaque profondeur, le premier coup de la racine est cherché
+ * seul, puis ses frères sont répartis entre plusieurs tâches avec la borne
+ * qu'il a donnée (« young brothers wait »). Le nombre de tâches d'une
+ * recherche est plafonné à sa part des threads : quand plusieurs parties
+ * attendent leur coup, aucune recherche ne prend tout le pool.
+ *
+ * Toutes les tâches partagent une {@link TranspositionTable} sans verrou,
+ * indexée par une clé de Zobrist ; chaque thread garde son propre plateau
+ * de recherche.
+ */
+public final class AlphaBetaPlayer implements AiPlayer {
+    public static final int DEFAULT_TABLE_BITS = 20;  // 2^20 entrées, 16 Mo pour tout le pool
+
+    private static final int MAX_CELLS = GameState.MAX_SIZE * GameState.MAX_SIZE;
+    private static final int WINDOWS = 4 * MAX_CELLS;  // 4 directions par case de départ
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private static final int MAX_PLY = 64;
+    // Coups explorés à la racine et sous la racine, les meilleurs selon l'ordre
+    private static final int MAX_ROOT_MOVES = 32;
+    private static final int MAX_BRANCHING = 16;
+    // Rayon autour des cases jouées dans lequel on cherche les coups
+    private static final int NEIGHBOURHOOD = 2;
+    // Le temps est vérifié tous les 256 nœuds
+    private static final int TIME_CHECK_MASK = 0xFF;
+
+    private static final int WIN = 1_000_000_000;
+    private static final int INFINITY = WIN + 1;
+    private static final int MATE_BOUND = WIN - MAX_PLY - 1;
+
+    // Priorités d'ordre des coups
+    private static final int ORDER_TT_MOVE = Integer.MAX_VALUE;
+    private static final int ORDER_WIN = 1 << 30;
+    private static final int ORDER_BLOCK = 1 << 29;
+
+    // Clés de Zobrist : une par symbole et par case, plus le trait
+    private static final long[] ZOBRIST = new long[2 * MAX_CELLS];
+    private static final long SIDE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x4D6F7270696F6EL);
+        for (int i = 0; i < ZOBRIST.length; i++) {
+            ZOBRIST[i] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final ThreadLocal<Search> searches;
+    private final AtomicInteger runningSearches = new AtomicInteger();
+
+    // Statistiques
+    private final LongAdder searchCount = new LongAdder();
+    private final LongAdder searchedNodes = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+    private final LongAdder completedDepths = new LongAdder();
+    private final LongAdder splitTasks = new LongAdder();
+
+    /**
+     * @param budgetMillis temps de réflexion de chaque coup
+     * @param tableBits    log2 du nombre d'entrées de la table de transposition
+     * @param threads      threads de recherche, partagés par toutes les parties
+     */
+    public AlphaBetaPlayer(long budgetMillis, int tableBits, int threads) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, budgetMillis));
+        this.table = new TranspositionTable(tableBits);
+        this.searches = ThreadLocal.withInitial(Search::new);
+        this.pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("ai-search-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Attend le résultat de {@link #chooseMoveAsync}
+     */
+    @Override
+    public int chooseMove(GameState state, char toMove, Difficulty difficulty) {
+        return chooseMoveAsync(state, toMove, difficulty).join();
+    }
+
+    /**
+     * Recopie la position et la cherche sur le pool de recherche. Avec la
+     * probabilité d'erreur du niveau, joue tout de suite le coup de
+     * {@link GreedyPlayer} au lieu du résultat de la recherche.
+     */
+    @Override
+    public CompletableFuture<Integer> chooseMoveAsync(GameState state, char toMove, Difficulty difficulty) {
+        if (state.isBoardFull()) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        if (difficulty.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < difficulty.getErrorRate()) {
+            return CompletableFuture.completedFuture(GreedyPlayer.chooseMove(state, toMove, difficulty));
+        }
+
+        GameState position = state.copy();
+        int side = toMove == 'X' ? 0 : 1;
+        return CompletableFuture.supplyAsync(() -> new RootSearch(position, side).run(), pool);
+    }
+
+    public long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return recherches commencées et pas encore terminées
+     */
+    public int getRunningSearches() {
+        return runningSearches.get();
+    }
+
+    public long getSearches() {
+        return searchCount.sum();
+    }
+
+    public long getSearchedNodes() {
+        return searchedNodes.sum();
+    }
+
+    public long getTableHits() {
+        return tableHits.sum();
+    }
+
+    /**
+     * @return tâches parallèles lancées pour les frères du premier coup de la racine
+     */
+    public long getSplitTasks() {
+        return splitTasks.sum();
+    }
+
+    /**
+     * @return tâches prises par un thread du pool dans la file d'un autre
+     */
+    public long getSteals() {
+        return pool.getStealCount();
+    }
+
+    /**
+     * @return profondeur moyenne des recherches terminées dans le budget
+     */
+    public double getAverageDepth() {
+        long searches = searchCount.sum();
+        return searches == 0 ? 0 : (double) completedDepths.sum() / searches;
+    }
+
+    /**
+     * Recherche d'un coup : approfondissement itératif à la racine, dont les
+     * coups sont répartis entre les threads du pool
+     */
+    private final class RootSearch {
+        private final GameState position;
+        private final int side;
+        private final long deadline;
+        private volatile boolean stopped;
+
+        // Meilleur coup de la profondeur en cours : score << 32 | (MAX_CELLS - rang), le plus grand gagne
+        private final AtomicLong iterationBest = new AtomicLong();
+        private int[] rootMoves;
+        private int rootCount;
+
+        RootSearch(GameState position, int side) {
+            this.position = position;
+            this.side = side;
+            this.deadline = System.nanoTime() + budgetNanos;
+        }
+
+        int run() {
+            runningSearches.incrementAndGet();
+            try {
+                return iterate();
+            } finally {
+                runningSearches.decrementAndGet();
+                searchCount.increment();
+            }
+        }
+
+        private int iterate() {
+            Search search = load();
+            if (search.filled == 0) {
+                return (search.size / 2) * search.size + search.size / 2;  // Le centre
+            }
+
+            int count = search.generate(0, side, -1);
+            for (int i = 0; i < count; i++) {
+                search.selectNext(0, i, count);
+            }
+            int best = search.moves[0][0];
+            if (search.moveOrder[0][0] >= ORDER_BLOCK) {
+                return best;  // Gagner ou bloquer : rien à chercher
+            }
+            rootCount = Math.min(count, MAX_ROOT_MOVES);
+            rootMoves = Arrays.copyOf(search.moves[0], rootCount);
+
+            int maxDepth = Math.min(MAX_PLY, search.cells - search.filled);
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                // Le premier coup, le plus probable, fixe la borne des autres
+                iterationBest.set(Long.MIN_VALUE);
+                searchMoves(load(), depth, 0, 1);
+                if (!stopped && rootCount > 1) {
+                    searchSiblings(depth);
+                }
+                if (stopped) {
+                    break;
+                }
+
+                // Le meilleur coup passe en tête pour la profondeur suivante
+                long packed = iterationBest.get();
+                int alpha = (int) (packed >> 32);
+                int index = MAX_CELLS - (int) packed;
+                best = rootMoves[index];
+                System.arraycopy(rootMoves, 0, rootMoves, 1, index);
+                rootMoves[0] = best;
+                completedDepths.increment();
+                if (alpha >= MATE_BOUND || alpha <= -MATE_BOUND) {
+                    break;  // Issue forcée : chercher plus loin ne la changera pas
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Répartit les coups 1 à rootCount - 1 entre des tâches, au plus la
+         * part du pool qui revient à cette recherche
+         */
+        private void searchSiblings(int depth) {
+            int fairShare = Math.max(1, pool.getParallelism() / Math.max(1, runningSearches.get()));
+            int tasks = Math.min(fairShare, rootCount - 1);
+            if (tasks == 1) {
+                searchMoves(load(), depth, 1, 1);
+                return;
+            }
+
+            List<ForkJoinTask<?>> siblings = new ArrayList<>(tasks);
+            for (int task = 0; task < tasks; task++) {
+                int first = 1 + task;
+                siblings.add(ForkJoinTask.adapt(() -> searchMoves(load(), depth, first, tasks)));
+            }
+            splitTasks.add(tasks);
+            ForkJoinTask.invokeAll(siblings);
+        }
+
+        /**
+         * Cherche les coups de la racine first, first + step, ... sur le
+         * plateau du thread courant
+         */
+        private void searchMoves(Search search, int depth, int first, int step) {
+            try {
+                int end = first == 0 ? 1 : rootCount;
+                for (int i = first; i < end && !stopped; i += step) {
+                    int alpha = (int) (iterationBest.get() >> 32);
+                    if (alpha < -INFINITY) {
+                        alpha = -INFINITY;
+                    }
+                    int cell = rootMoves[i];
+                    int score = search.play(cell, side)
+                            ? WIN - 1
+                            : -search.negamax(depth - 1, 1, -INFINITY, -alpha, 1 - side);
+                    search.undo(cell, side);
+                    if (search.aborted) {
+                        stopped = true;
+                        break;
+                    }
+                    // Sans dépasser alpha, le score n'est qu'un majorant : à égalité
+                    // il ferait passer ce coup devant le meilleur connu
+                    if (score > alpha || alpha == -INFINITY) {
+                        long packed = ((long) score << 32) | (MAX_CELLS - i);
+                        iterationBest.accumulateAndGet(packed, Math::max);
+                    }
+                }
+            } finally {
+                searchedNodes.add(search.nodes);
+                tableHits.add(search.hits);
+            }
+        }
+
+        /**
+         * @return le plateau de recherche du thread courant, chargé avec la position
+         */
+        private Search load() {
+            Search search = searches.get();
+            search.load(position, this);
+            return search;
+        }
+
+        boolean isOver() {
+            return stopped || System.nanoTime() > deadline;
+        }
+    }
+
+    /**
+     * Plateau de recherche d'un thread.
+     *
+     * Le plateau compte, pour chaque fenêtre de k cases alignées, les
+     * symboles de chaque joueur : jouer ou retirer un coup ne met à jour que
+     * les fenêtres qui passent par la case, ce qui donne à la fois la
+     * détection de victoire et l'évaluation incrémentales.
+     */
+    private final class Search {
+        private int size;
+        private int winLength;
+        private int cells;
+        private int[] weights;         // valeur d'une fenêtre selon son nombre de symboles
+        private int[][] windowsOf;     // fenêtres passant par chaque case (direction * MAX_CELLS + départ)
+
+        private final byte[] board = new byte[MAX_CELLS];         // 0 vide, 1 X, 2 O
+        private final int[] near = new int[MAX_CELLS];            // symboles dans le voisinage
+        private final int[] windowCounts = new int[2 * WINDOWS];  // symboles de X puis de O par fenêtre
+        private int evaluation;  // du point de vue de X
+        private int filled;
+        private long hash;
+
+        private final int[][] moves = new int[MAX_PLY + 1][MAX_CELLS];
+        private final int[][] moveOrder = new int[MAX_PLY + 1][MAX_CELLS];
+
+        private RootSearch root;
+        private boolean aborted;
+        private long nodes;
+        private long hits;
+
+        /**
+         * Recopie la position de la partie dans le plateau de recherche
+         */
+        void load(GameState state, RootSearch root) {
+            this.root = root;
+            aborted = false;
+            nodes = 0;
+            hits = 0;
+            if (state.getSize() != size || state.getWinLength() != winLength) {
+                configure(state.getSize(), state.getWinLength());
+            }
+            Arrays.fill(board, 0, cells, (byte) 0);
+            Arrays.fill(near, 0, cells, 0);
+            Arrays.fill(windowCounts, 0);
+            evaluation = 0;
+            filled = 0;
+            hash = variantKey(size, winLength);
+            for (int cell = 0; cell < cells; cell++) {
+                char symbol = state.getCell(cell / size, cell % size);
+                if (symbol != ' ') {
+                    play(cell, symbol == 'X' ? 0 : 1);
+                }
+            }
+        }
+
+        private void configure(int size, int winLength) {
+            this.size = size;
+            this.winLength = winLength;
+            this.cells = size * size;
+
+            // 8 fois plus par symbole, plafonné pour que la somme des fenêtres reste loin de WIN
+            weights = new int[winLength + 1];
+            for (int count = 1; count <= winLength; count++) {
+                int step = Math.max(0, Math.min(5, count + 5 - winLength));
+                weights[count] = 1 << (3 * step);
+            }
+
+            windowsOf = new int[cells][];
+            int[] found = new int[4 * winLength];
+            for (int cell = 0; cell < cells; cell++) {
+                int row = cell / size;
+                int col = cell % size;
+                int count = 0;
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    int dr = DIRECTIONS[d][0];
+                    int dc = DIRECTIONS[d][1];
+                    for (int back = 0; back < winLength; back++) {
+                        int startRow = row - back * dr;
+                        int startCol = col - back * dc;
+                        if (isInside(startRow, startCol)
+                                && isInside(startRow + (winLength - 1) * dr, startCol + (winLength - 1) * dc)) {
+                            found[count++] = d * MAX_CELLS + startRow * size + startCol;
+                        }
+                    }
+                }
+                windowsOf[cell] = Arrays.copyOf(found, count);
+            }
+        }
+
+        private boolean isInside(int row, int col) {
+            return row >= 0 && row < size && col >= 0 && col < size;
+        }
+
+        /**
+         * Joue la case pour side (0 = X, 1 = O)
+         *
+         * @return true si le coup aligne winLength symboles
+         */
+        private boolean play(int cell, int side) {
+            boolean won = false;
+            int mineBase = side * WINDOWS;
+            int theirsBase = (1 - side) * WINDOWS;
+            int delta = 0;
+            for (int window : windowsOf[cell]) {
+                int mine = windowCounts[mineBase + window];
+                int theirs = windowCounts[theirsBase + window];
+                if (theirs == 0) {
+                    delta += weights[mine + 1] - weights[mine];
+                } else if (mine == 0) {
+                    delta += weights[theirs];  // La fenêtre adverse est coupée
+                }
+                windowCounts[mineBase + window] = mine + 1;
+                won |= mine + 1 == winLength;
+            }
+            evaluation += side == 0 ? delta : -delta;
+            board[cell] = (byte) (side + 1);
+            hash ^= ZOBRIST[side * MAX_CELLS + cell];
+            filled++;
+            updateNeighbourhood(cell, 1);
+            return won;
+        }
+
+        private void undo(int cell, int side) {
+            int mineBase = side * WINDOWS;
+            int theirsBase = (1 - side) * WINDOWS;
+            int delta = 0;
+            for (int window : windowsOf[cell]) {
+                int mine = windowCounts[mineBase + window];
+                int theirs = windowCounts[theirsBase + window];
+                if (theirs == 0) {
+                    delta += weights[mine] - weights[mine - 1];
+                } else if (mine == 1) {
+                    delta += weights[theirs];
+                }
+                windowCounts[mineBase + window] = mine - 1;
+            }
+            evaluation -= side == 0 ? delta : -delta;
+            board[cell] = 0;
+            hash ^= ZOBRIST[side * MAX_CELLS + cell];
+            filled--;
+            updateNeighbourhood(cell, -1);
+        }
+
+        private void updateNeighbourhood(int cell, int change) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int r = Math.max(0, row - NEIGHBOURHOOD); r <= Math.min(size - 1, row + NEIGHBOURHOOD); r++) {
+                for (int c = Math.max(0, col - NEIGHBOURHOOD); c <= Math.min(size - 1, col + NEIGHBOURHOOD); c++) {
+                    near[r * size + c] += change;
+                }
+            }
+        }
+
+        /**
+         * Intérêt d'un coup pour l'ordre d'examen : victoire, blocage d'une
+         * victoire adverse, sinon lignes prolongées et lignes adverses coupées
+         */
+        private int orderScore(int cell, int side) {
+            int mineBase = side * WINDOWS;
+            int theirsBase = (1 - side) * WINDOWS;
+            int score = 0;
+            boolean blocks = false;
+            for (int window : windowsOf[cell]) {
+                int mine = windowCounts[mineBase + window];
+                int theirs = windowCounts[theirsBase + window];
+                if (theirs == 0) {
+                    if (mine + 1 == winLength) {
+                        return ORDER_WIN;
+                    }
+                    score += weights[mine + 1] - weights[mine];
+                } else if (mine == 0) {
+                    blocks |= theirs + 1 == winLength;
+                    score += weights[theirs];
+                }
+            }
+            return blocks ? ORDER_BLOCK : score;
+        }
+
+        /**
+         * Range dans moves[ply] les cases vides voisines d'un symbole
+         *
+         * @return nombre de coups
+         */
+        private int generate(int ply, int side, int tableMove) {
+            int[] list = moves[ply];
+            int[] order = moveOrder[ply];
+            int count = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                if (board[cell] == 0 && near[cell] > 0) {
+                    list[count] = cell;
+                    order[count] = cell == tableMove ? ORDER_TT_MOVE : orderScore(cell, side);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Amène en position i le meilleur des coups restants (tri par sélection,
+         * fait au fur et à mesure : une coupure évite de trier le reste)
+         */
+        private void selectNext(int ply, int i, int count) {
+            int[] list = moves[ply];
+            int[] order = moveOrder[ply];
+            int best = i;
+            for (int j = i + 1; j < count; j++) {
+                if (order[j] > order[best]) {
+                    best = j;
+                }
+            }
+            if (best != i) {
+                int move = list[i];
+                list[i] = list[best];
+                list[best] = move;
+                int score = order[i];
+                order[i] = order[best];
+                order[best] = score;
+            }
+        }
+
+        private int negamax(int depth, int ply, int alpha, int beta, int side) {
+            if ((++nodes & TIME_CHECK_MASK) == 0 && root.isOver()) {
+                aborted = true;
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (filled == cells) {
+                return 0;
+            }
+
+            long key = side == 1 ? hash ^ SIDE_KEY : hash;
+            int tableMove = -1;
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                hits++;
+                tableMove = TranspositionTable.moveOf(entry);
+                if (TranspositionTable.depthOf(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                    int type = TranspositionTable.typeOf(entry);
+                    if (type == TranspositionTable.EXACT
+                            || (type == TranspositionTable.LOWER && score >= beta)
+                            || (type == TranspositionTable.UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+            if (depth == 0) {
+                return side == 0 ? evaluation : -evaluation;
+            }
+
+            int count = generate(ply, side, tableMove);
+            int limit = Math.min(count, MAX_BRANCHING);
+            int originalAlpha = alpha;
+            int bestScore = -INFINITY;
+            int bestMove = -1;
+            for (int i = 0; i < limit; i++) {
+                selectNext(ply, i, count);
+                int cell = moves[ply][i];
+                int score = play(cell, side)
+                        ? WIN - (ply + 1)
+                        : -negamax(depth - 1, ply + 1, -beta, -alpha, 1 - side);
+                undo(cell, side);
+                if (aborted) {
+                    return 0;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = cell;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            int type = bestScore <= originalAlpha
+                    ? TranspositionTable.UPPER
+                    : (bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT);
+            table.store(key, toTable(bestScore, ply), depth, type, bestMove);
+            return bestScore;
+        }
+    }
+
+    // Les scores de victoire sont rangés relativement à la position, pas à la racine
+    private static int toTable(int score, int ply) {
+        return score >= MATE_BOUND ? score + ply : (score <= -MATE_BOUND ? score - ply : score);
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE_BOUND ? score - ply : (score <= -MATE_BOUND ? score + ply : score);
+    }
+
+    private static long variantKey(int size, int winLength) {
+        long z = (size * 64L + winLength) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
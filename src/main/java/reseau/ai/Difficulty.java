@@ -0,0 +1,42 @@
+package reseau.ai;
+
+/**
+ * Niveaux de difficulté de l'IA : probabilité de jouer volontairement
+ * un coup non optimal au lieu du coup parfait.
+ */
+public enum Difficulty {
+    EASY("Facile", 0.45),
+    MEDIUM("Moyen", 0.20),
+    HARD("Difficile", 0.05),
+    PERFECT("Parfait", 0.0);
+
+    private final String displayName;
+    private final double errorRate;
+
+    Difficulty(String displayName, double errorRate) {
+        this.displayName = displayName;
+        this.errorRate = errorRate;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * Retrouve un niveau à partir de son nom (easy, medium, hard, perfect)
+     *
+     * @return le niveau correspondant, ou defaultValue si le nom est inconnu
+     */
+    public static Difficulty fromName(String name, Difficulty defaultValue) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.name().equalsIgnoreCase(name)) {
+                return difficulty;
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,116 @@
+package reseau.ai;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import reseau.model.GameState;
+
+/**
+ * IA des plateaux autres que le 3×3 (Gomoku et variantes N×N), trop grands
+ * pour une table de jeu parfait.
+ *
+ * Elle gagne si un coup aligne tout de suite ses symboles, bloque sinon la
+ * victoire immédiate de l'adversaire, et à défaut prolonge la plus longue
+ * ligne, la sienne ou celle de l'adversaire, près des cases déjà jouées.
+ */
+public final class GreedyPlayer {
+    // Directions des lignes (ligne, colonne), comme dans GameState
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private GreedyPlayer() {
+    }
+
+    /**
+     * Choisit un coup; avec la probabilité d'erreur du niveau, un coup voisin
+     * des cases jouées tiré au hasard, sauf pour gagner ou bloquer.
+     *
+     * @return la case jouée (ligne * taille + colonne), ou -1 si le plateau est plein
+     */
+    public static int chooseMove(GameState state, char toMove, Difficulty difficulty) {
+        int size = state.getSize();
+        char opponent = toMove == 'X' ? 'O' : 'X';
+        if (state.isBoardFull()) {
+            return -1;
+        }
+        if (state.getFilledCells() == 0) {
+            return (size / 2) * size + size / 2;  // Le centre
+        }
+
+        int block = -1;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (state.getCell(row, col) != ' ') {
+                    continue;
+                }
+                if (state.wouldWin(toMove, row, col)) {
+                    return row * size + col;
+                }
+                if (block < 0 && state.wouldWin(opponent, row, col)) {
+                    block = row * size + col;
+                }
+            }
+        }
+        if (block >= 0) {
+            return block;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean mistake = random.nextDouble() < difficulty.getErrorRate();
+
+        // Meilleur score parmi les cases voisines d'un symbole; à égalité, tirage au hasard
+        int best = -1;
+        int bestScore = -1;
+        int ties = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (state.getCell(row, col) != ' ' || !hasNeighbour(state, row, col)) {
+                    continue;
+                }
+                int score = mistake ? 0 : 2 * longestLine(state, toMove, row, col) + longestLine(state, opponent, row, col);
+                if (score > bestScore) {
+                    best = row * size + col;
+                    bestScore = score;
+                    ties = 1;
+                } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                    best = row * size + col;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean hasNeighbour(GameState state, int row, int col) {
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (state.isInside(r, c) && state.getCell(r, c) != ' ') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return la plus longue ligne de symbol que formerait un coup en (row, col)
+     */
+    private static int longestLine(GameState state, char symbol, int row, int col) {
+        int longest = 0;
+        for (int[] direction : DIRECTIONS) {
+            int length = 1 + run(state, symbol, row, col, direction[0], direction[1])
+                    + run(state, symbol, row, col, -direction[0], -direction[1]);
+            longest = Math.max(longest, length);
+        }
+        return longest;
+    }
+
+    private static int run(GameState state, char symbol, int row, int col, int dr, int dc) {
+        int length = 0;
+        int r = row + dr;
+        int c = col + dc;
+        while (state.isInside(r, c) && state.getCell(r, c) == symbol) {
+            length++;
+            r += dr;
+            c += dc;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,455 @@
+package reseau.ai;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import reseau.model.GameState;
+
+/**
+ * IA par recherche arborescente Monte-Carlo (MCTS, sélection UCT), pour
+ * toutes les tailles de plateau.
+ *
+ * Tant que le budget de temps n'est pas écoulé, l'IA descend l'arbre en
+ * choisissant les coups les plus prometteurs, l'agrandit d'un nœud puis
+ * finit la partie au hasard, et remonte le résultat. Elle joue ensuite le
+ * coup le plus visité. Le niveau de difficulté plafonne le nombre de parties
+ * simulées : moins de simulations, moins de coups vus d'avance.
+ *
+ * Rien n'est alloué pendant une recherche : les nœuds sont des indices dans
+ * des tableaux de primitives préalloués (une « arène » par thread), et les
+ * parties simulées tirent leurs coups avec un générateur xorshift propre au
+ * thread plutôt qu'avec un java.util.Random partagé.
+ */
+public final class MctsPlayer implements AiPlayer {
+    public static final int DEFAULT_ARENA_NODES = 1 << 18;  // 5 Mo par thread
+
+    private static final int MAX_CELLS = GameState.MAX_SIZE * GameState.MAX_SIZE;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    // Au-delà, les coups de l'arbre sont limités aux voisins des cases jouées
+    private static final int SMALL_BOARD = 5;
+    // Tirages des parties simulées pour trouver une case voisine d'un symbole
+    private static final int LOCAL_RETRIES = 4;
+    // Visites d'une feuille avant de lui créer des enfants
+    private static final int EXPAND_VISITS = 2;
+    private static final double EXPLORATION = Math.sqrt(2);
+    // Le temps est vérifié toutes les 16 simulations
+    private static final int TIME_CHECK_MASK = 0xF;
+
+    private final long budgetNanos;
+    private final int arenaNodes;
+    private final ThreadPoolExecutor workers;
+    private final ThreadLocal<Search> searches;
+
+    // Statistiques
+    private final LongAdder searchCount = new LongAdder();
+    private final LongAdder playoutCount = new LongAdder();
+    private final LongAdder fullArenas = new LongAdder();
+
+    /**
+     * @param budgetMillis temps de réflexion de chaque coup
+     * @param arenaNodes   nœuds de l'arbre de chaque thread
+     * @param threads      threads de recherche, partagés par toutes les parties
+     */
+    public MctsPlayer(long budgetMillis, int arenaNodes, int threads) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, budgetMillis));
+        this.arenaNodes = arenaNodes;
+        this.searches = ThreadLocal.withInitial(Search::new);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "ai-mcts-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Attend le résultat de {@link #chooseMoveAsync}
+     */
+    @Override
+    public int chooseMove(GameState state, char toMove, Difficulty difficulty) {
+        return chooseMoveAsync(state, toMove, difficulty).join();
+    }
+
+    /**
+     * Recopie la position et la cherche sur les threads de l'IA
+     */
+    @Override
+    public CompletableFuture<Integer> chooseMoveAsync(GameState state, char toMove, Difficulty difficulty) {
+        if (state.isBoardFull()) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        GameState position = state.copy();
+        int side = toMove == 'X' ? 1 : 2;
+        return CompletableFuture.supplyAsync(() -> {
+            Search search = searches.get();
+            int move = search.run(position, side, maxPlayouts(difficulty), System.nanoTime() + budgetNanos);
+            searchCount.increment();
+            playoutCount.add(search.playouts);
+            if (search.arenaFull) {
+                fullArenas.increment();
+            }
+            return move;
+        }, workers);
+    }
+
+    /**
+     * @return parties simulées au plus pour un coup de ce niveau
+     */
+    static long maxPlayouts(Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY:
+                return 50;
+            case MEDIUM:
+                return 500;
+            case HARD:
+                return 5_000;
+            default:
+                return Long.MAX_VALUE;  // Tout le budget de temps
+        }
+    }
+
+    public long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    public int getThreads() {
+        return workers.getMaximumPoolSize();
+    }
+
+    /**
+     * @return recherches en attente d'un thread libre
+     */
+    public int getQueuedSearches() {
+        return workers.getQueue().size();
+    }
+
+    public long getSearches() {
+        return searchCount.sum();
+    }
+
+    public long getPlayouts() {
+        return playoutCount.sum();
+    }
+
+    /**
+     * @return recherches qui ont rempli leur arène et n'ont plus agrandi l'arbre
+     */
+    public long getFullArenas() {
+        return fullArenas.sum();
+    }
+
+    /**
+     * Arène de nœuds et plateau de simulation d'un thread.
+     *
+     * Un nœud est un indice : son coup, ses visites et ses demi-points (2 par
+     * victoire, 1 par nul, du point de vue du joueur qui a joué ce coup) sont
+     * rangés dans des tableaux parallèles. Les enfants d'un nœud sont créés
+     * ensemble et occupent des indices consécutifs.
+     */
+    private final class Search {
+        private final int[] nodeMove = new int[arenaNodes];
+        private final int[] nodeVisits = new int[arenaNodes];
+        private final int[] nodeHalfPoints = new int[arenaNodes];
+        private final int[] firstChild = new int[arenaNodes];
+        private final int[] childCount = new int[arenaNodes];
+        private int nodeCount;
+
+        private int size;
+        private int winLength;
+        private int cells;
+
+        // Position de départ, puis copie de travail de chaque simulation (0 vide, 1 X, 2 O)
+        private final byte[] rootBoard = new byte[MAX_CELLS];
+        private final byte[] board = new byte[MAX_CELLS];
+        // Cases vides, et place de chaque case dans cette liste (tirage et retrait en O(1))
+        private final int[] rootEmpties = new int[MAX_CELLS];
+        private final int[] rootEmptyIndex = new int[MAX_CELLS];
+        private final int[] empties = new int[MAX_CELLS];
+        private final int[] emptyIndex = new int[MAX_CELLS];
+        private int rootEmptyCount;
+        private int emptyCount;
+
+        private final int[] path = new int[MAX_CELLS + 1];
+        private long random = System.nanoTime() | 1;
+
+        private long playouts;
+        private boolean arenaFull;
+
+        int run(GameState state, int side, long maxPlayouts, long deadline) {
+            load(state);
+            playouts = 0;
+            arenaFull = false;
+
+            if (rootEmptyCount == cells) {
+                return (size / 2) * size + size / 2;  // Le centre
+            }
+            // Gagner ou bloquer tout de suite : les simulations au hasard peuvent le manquer
+            int urgent = immediateWin(side);
+            if (urgent < 0) {
+                urgent = immediateWin(3 - side);
+            }
+            if (urgent >= 0) {
+                return urgent;
+            }
+
+            nodeCount = 1;
+            nodeMove[0] = -1;
+            nodeVisits[0] = 0;
+            nodeHalfPoints[0] = 0;
+            childCount[0] = 0;
+            resetBoard();
+            expand(0, side);
+
+            while (playouts < maxPlayouts
+                    && ((playouts & TIME_CHECK_MASK) != 0 || System.nanoTime() < deadline)) {
+                iterate(side);
+                playouts++;
+            }
+
+            int best = firstChild[0];
+            for (int child = firstChild[0] + 1; child < firstChild[0] + childCount[0]; child++) {
+                if (nodeVisits[child] > nodeVisits[best]) {
+                    best = child;
+                }
+            }
+            return nodeMove[best];
+        }
+
+        private void load(GameState state) {
+            size = state.getSize();
+            winLength = state.getWinLength();
+            cells = size * size;
+            rootEmptyCount = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                char symbol = state.getCell(cell / size, cell % size);
+                rootBoard[cell] = (byte) (symbol == 'X' ? 1 : (symbol == 'O' ? 2 : 0));
+                if (symbol == ' ') {
+                    rootEmptyIndex[cell] = rootEmptyCount;
+                    rootEmpties[rootEmptyCount++] = cell;
+                }
+            }
+        }
+
+        private void resetBoard() {
+            System.arraycopy(rootBoard, 0, board, 0, cells);
+            System.arraycopy(rootEmpties, 0, empties, 0, rootEmptyCount);
+            System.arraycopy(rootEmptyIndex, 0, emptyIndex, 0, cells);
+            emptyCount = rootEmptyCount;
+        }
+
+        /**
+         * Une simulation : sélection, expansion, partie au hasard, remontée
+         */
+        private void iterate(int rootSide) {
+            resetBoard();
+            int node = 0;
+            int side = rootSide;
+            int depth = 0;
+            path[depth++] = 0;
+            int winner = -1;  // 0 : nul
+
+            // Sélection : on descend tant que les nœuds ont des enfants
+            while (childCount[node] > 0) {
+                node = select(node);
+                path[depth++] = node;
+                if (play(nodeMove[node], side)) {
+                    winner = side;
+                    break;
+                }
+                side = 3 - side;
+                if (emptyCount == 0) {
+                    winner = 0;
+                    break;
+                }
+            }
+
+            // Expansion : la feuille assez visitée reçoit ses enfants, on en joue un
+            if (winner < 0 && nodeVisits[node] >= EXPAND_VISITS && expand(node, side)) {
+                node = select(node);
+                path[depth++] = node;
+                if (play(nodeMove[node], side)) {
+                    winner = side;
+                } else {
+                    side = 3 - side;
+                    if (emptyCount == 0) {
+                        winner = 0;
+                    }
+                }
+            }
+
+            if (winner < 0) {
+                winner = playout(side);
+            }
+
+            // Remontée : chaque nœud est vu par le joueur qui y a mené
+            int mover = rootSide;
+            nodeVisits[0]++;
+            for (int i = 1; i < depth; i++) {
+                int child = path[i];
+                nodeVisits[child]++;
+                nodeHalfPoints[child] += winner == 0 ? 1 : (winner == mover ? 2 : 0);
+                mover = 3 - mover;
+            }
+        }
+
+        /**
+         * @return l'enfant de plus grande valeur UCT (un enfant jamais visité d'abord)
+         */
+        private int select(int node) {
+            int first = firstChild[node];
+            int end = first + childCount[node];
+            double logVisits = Math.log(Math.max(1, nodeVisits[node]));
+            int best = first;
+            double bestValue = -1;
+            for (int child = first; child < end; child++) {
+                int visits = nodeVisits[child];
+                if (visits == 0) {
+                    return child;
+                }
+                double value = nodeHalfPoints[child] / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Crée les enfants du nœud, dans un ordre tiré au hasard
+         *
+         * @return false si l'arène est pleine
+         */
+        private boolean expand(int node, int side) {
+            int first = nodeCount;
+            int count = 0;
+            for (int i = 0; i < emptyCount; i++) {
+                int cell = empties[i];
+                if (size > SMALL_BOARD && !hasNeighbour(cell)) {
+                    continue;
+                }
+                if (first + count >= arenaNodes) {
+                    arenaFull = true;
+                    return false;
+                }
+                // Insertion à une place au hasard parmi les enfants déjà créés
+                int slot = count == 0 ? 0 : nextInt(count + 1);
+                nodeMove[first + count] = nodeMove[first + slot];
+                nodeMove[first + slot] = cell;
+                count++;
+            }
+            for (int child = first; child < first + count; child++) {
+                nodeVisits[child] = 0;
+                nodeHalfPoints[child] = 0;
+                firstChild[child] = -1;
+                childCount[child] = 0;
+            }
+            firstChild[node] = first;
+            childCount[node] = count;
+            nodeCount += count;
+            return count > 0;
+        }
+
+        private boolean hasNeighbour(int cell) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                    if (board[r * size + c] != 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Finit la partie au hasard
+         *
+         * @return le gagnant (1 X, 2 O), ou 0 pour un nul
+         */
+        private int playout(int side) {
+            while (emptyCount > 0) {
+                int cell = empties[nextInt(emptyCount)];
+                // Sur les grands plateaux, quelques tirages de plus pour jouer près des autres symboles
+                for (int retry = 0; retry < LOCAL_RETRIES && size > SMALL_BOARD && !hasNeighbour(cell); retry++) {
+                    cell = empties[nextInt(emptyCount)];
+                }
+                if (play(cell, side)) {
+                    return side;
+                }
+                side = 3 - side;
+            }
+            return 0;
+        }
+
+        /**
+         * @return true si le coup aligne winLength symboles
+         */
+        private boolean play(int cell, int side) {
+            board[cell] = (byte) side;
+            int index = emptyIndex[cell];
+            int last = empties[--emptyCount];
+            empties[index] = last;
+            emptyIndex[last] = index;
+            return wins(cell, side);
+        }
+
+        private boolean wins(int cell, int side) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int[] direction : DIRECTIONS) {
+                int length = 1 + run(row, col, direction[0], direction[1], side)
+                        + run(row, col, -direction[0], -direction[1], side);
+                if (length >= winLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int run(int row, int col, int dr, int dc, int side) {
+            int length = 0;
+            int r = row + dr;
+            int c = col + dc;
+            while (r >= 0 && r < size && c >= 0 && c < size && board[r * size + c] == side && length < winLength) {
+                length++;
+                r += dr;
+                c += dc;
+            }
+            return length;
+        }
+
+        /**
+         * @return une case où side gagne tout de suite, ou -1
+         */
+        private int immediateWin(int side) {
+            resetBoard();
+            for (int i = 0; i < rootEmptyCount; i++) {
+                int cell = rootEmpties[i];
+                board[cell] = (byte) side;
+                boolean won = wins(cell, side);
+                board[cell] = 0;
+                if (won) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+
+        // xorshift64*, propre au thread
+        private int nextInt(int bound) {
+            random ^= random >>> 12;
+            random ^= random << 25;
+            random ^= random >>> 27;
+            long value = random * 0x2545F4914F6CDD1DL;
+            return (int) (((value >>> 32) * bound) >>> 32);
+        }
+    }
+}
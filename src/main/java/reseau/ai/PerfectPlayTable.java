@@ -0,0 +1,219 @@
+package reseau.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import reseau.model.GameState;
+
+/**
+ * Table de jeu parfait du Morpion 3x3, partagée par le serveur et le client.
+ *
+ * Les 3^9 plateaux possibles sont résolus par minimax au chargement de la
+ * classe. Pour chaque plateau et chaque joueur au trait, la table garde le
+ * score minimax et le meilleur coup, si bien qu'un coup de l'IA se réduit
+ * à une lecture dans un tableau, sans allocation.
+ *
+ * Encodage d'un plateau : somme des chiffres base 3 des cases (ligne * 3 + colonne),
+ * 0 = vide, 1 = X, 2 = O.
+ */
+public final class PerfectPlayTable {
+    public static final int CELLS = 9;
+    public static final int POSITIONS = 19683; // 3^9
+
+    private static final int[] POW3 = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+    // Masques des 8 lignes gagnantes (bit = ligne * 3 + colonne)
+    private static final int[] WIN_LINES = {
+        0x007, 0x038, 0x1C0,  // lignes
+        0x049, 0x092, 0x124,  // colonnes
+        0x111, 0x054          // diagonales
+    };
+    private static final int FULL_BOARD = 0x1FF;
+
+    // Ordre d'examen des coups : à score égal, on préfère le centre puis les coins
+    private static final int[] MOVE_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+
+    // Entrée = (score + SCORE_OFFSET) << 4 | meilleur coup, indexée par position * 2 + joueur au trait
+    private static final int SCORE_OFFSET = 16;
+    private static final int NO_MOVE = 0xF;
+    private static final short UNSOLVED = -1;
+    private static final short[] TABLE = new short[POSITIONS * 2];
+
+    static {
+        Arrays.fill(TABLE, UNSOLVED);
+        for (int position = 0; position < POSITIONS; position++) {
+            int xMask = 0;
+            int oMask = 0;
+            for (int cell = 0, rest = position; cell < CELLS; cell++, rest /= 3) {
+                int digit = rest % 3;
+                if (digit == 1) {
+                    xMask |= 1 << cell;
+                } else if (digit == 2) {
+                    oMask |= 1 << cell;
+                }
+            }
+            solve(position, xMask, oMask, 0);
+            solve(position, xMask, oMask, 1);
+        }
+    }
+
+    private PerfectPlayTable() {
+    }
+
+    /**
+     * Negamax mémoïsé : score du point de vue du joueur au trait.
+     * Une victoire vaut 1 + nombre de cases vides, pour préférer les victoires rapides
+     * et retarder les défaites.
+     */
+    private static int solve(int position, int xMask, int oMask, int side) {
+        int entryIndex = position * 2 + side;
+        if (TABLE[entryIndex] != UNSOLVED) {
+            return scoreOf(TABLE[entryIndex]);
+        }
+
+        int mine = side == 0 ? xMask : oMask;
+        int theirs = side == 0 ? oMask : xMask;
+        int empties = CELLS - Integer.bitCount(xMask | oMask);
+        boolean iWon = hasLine(mine);
+        boolean theyWon = hasLine(theirs);
+
+        int bestScore;
+        int bestMove = NO_MOVE;
+        if (iWon || theyWon || (xMask | oMask) == FULL_BOARD) {
+            // Position terminale
+            bestScore = iWon == theyWon ? 0 : (iWon ? empties + 1 : -(empties + 1));
+        } else {
+            bestScore = Integer.MIN_VALUE;
+            for (int cell : MOVE_ORDER) {
+                int bit = 1 << cell;
+                if (((xMask | oMask) & bit) != 0) {
+                    continue;
+                }
+                int childScore = side == 0
+                        ? -solve(position + POW3[cell], xMask | bit, oMask, 1)
+                        : -solve(position + 2 * POW3[cell], xMask, oMask | bit, 0);
+                if (childScore > bestScore) {
+                    bestScore = childScore;
+                    bestMove = cell;
+                }
+            }
+        }
+
+        TABLE[entryIndex] = (short) (((bestScore + SCORE_OFFSET) << 4) | bestMove);
+        return bestScore;
+    }
+
+    private static boolean hasLine(int mask) {
+        for (int line : WIN_LINES) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int scoreOf(short entry) {
+        return (entry >> 4) - SCORE_OFFSET;
+    }
+
+    private static int sideOf(char symbol) {
+        return symbol == 'X' ? 0 : 1;
+    }
+
+    /**
+     * Encode un plateau char[3][3] (' ', 'X', 'O')
+     */
+    public static int encode(char[][] board) {
+        int xMask = 0;
+        int oMask = 0;
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (board[row][col] == 'X') {
+                    xMask |= 1 << (row * 3 + col);
+                } else if (board[row][col] == 'O') {
+                    oMask |= 1 << (row * 3 + col);
+                }
+            }
+        }
+        return encode(xMask, oMask);
+    }
+
+    /**
+     * Encode l'état d'une partie
+     */
+    public static int encode(GameState state) {
+        return state.getTernaryCode();
+    }
+
+    /**
+     * Encode un plateau donné par les masques de bits de X et de O
+     */
+    public static int encode(int xMask, int oMask) {
+        return GameState.ternaryCode(xMask, oMask);
+    }
+
+    /**
+     * @return le meilleur coup (ligne * 3 + colonne) pour le joueur au trait, ou -1 si la partie est finie
+     */
+    public static int bestMove(int position, char toMove) {
+        int move = TABLE[position * 2 + sideOf(toMove)] & NO_MOVE;
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    /**
+     * @return le score minimax pour le joueur au trait (> 0 gagnant, 0 nul, < 0 perdant)
+     */
+    public static int score(int position, char toMove) {
+        return scoreOf(TABLE[position * 2 + sideOf(toMove)]);
+    }
+
+    /**
+     * Score du coup joué en {@code cell} par {@code toMove}, de son point de vue
+     */
+    private static int moveScore(int position, int cell, char toMove) {
+        int child = position + (toMove == 'X' ? 1 : 2) * POW3[cell];
+        return -score(child, toMove == 'X' ? 'O' : 'X');
+    }
+
+    private static boolean isEmpty(int position, int cell) {
+        return (position / POW3[cell]) % 3 == 0;
+    }
+
+    /**
+     * Choisit un coup selon le niveau de difficulté : le coup parfait, ou avec la
+     * probabilité d'erreur du niveau, un coup non optimal tiré au hasard.
+     *
+     * @return la case jouée (ligne * 3 + colonne), ou -1 si la partie est finie
+     */
+    public static int chooseMove(int position, char toMove, Difficulty difficulty) {
+        int best = bestMove(position, toMove);
+        if (best < 0 || difficulty.getErrorRate() <= 0) {
+            return best;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() >= difficulty.getErrorRate()) {
+            return best;
+        }
+
+        // Compter les coups strictement moins bons que le meilleur, puis en tirer un
+        int bestScore = score(position, toMove);
+        int mistakes = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (isEmpty(position, cell) && moveScore(position, cell, toMove) < bestScore) {
+                mistakes++;
+            }
+        }
+        if (mistakes == 0) {
+            return best;
+        }
+
+        int pick = random.nextInt(mistakes);
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (isEmpty(position, cell) && moveScore(position, cell, toMove) < bestScore && pick-- == 0) {
+                return cell;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,292 @@
+package reseau.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+import reseau.model.GameState;
+
+/**
+ * Table de finales : toutes les positions atteignables d'un petit plateau,
+ * résolues à l'avance par {@link TablebaseSolver} et lues dans un fichier
+ * projeté en mémoire (MappedByteBuffer).
+ *
+ * Seule une position par classe de symétrie est rangée (8 symétries du
+ * carré) : la position est ramenée à sa forme canonique, cherchée par
+ * dichotomie dans les clés triées, et le coup lu est ramené dans
+ * l'orientation de la partie. Le fichier n'est pas copié dans le tas : son
+ * ouverture ne coûte qu'une projection, quelle que soit sa taille.
+ *
+ * Format (gros-boutiste) : "MTB1", taille, alignement, 2 octets à 0, nombre
+ * d'entrées n, puis n clés int (code base 3 canonique * 2 + joueur au trait,
+ * croissantes), n scores et n meilleurs coups d'un octet.
+ */
+public final class Tablebase implements AiPlayer {
+    public static final int MAGIC = 0x4D544231;  // "MTB1"
+    public static final int HEADER_BYTES = 12;
+    public static final byte NO_MOVE = -1;
+
+    /** Fichier cherché par le client pour son IA 3×3 */
+    public static final String DEFAULT_FILE = "tablebase-3x3.bin";
+
+    private final int size;
+    private final int winLength;
+    private final int cells;
+    private final int entries;
+    private final IntBuffer keys;
+    private final ByteBuffer data;
+    private final int[][] symmetries;
+    private final int[][] inverses;
+    private final int[] pow3;
+
+    private Tablebase(int size, int winLength, int entries, ByteBuffer buffer) {
+        this.size = size;
+        this.winLength = winLength;
+        this.cells = size * size;
+        this.entries = entries;
+        this.data = buffer;
+        ByteBuffer keyBytes = buffer.duplicate();
+        keyBytes.position(HEADER_BYTES);
+        this.keys = keyBytes.slice().asIntBuffer();
+        this.symmetries = symmetries(size);
+        this.inverses = new int[symmetries.length][cells];
+        for (int s = 0; s < symmetries.length; s++) {
+            for (int cell = 0; cell < cells; cell++) {
+                inverses[s][symmetries[s][cell]] = cell;
+            }
+        }
+        this.pow3 = powersOfThree(cells);
+    }
+
+    /**
+     * Projette un fichier écrit par {@link TablebaseSolver}
+     *
+     * @throws IOException si le fichier est illisible ou n'est pas une table de finales
+     */
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("pas une table de finales: " + file);
+            }
+            int size = buffer.get(4);
+            int winLength = buffer.get(5);
+            int entries = buffer.getInt(8);
+            if (size < 1 || size * size > TablebaseSolver.MAX_CELLS || winLength < 1 || winLength > size
+                    || buffer.limit() != HEADER_BYTES + 6L * entries) {
+                throw new IOException("table de finales invalide: " + file);
+            }
+            return new Tablebase(size, winLength, entries, buffer);
+        }
+    }
+
+    /**
+     * IA 3×3 du client : la table de finales {@link #DEFAULT_FILE} (ou celle
+     * de la propriété système morpion.tablebase) si elle existe, sinon la
+     * table de jeu parfait calculée au chargement
+     */
+    public static AiPlayer classic() {
+        return ClassicHolder.PLAYER;
+    }
+
+    private static final class ClassicHolder {
+        static final AiPlayer PLAYER = load();
+
+        private static AiPlayer load() {
+            Path file = Paths.get(System.getProperty("morpion.tablebase", DEFAULT_FILE));
+            if (Files.isRegularFile(file)) {
+                try {
+                    Tablebase tablebase = open(file);
+                    if (tablebase.getSize() == GameState.CLASSIC_SIZE && tablebase.getWinLength() == GameState.CLASSIC_SIZE) {
+                        return tablebase;
+                    }
+                } catch (IOException e) {
+                    System.err.println("⚠️ Table de finales ignorée: " + e.getMessage());
+                }
+            }
+            return AiPlayer.PERFECT_TABLE;
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * @return positions rangées (une par classe de symétrie et par joueur au trait)
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return true si la table a été résolue pour ce plateau
+     */
+    public boolean covers(GameState state) {
+        return state.getSize() == size && state.getWinLength() == winLength;
+    }
+
+    /**
+     * Le coup parfait, ou avec la probabilité d'erreur du niveau un coup
+     * strictement moins bon tiré au hasard. Une position absente de la table
+     * (plateau d'une autre variante, position impossible) est confiée à
+     * {@link GreedyPlayer}.
+     */
+    @Override
+    public int chooseMove(GameState state, char toMove, Difficulty difficulty) {
+        int side = toMove == 'X' ? 0 : 1;
+        int code = covers(state) ? state.getTernaryCode() : -1;
+        int entry = code < 0 ? -1 : find(code, side);
+        if (entry < 0) {
+            return GreedyPlayer.chooseMove(state, toMove, difficulty);
+        }
+        int best = moveOf(entry, code);
+        if (best < 0 || difficulty.getErrorRate() <= 0) {
+            return best;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() >= difficulty.getErrorRate()) {
+            return best;
+        }
+
+        // Compter les coups strictement moins bons que le meilleur, puis en tirer un
+        int bestScore = data.get(HEADER_BYTES + 4 * entries + entry);
+        int mistakes = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (isEmpty(code, cell) && moveScore(code, cell, side) < bestScore) {
+                mistakes++;
+            }
+        }
+        if (mistakes == 0) {
+            return best;
+        }
+        int pick = random.nextInt(mistakes);
+        for (int cell = 0; cell < cells; cell++) {
+            if (isEmpty(code, cell) && moveScore(code, cell, side) < bestScore && pick-- == 0) {
+                return cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return le score du coup pour side, de son point de vue
+     */
+    private int moveScore(int code, int cell, int side) {
+        int child = code + (side + 1) * pow3[cell];
+        int entry = find(child, 1 - side);
+        return entry < 0 ? Integer.MIN_VALUE : -data.get(HEADER_BYTES + 4 * entries + entry);
+    }
+
+    private boolean isEmpty(int code, int cell) {
+        return (code / pow3[cell]) % 3 == 0;
+    }
+
+    /**
+     * @return l'indice de l'entrée de la position, ou -1 si elle n'est pas rangée
+     */
+    private int find(int code, int side) {
+        int key = canonical(code) * 2 + side;
+        int low = 0;
+        int high = entries - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int probe = keys.get(middle);
+            if (probe < key) {
+                low = middle + 1;
+            } else if (probe > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return le meilleur coup de l'entrée, ramené dans l'orientation de la position code
+     */
+    private int moveOf(int entry, int code) {
+        byte move = data.get(HEADER_BYTES + 5 * entries + entry);
+        if (move == NO_MOVE) {
+            return -1;
+        }
+        return inverses[symmetryOf(code)][move];
+    }
+
+    private int canonical(int code) {
+        int canonical = code;
+        for (int[] symmetry : symmetries) {
+            canonical = Math.min(canonical, transform(code, symmetry, pow3));
+        }
+        return canonical;
+    }
+
+    /**
+     * @return la symétrie qui donne le plus petit code (la forme canonique)
+     */
+    private int symmetryOf(int code) {
+        int best = 0;
+        int bestCode = Integer.MAX_VALUE;
+        for (int s = 0; s < symmetries.length; s++) {
+            int transformed = transform(code, symmetries[s], pow3);
+            if (transformed < bestCode) {
+                bestCode = transformed;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return le code de la position une fois la symétrie appliquée
+     */
+    static int transform(int code, int[] symmetry, int[] pow3) {
+        int result = 0;
+        for (int cell = 0, rest = code; cell < symmetry.length; cell++, rest /= 3) {
+            result += (rest % 3) * pow3[symmetry[cell]];
+        }
+        return result;
+    }
+
+    /**
+     * Les 8 symétries du carré : image de chaque case (ligne * taille + colonne)
+     */
+    static int[][] symmetries(int size) {
+        int[][] result = new int[8][size * size];
+        int last = size - 1;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = row * size + col;
+                result[0][cell] = row * size + col;                  // identité
+                result[1][cell] = col * size + (last - row);         // quart de tour
+                result[2][cell] = (last - row) * size + (last - col); // demi-tour
+                result[3][cell] = (last - col) * size + row;         // trois quarts de tour
+                result[4][cell] = row * size + (last - col);         // miroir vertical
+                result[5][cell] = (last - row) * size + col;         // miroir horizontal
+                result[6][cell] = col * size + row;                  // diagonale
+                result[7][cell] = (last - col) * size + (last - row); // anti-diagonale
+            }
+        }
+        return result;
+    }
+
+    static int[] powersOfThree(int cells) {
+        int[] pow3 = new int[cells];
+        for (int cell = 0, power = 1; cell < cells; cell++, power *= 3) {
+            pow3[cell] = power;
+        }
+        return pow3;
+    }
+}
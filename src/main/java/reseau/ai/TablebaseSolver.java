@@ -0,0 +1,253 @@
+package reseau.ai;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import reseau.model.GameState;
+
+/**
+ * Outil hors ligne qui résout toutes les positions atteignables d'un petit
+ * plateau et écrit la {@link Tablebase} lue par le serveur et le client.
+ *
+ * Usage: java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher tablebase [taille] [alignement] [fichier]
+ *
+ * Les positions sont atteintes depuis le plateau vide, X ou O commençant,
+ * et résolues par negamax mémoïsé comme dans {@link PerfectPlayTable} ;
+ * seule la forme canonique de chaque classe de symétrie est écrite.
+ * Jusqu'à 4×4 (3^16 positions, 86 Mo de mémo pendant la résolution).
+ */
+public final class TablebaseSolver {
+    public static final int MAX_CELLS = GameState.MAX_CODED_CELLS;
+
+    // Score rangé dans le mémo : score + SCORE_OFFSET, 0 = pas encore résolu
+    private static final int SCORE_OFFSET = 64;
+
+    private final int size;
+    private final int winLength;
+    private final int cells;
+    private final int[] pow3;
+    private final int[] lines;       // masques des fenêtres gagnantes (bit = case)
+    private final int[] moveOrder;   // cases traversées par le plus de fenêtres d'abord
+    private final byte[] memo;       // indexé par code * 2 + joueur au trait
+
+    public TablebaseSolver(int size, int winLength) {
+        if (size * size > MAX_CELLS || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Plateau trop grand pour une table de finales: "
+                    + size + "×" + size + ", " + winLength + " à aligner");
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.cells = size * size;
+        this.pow3 = Tablebase.powersOfThree(cells);
+        this.lines = winningLines();
+        this.moveOrder = orderedCells();
+        this.memo = new byte[pow3[cells - 1] * 3 * 2];
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : GameState.CLASSIC_SIZE;
+        int winLength = args.length > 1 ? Integer.parseInt(args[1]) : GameState.defaultWinLength(size);
+        Path file = Paths.get(args.length > 2 ? args[2] : "tablebase-" + size + "x" + size
+                + (winLength == size ? "" : "-" + winLength) + ".bin");
+
+        long start = System.nanoTime();
+        System.out.println("🧮 Résolution du plateau " + size + "×" + size + ", " + winLength + " à aligner...");
+        TablebaseSolver solver = new TablebaseSolver(size, winLength);
+        solver.solveAll();
+        int entries = solver.write(file);
+        System.out.printf("✅ %d positions écrites dans %s (%d octets) en %.1f s%n",
+                entries, file, Files.size(file), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Résout les positions atteignables, X ou O commençant
+     */
+    public void solveAll() {
+        solve(0, 0, 0, 0);
+        solve(0, 0, 0, 1);
+    }
+
+    /**
+     * Negamax mémoïsé : score du point de vue du joueur au trait. Une
+     * victoire vaut 1 + nombre de cases vides, pour préférer les victoires
+     * rapides et retarder les défaites.
+     */
+    private int solve(int code, int xMask, int oMask, int side) {
+        int index = code * 2 + side;
+        if (memo[index] != 0) {
+            return memo[index] - SCORE_OFFSET;
+        }
+
+        int mine = side == 0 ? xMask : oMask;
+        int theirs = side == 0 ? oMask : xMask;
+        int filled = xMask | oMask;
+        int empties = cells - Integer.bitCount(filled);
+        boolean iWon = hasLine(mine);
+        boolean theyWon = hasLine(theirs);
+
+        int bestScore;
+        if (iWon || theyWon || empties == 0) {
+            bestScore = iWon == theyWon ? 0 : (iWon ? empties + 1 : -(empties + 1));
+        } else {
+            bestScore = Integer.MIN_VALUE;
+            for (int cell : moveOrder) {
+                int bit = 1 << cell;
+                if ((filled & bit) != 0) {
+                    continue;
+                }
+                int childScore = side == 0
+                        ? -solve(code + pow3[cell], xMask | bit, oMask, 1)
+                        : -solve(code + 2 * pow3[cell], xMask, oMask | bit, 0);
+                bestScore = Math.max(bestScore, childScore);
+            }
+        }
+
+        memo[index] = (byte) (bestScore + SCORE_OFFSET);
+        return bestScore;
+    }
+
+    /**
+     * Écrit les positions résolues sous leur forme canonique, par clé croissante
+     *
+     * @return nombre d'entrées écrites
+     */
+    public int write(Path file) throws IOException {
+        int[][] symmetries = Tablebase.symmetries(size);
+        int[] keys = new int[1024];
+        byte[] scores = new byte[1024];
+        byte[] moves = new byte[1024];
+        int count = 0;
+
+        for (int code = 0; code < pow3[cells - 1] * 3; code++) {
+            if ((memo[code * 2] == 0 && memo[code * 2 + 1] == 0) || !isCanonical(code, symmetries)) {
+                continue;
+            }
+            for (int side = 0; side < 2; side++) {
+                if (memo[code * 2 + side] == 0) {
+                    continue;
+                }
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                    scores = Arrays.copyOf(scores, count * 2);
+                    moves = Arrays.copyOf(moves, count * 2);
+                }
+                keys[count] = code * 2 + side;
+                scores[count] = (byte) (memo[code * 2 + side] - SCORE_OFFSET);
+                moves[count] = (byte) bestMove(code, side);
+                count++;
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeByte(size);
+            out.writeByte(winLength);
+            out.writeShort(0);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(keys[i]);
+            }
+            out.write(scores, 0, count);
+            out.write(moves, 0, count);
+        }
+        return count;
+    }
+
+    /**
+     * @return le premier coup, dans l'ordre d'examen, qui atteint le score de la position
+     */
+    private int bestMove(int code, int side) {
+        int score = memo[code * 2 + side] - SCORE_OFFSET;
+        int xMask = 0;
+        int oMask = 0;
+        for (int cell = 0, rest = code; cell < cells; cell++, rest /= 3) {
+            if (rest % 3 == 1) {
+                xMask |= 1 << cell;
+            } else if (rest % 3 == 2) {
+                oMask |= 1 << cell;
+            }
+        }
+        if (hasLine(xMask) || hasLine(oMask)) {
+            return Tablebase.NO_MOVE;
+        }
+        for (int cell : moveOrder) {
+            if (((xMask | oMask) & (1 << cell)) != 0) {
+                continue;
+            }
+            int child = (code + (side + 1) * pow3[cell]) * 2 + (1 - side);
+            if (-(memo[child] - SCORE_OFFSET) == score) {
+                return cell;
+            }
+        }
+        return Tablebase.NO_MOVE;  // Plateau plein
+    }
+
+    private boolean isCanonical(int code, int[][] symmetries) {
+        for (int[] symmetry : symmetries) {
+            if (Tablebase.transform(code, symmetry, pow3) < code) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasLine(int mask) {
+        for (int line : lines) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] winningLines() {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int[] found = new int[4 * cells];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int[] direction : directions) {
+                    int endRow = row + (winLength - 1) * direction[0];
+                    int endCol = col + (winLength - 1) * direction[1];
+                    if (endRow < 0 || endRow >= size || endCol < 0 || endCol >= size) {
+                        continue;
+                    }
+                    int mask = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        mask |= 1 << ((row + i * direction[0]) * size + col + i * direction[1]);
+                    }
+                    found[count++] = mask;
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Ordre d'examen des coups : à score égal, la case qui compte le plus de
+     * fenêtres gagnantes (le centre, puis les coins sur le 3×3)
+     */
+    private int[] orderedCells() {
+        Integer[] order = new Integer[cells];
+        int[] windows = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            order[cell] = cell;
+            for (int line : lines) {
+                if ((line & (1 << cell)) != 0) {
+                    windows[cell]++;
+                }
+            }
+        }
+        Arrays.sort(order, (a, b) -> windows[b] != windows[a] ? windows[b] - windows[a] : a - b);
+        int[] result = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+}
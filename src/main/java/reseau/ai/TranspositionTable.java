@@ -0,0 +1,82 @@
+package reseau.ai;
+
+/**
+ * Table de transposition de taille fixe, partagée sans verrou par tous les
+ * threads de recherche.
+ *
+ * Une entrée tient dans deux long : la donnée (score, profondeur, type de
+ * borne, meilleur coup), et la clé de Zobrist combinée par ou exclusif avec
+ * cette donnée. Deux threads qui écrivent la même case en même temps peuvent
+ * laisser la donnée de l'un avec la clé de l'autre : la lecture ne retrouve
+ * alors plus la clé et traite l'entrée comme absente, comme après une collision.
+ */
+final class TranspositionTable {
+    /** Valeur de {@link #probe} quand la position n'est pas dans la table */
+    static final long MISS = 0;
+
+    static final int EXACT = 0;
+    static final int LOWER = 1;
+    static final int UPPER = 2;
+
+    // Donnée : score << 32 | profondeur << 16 | type << 12 | (coup + 1)
+    private final long[] checks;
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param bits log2 du nombre d'entrées
+     */
+    TranspositionTable(int bits) {
+        checks = new long[1 << bits];
+        entries = new long[1 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * @return la donnée rangée pour cette position, ou {@link #MISS}
+     */
+    long probe(long key) {
+        int slot = (int) key & mask;
+        long entry = entries[slot];
+        return (checks[slot] ^ entry) == key ? entry : MISS;
+    }
+
+    /**
+     * Range une position, sauf si la case garde déjà la même position
+     * cherchée plus profondément
+     */
+    void store(long key, int score, int depth, int type, int move) {
+        int slot = (int) key & mask;
+        long old = entries[slot];
+        if ((checks[slot] ^ old) == key && depthOf(old) > depth) {
+            return;
+        }
+        // Profondeur >= 1 : une donnée rangée n'est jamais égale à MISS
+        long entry = ((long) score << 32) | ((long) depth << 16) | ((long) type << 12) | (move + 1);
+        entries[slot] = entry;
+        checks[slot] = key ^ entry;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    static int scoreOf(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    static int depthOf(long entry) {
+        return (int) ((entry >>> 16) & 0xFF);
+    }
+
+    static int typeOf(long entry) {
+        return (int) ((entry >>> 12) & 0xF);
+    }
+
+    /**
+     * @return le meilleur coup rangé, ou -1
+     */
+    static int moveOf(long entry) {
+        return (int) (entry & 0xFFF) - 1;
+    }
+}
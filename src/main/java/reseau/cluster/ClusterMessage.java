@@ -0,0 +1,130 @@
+package reseau.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Message exchanged between the nodes of a cluster: a type, the sending
+ * node, a list of string fields whose meaning depends on the type, and
+ * optionally raw bytes (the output relayed to a player).
+ */
+public final class ClusterMessage {
+
+    /**
+     * Message types and their fields
+     */
+    public enum Type {
+        /** Player waiting for an opponent, to the coordinator: player descriptor (see {@link PlayerDescriptor}) */
+        ENQUEUE,
+        /** Waiting player left, to the coordinator: player id */
+        CANCEL,
+        /** Two players paired, to the node hosting the game: home node and descriptor of each player */
+        MATCH,
+        /** To the home node of a player: the player now plays on the sending node. Fields: player id, coordinator that paired it */
+        RELAY,
+        /** Line typed by a relayed player, to the game node: player id, line */
+        INPUT,
+        /** Relayed player disconnected, to the game node: player id */
+        LEFT,
+        /** Output for a relayed player, to its home node: player id, and the output as payload */
+        OUTPUT,
+        /** The game node closes the connection of a relayed player: player id */
+        CLOSE,
+        /** The game of a relayed player is over, it goes back to the mode choice: player id */
+        RELEASE,
+        /** Sent on an idle link to check it, dropped by the transport: no fields */
+        PING
+    }
+
+    // Not in the Base64 alphabet: tells the payload from the fields
+    private static final String PAYLOAD_MARK = "*";
+
+    private final Type type;
+    private final String source;
+    private final String[] fields;
+    private final byte[] payload;
+
+    public ClusterMessage(Type type, String source, String... fields) {
+        this(type, source, null, fields);
+    }
+
+    /**
+     * @param payload raw bytes carried as is, or null
+     */
+    public ClusterMessage(Type type, String source, byte[] payload, String... fields) {
+        this.type = type;
+        this.source = source;
+        this.fields = fields;
+        this.payload = payload;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return id of the node that sent the message
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public String getField(int index) {
+        return fields[index];
+    }
+
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    /**
+     * @return the raw bytes of the message, or null. The array is shared: it must not be modified.
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return the message on one line: type, source, each field in Base64,
+     *         then the payload in Base64 behind a '*'
+     */
+    public String encode() {
+        StringBuilder line = new StringBuilder(type.name()).append(' ').append(source);
+        Base64.Encoder encoder = Base64.getEncoder();
+        for (String field : fields) {
+            line.append(' ').append(encoder.encodeToString(field.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (payload != null) {
+            line.append(' ').append(PAYLOAD_MARK).append(encoder.encodeToString(payload));
+        }
+        return line.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not an encoded message
+     */
+    public static ClusterMessage decode(String line) {
+        String[] parts = line.split(" ", -1);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Message de cluster invalide: " + line);
+        }
+        Type type = Type.valueOf(parts[0]);
+        Base64.Decoder decoder = Base64.getDecoder();
+        int fieldCount = parts.length - 2;
+        byte[] payload = null;
+        if (fieldCount > 0 && parts[parts.length - 1].startsWith(PAYLOAD_MARK)) {
+            payload = decoder.decode(parts[parts.length - 1].substring(PAYLOAD_MARK.length()));
+            fieldCount--;
+        }
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new String(decoder.decode(parts[i + 2]), StandardCharsets.UTF_8);
+        }
+        return new ClusterMessage(type, parts[1], payload, fields);
+    }
+
+    @Override
+    public String toString() {
+        return type + " de " + source;
+    }
+}
@@ -0,0 +1,432 @@
+package reseau.cluster;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import reseau.server.Matchmaker;
+import reseau.server.ServerLog;
+
+/**
+ * Routing of players and games between the nodes of a cluster.
+ *
+ * Every node sends its waiting players to the coordinator (the live node
+ * with the smallest id), which pairs them and hands the game to the node of
+ * the longest waiting player. When the coordinator changes, because it left
+ * or a node with a smaller id joined, waiting players move to the new one. That node drives a stand-in for an opponent
+ * connected elsewhere: lines typed by the opponent are relayed to it, and
+ * its output is relayed back to the opponent's node.
+ *
+ * @param <P> player type of the server
+ */
+public final class ClusterRouting<P> implements ClusterTransport.Listener {
+
+    /**
+     * What the routing needs from the server: describing its players,
+     * creating stand-ins and handing them the relayed events
+     */
+    public interface Host<P> {
+        /**
+         * @return what the other nodes need to know of a player connected here
+         */
+        PlayerDescriptor describe(P player);
+
+        /**
+         * Creates the stand-in of a player connected to another node, whose
+         * output goes through channel
+         *
+         * @param connected false if the player already left
+         */
+        P createStandIn(PlayerDescriptor descriptor, RemoteClientChannel channel, boolean connected);
+
+        boolean isConnected(P player);
+
+        /**
+         * Starts the game of a pair, the longest waiting player first
+         */
+        void startGame(P first, P second);
+
+        /**
+         * Line typed by the remote player of a stand-in
+         */
+        void onRelayedInput(P standIn, String line);
+
+        /**
+         * The remote player of a stand-in disconnected, or its node left the cluster
+         */
+        void onRemoteLeft(P standIn);
+
+        /**
+         * Output produced for a player of this node by the node hosting its game
+         */
+        void onRelayedOutput(P player, byte[] output);
+
+        /**
+         * The game hosted elsewhere of a player of this node is over, or its
+         * node left the cluster: the player goes back to the mode choice
+         */
+        void onReleased(P player);
+
+        /**
+         * The node hosting the game of a player of this node closed its connection
+         */
+        void onClosed(P player);
+    }
+
+    /**
+     * Player connected to this node that waits in, or plays through, the cluster
+     */
+    private static final class Local<P> {
+        final String playerId;
+        final P player;
+        volatile String waitingOn;  // coordinator holding its ticket
+        volatile String relayNode;  // node hosting its game, when it is not this one
+
+        Local(String playerId, P player) {
+            this.playerId = playerId;
+            this.player = player;
+        }
+    }
+
+    /**
+     * Coordinator only: a player of the shared queue
+     */
+    private static final class Waiting {
+        final String home;
+        final PlayerDescriptor descriptor;
+        volatile Matchmaker.Ticket<Waiting> ticket;
+
+        Waiting(String home, PlayerDescriptor descriptor) {
+            this.home = home;
+            this.descriptor = descriptor;
+        }
+    }
+
+    /**
+     * Stand-in of a player of another node, playing a game hosted here
+     */
+    private static final class StandIn<P> {
+        final P player;
+        final RemoteClientChannel channel;
+
+        StandIn(P player, RemoteClientChannel channel) {
+            this.player = player;
+            this.channel = channel;
+        }
+    }
+
+    private final ClusterTransport transport;
+    private final Host<P> host;
+    private final ConcurrentHashMap<String, Local<P>> localPlayers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StandIn<P>> remotePlayers = new ConcurrentHashMap<>();
+    // Coordinator only: the shared queue, and the live place of each player in it
+    private final Matchmaker<Waiting> sharedQueue;
+    private final ConcurrentHashMap<String, Waiting> waiting = new ConcurrentHashMap<>();
+
+    /**
+     * @param matchIntervalMillis time between two pairing passes of the shared queue
+     */
+    public ClusterRouting(ClusterTransport transport, Host<P> host, long matchIntervalMillis) {
+        this.transport = transport;
+        this.host = host;
+        // A player that left, or was queued again, no longer owns its place
+        this.sharedQueue = new Matchmaker<>(matchIntervalMillis,
+                entry -> waiting.get(entry.descriptor.getPlayerId()) == entry, this::onSharedMatch);
+    }
+
+    public String getNodeId() {
+        return transport.getNodeId();
+    }
+
+    /**
+     * @return the node pairing the waiting players of the cluster
+     */
+    public String coordinator() {
+        return transport.getLiveNodes().first();
+    }
+
+    /**
+     * @return players waiting in the shared queue, on the coordinator
+     */
+    public int getQueuedPlayers() {
+        return sharedQueue.getQueuedPlayers();
+    }
+
+    private void send(String node, ClusterMessage.Type type, String... fields) {
+        transport.send(node, new ClusterMessage(type, transport.getNodeId(), fields));
+    }
+
+    /**
+     * Home node: puts a local player in the shared queue
+     */
+    public void enqueue(P player) {
+        PlayerDescriptor descriptor = host.describe(player);
+        Local<P> local = new Local<>(descriptor.getPlayerId(), player);
+        local.waitingOn = coordinator();
+        localPlayers.put(descriptor.getPlayerId(), local);
+        sendEnqueue(local.waitingOn, descriptor);
+    }
+
+    private void sendEnqueue(String coordinator, PlayerDescriptor descriptor) {
+        String[] fields = new String[PlayerDescriptor.FIELDS];
+        descriptor.writeTo(fields, 0);
+        send(coordinator, ClusterMessage.Type.ENQUEUE, fields);
+    }
+
+    /**
+     * Home node: forwards a line typed by a player whose game is hosted elsewhere
+     *
+     * @return false if the player's game is not hosted by another node
+     */
+    public boolean relayInput(String playerId, String line) {
+        Local<P> local = localPlayers.get(playerId);
+        String gameNode = local != null ? local.relayNode : null;
+        if (gameNode == null) {
+            return false;
+        }
+        send(gameNode, ClusterMessage.Type.INPUT, playerId, line);
+        return true;
+    }
+
+    /**
+     * @return true if the game of this local player is hosted by another node
+     */
+    public boolean isRelayed(String playerId) {
+        Local<P> local = localPlayers.get(playerId);
+        return local != null && local.relayNode != null;
+    }
+
+    /**
+     * Home node: a local player disconnected
+     */
+    public void playerLeft(String playerId, P player) {
+        Local<P> local = localPlayers.get(playerId);
+        if (local == null || local.player != player || !localPlayers.remove(playerId, local)) {
+            return;
+        }
+        String gameNode = local.relayNode;
+        String coordinator = local.waitingOn;
+        if (gameNode != null) {
+            send(gameNode, ClusterMessage.Type.LEFT, playerId);
+        } else if (coordinator != null) {
+            send(coordinator, ClusterMessage.Type.CANCEL, playerId);
+        }
+    }
+
+    @Override
+    public void onMessage(ClusterMessage message) {
+        switch (message.getType()) {
+            case ENQUEUE: {
+                PlayerDescriptor descriptor = PlayerDescriptor.readFrom(message, 0);
+                Waiting entry = new Waiting(message.getSource(), descriptor);
+                Waiting previous = waiting.put(descriptor.getPlayerId(), entry);
+                if (previous != null) {
+                    cancel(previous);
+                }
+                entry.ticket = sharedQueue.enqueue(entry, descriptor.getRating(), descriptor.getRttMillis());
+                break;
+            }
+            case CANCEL: {
+                Waiting entry = waiting.remove(message.getField(0));
+                if (entry != null) {
+                    cancel(entry);
+                }
+                break;
+            }
+            case MATCH:
+                hostGame(message.getSource(), message.getField(0), PlayerDescriptor.readFrom(message, 1),
+                        message.getField(1 + PlayerDescriptor.FIELDS), PlayerDescriptor.readFrom(message, 2 + PlayerDescriptor.FIELDS));
+                break;
+            case RELAY: {
+                Local<P> local = localPlayers.get(message.getField(0));
+                if (local == null || !host.isConnected(local.player) || !matched(local, message.getField(1))) {
+                    send(message.getSource(), ClusterMessage.Type.LEFT, message.getField(0));
+                } else {
+                    local.relayNode = message.getSource();
+                }
+                break;
+            }
+            case INPUT: {
+                StandIn<P> standIn = remotePlayers.get(message.getField(0));
+                if (standIn != null) {
+                    host.onRelayedInput(standIn.player, message.getField(1));
+                }
+                break;
+            }
+            case LEFT: {
+                StandIn<P> standIn = remotePlayers.get(message.getField(0));
+                if (standIn != null) {
+                    remoteLeft(standIn);
+                }
+                break;
+            }
+            case OUTPUT: {
+                Local<P> local = localPlayers.get(message.getField(0));
+                if (local != null && message.getPayload() != null) {
+                    host.onRelayedOutput(local.player, message.getPayload());
+                }
+                break;
+            }
+            case RELEASE: {
+                Local<P> local = localPlayers.remove(message.getField(0));
+                if (local != null) {
+                    local.relayNode = null;
+                    host.onReleased(local.player);
+                }
+                break;
+            }
+            case CLOSE: {
+                Local<P> local = localPlayers.get(message.getField(0));
+                if (local != null) {
+                    local.relayNode = null;
+                    host.onClosed(local.player);
+                }
+                break;
+            }
+            default:
+                ServerLog.warn("⚠️ Message de cluster inattendu: " + message);
+        }
+    }
+
+    /**
+     * Drops what depended on a node that left: its waiting players, the
+     * stand-ins of its players, and the games it hosted for players of this
+     * node. Players waiting on it as coordinator are queued on the new one.
+     */
+    @Override
+    public void onNodeLeft(String nodeId) {
+        waiting.values().removeIf(entry -> {
+            if (!entry.home.equals(nodeId)) {
+                return false;
+            }
+            cancel(entry);
+            return true;
+        });
+        for (StandIn<P> standIn : remotePlayers.values()) {
+            if (standIn.channel.getHomeNode().equals(nodeId)) {
+                remoteLeft(standIn);
+            }
+        }
+        String coordinator = coordinator();
+        localPlayers.forEach((playerId, local) -> {
+            if (nodeId.equals(local.relayNode) && localPlayers.remove(playerId, local)) {
+                local.relayNode = null;
+                host.onReleased(local.player);
+            } else if (nodeId.equals(local.waitingOn)) {
+                requeue(local, coordinator, false);
+            }
+        });
+        ServerLog.warn("⚠️ Nœud " + nodeId + " parti du cluster");
+    }
+
+    /**
+     * Moves the players waiting on another coordinator to the new one, if
+     * the node that joined has the smallest id
+     */
+    @Override
+    public void onNodeJoined(String nodeId) {
+        String coordinator = coordinator();
+        localPlayers.values().forEach(local -> requeue(local, coordinator, true));
+        ServerLog.info("🔗 Nœud " + nodeId + " arrivé dans le cluster, coordinateur: " + coordinator);
+    }
+
+    /**
+     * Queues a waiting local player on coordinator, if it waits on another one
+     *
+     * @param cancelPrevious false if the previous coordinator left
+     */
+    private void requeue(Local<P> local, String coordinator, boolean cancelPrevious) {
+        String previous;
+        synchronized (local) {
+            previous = local.waitingOn;
+            if (previous == null || previous.equals(coordinator)) {
+                return;
+            }
+            local.waitingOn = coordinator;
+        }
+        if (cancelPrevious) {
+            send(previous, ClusterMessage.Type.CANCEL, local.playerId);
+        }
+        sendEnqueue(coordinator, host.describe(local.player));
+    }
+
+    /**
+     * Takes a local player out of the queue for the match made by coordinator
+     *
+     * @return false if it was already matched: while it moved to a new
+     *         coordinator, the old one may have paired it too
+     */
+    private boolean matched(Local<P> local, String coordinator) {
+        String waitingOn;
+        synchronized (local) {
+            waitingOn = local.waitingOn;
+            if (waitingOn == null) {
+                return false;
+            }
+            local.waitingOn = null;
+        }
+        if (!waitingOn.equals(coordinator)) {
+            send(waitingOn, ClusterMessage.Type.CANCEL, local.playerId);
+        }
+        return true;
+    }
+
+    private static void cancel(Waiting entry) {
+        Matchmaker.Ticket<Waiting> ticket = entry.ticket;
+        if (ticket != null) {
+            ticket.cancel();
+        }
+    }
+
+    private void remoteLeft(StandIn<P> standIn) {
+        standIn.channel.detach();
+        host.onRemoteLeft(standIn.player);
+    }
+
+    /**
+     * Coordinator: sends a pair to the node of the longest waiting player
+     */
+    private void onSharedMatch(Waiting first, Waiting second) {
+        waiting.remove(first.descriptor.getPlayerId(), first);
+        waiting.remove(second.descriptor.getPlayerId(), second);
+        String[] fields = new String[2 + 2 * PlayerDescriptor.FIELDS];
+        fields[0] = first.home;
+        first.descriptor.writeTo(fields, 1);
+        fields[1 + PlayerDescriptor.FIELDS] = second.home;
+        second.descriptor.writeTo(fields, 2 + PlayerDescriptor.FIELDS);
+        send(first.home, ClusterMessage.Type.MATCH, fields);
+    }
+
+    /**
+     * Game node: starts the game of a pair made by the coordinator
+     */
+    private void hostGame(String coordinator, String firstHome, PlayerDescriptor first,
+                          String secondHome, PlayerDescriptor second) {
+        host.startGame(playerFor(coordinator, firstHome, first), playerFor(coordinator, secondHome, second));
+    }
+
+    private P playerFor(String coordinator, String home, PlayerDescriptor descriptor) {
+        String playerId = descriptor.getPlayerId();
+
+        if (home.equals(transport.getNodeId())) {
+            Local<P> local = localPlayers.get(playerId);
+            if (local != null && matched(local, coordinator)) {
+                return local.player;
+            }
+        }
+
+        RemoteClientChannel channel = new RemoteClientChannel(transport, home, playerId, descriptor.getRemoteAddress(),
+                () -> remotePlayers.remove(playerId));
+        if (home.equals(transport.getNodeId())) {
+            // The local player left, or was matched elsewhere, before the match: the game sees a disconnected player
+            channel.detach();
+            return host.createStandIn(descriptor, channel, false);
+        }
+        P standIn = host.createStandIn(descriptor, channel, true);
+        remotePlayers.put(playerId, new StandIn<>(standIn, channel));
+        send(home, ClusterMessage.Type.RELAY, playerId, coordinator);
+        return standIn;
+    }
+
+    public void shutdown() {
+        sharedQueue.shutdown();
+    }
+}
@@ -0,0 +1,61 @@
+package reseau.cluster;
+
+import java.io.IOException;
+import java.util.SortedSet;
+
+/**
+ * Message passing between the server nodes of a cluster.
+ *
+ * Messages from one node to another are delivered in the order they were
+ * sent. A node may send messages to itself.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Receives the messages addressed to this node
+     */
+    interface Listener {
+        void onMessage(ClusterMessage message);
+
+        /**
+         * A node stopped answering: messages to it are lost from now on
+         */
+        default void onNodeLeft(String nodeId) {
+        }
+
+        /**
+         * A node joined the cluster, or answers again after having left it
+         */
+        default void onNodeJoined(String nodeId) {
+        }
+    }
+
+    /**
+     * Starts receiving messages. Must be called once, before any send.
+     */
+    void start(Listener listener) throws IOException;
+
+    /**
+     * @return id of this node
+     */
+    String getNodeId();
+
+    /**
+     * @return ids of every node of the cluster, this one included, whether
+     *         they answer or not
+     */
+    SortedSet<String> getNodes();
+
+    /**
+     * @return ids of the nodes that currently answer, this one included
+     */
+    SortedSet<String> getLiveNodes();
+
+    /**
+     * Sends a message without waiting for its delivery. Messages to an
+     * unreachable node are dropped.
+     */
+    void send(String nodeId, ClusterMessage message);
+
+    void close();
+}
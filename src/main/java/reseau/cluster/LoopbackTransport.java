@@ -0,0 +1,133 @@
+package reseau.cluster;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import reseau.server.ServerLog;
+
+/**
+ * In-process transport: the nodes of a {@link Hub} live in the same JVM and
+ * exchange message objects directly. Each node handles its messages on its
+ * own thread, in arrival order, as with a network transport. Starting a
+ * node adds it to the hub and closing it removes it, as if its process had
+ * started or stopped: every node of the hub is live.
+ */
+public class LoopbackTransport implements ClusterTransport {
+
+    /**
+     * The nodes that can reach each other
+     */
+    public static final class Hub {
+        private final ConcurrentHashMap<String, LoopbackTransport> nodes = new ConcurrentHashMap<>();
+    }
+
+    private final Hub hub;
+    private final String nodeId;
+    private final ExecutorService inbox;
+    private volatile Listener listener;
+
+    public LoopbackTransport(Hub hub, String nodeId) {
+        this.hub = hub;
+        this.nodeId = nodeId;
+        this.inbox = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "cluster-loopback-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        if (hub.nodes.putIfAbsent(nodeId, this) != null) {
+            throw new IllegalStateException("Nœud déjà présent: " + nodeId);
+        }
+        for (LoopbackTransport node : hub.nodes.values()) {
+            if (node != this) {
+                try {
+                    node.inbox.execute(() -> node.nodeJoined(nodeId));
+                } catch (RejectedExecutionException e) {
+                    // Closed meanwhile
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public SortedSet<String> getNodes() {
+        SortedSet<String> nodes = new TreeSet<>(hub.nodes.keySet());
+        nodes.add(nodeId);  // Still there for its own listener while it closes
+        return nodes;
+    }
+
+    @Override
+    public SortedSet<String> getLiveNodes() {
+        return getNodes();
+    }
+
+    @Override
+    public void send(String targetId, ClusterMessage message) {
+        LoopbackTransport target = hub.nodes.get(targetId);
+        if (target == null) {
+            ServerLog.warn("⚠️ Nœud inconnu " + targetId + ", message perdu: " + message);
+            return;
+        }
+        try {
+            target.inbox.execute(() -> target.deliver(message));
+        } catch (RejectedExecutionException e) {
+            ServerLog.warn("⚠️ Nœud " + targetId + " arrêté, message perdu: " + message);
+        }
+    }
+
+    private void deliver(ClusterMessage message) {
+        try {
+            listener.onMessage(message);
+        } catch (RuntimeException e) {
+            ServerLog.error("❌ Erreur lors du traitement de " + message + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Leaves the hub: the other nodes are told, after the messages already sent to them
+     */
+    @Override
+    public void close() {
+        if (hub.nodes.remove(nodeId, this)) {
+            for (LoopbackTransport node : hub.nodes.values()) {
+                node.inbox.execute(() -> node.nodeLeft(nodeId));
+            }
+        }
+        inbox.shutdown();
+    }
+
+    private void nodeJoined(String joinedId) {
+        if (hub.nodes.get(nodeId) != this) {
+            return;  // Closed meanwhile
+        }
+        try {
+            listener.onNodeJoined(joinedId);
+        } catch (RuntimeException e) {
+            ServerLog.error("❌ Erreur après l'arrivée du nœud " + joinedId + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void nodeLeft(String leftId) {
+        if (hub.nodes.get(nodeId) != this) {
+            return;  // Closed meanwhile
+        }
+        try {
+            listener.onNodeLeft(leftId);
+        } catch (RuntimeException e) {
+            ServerLog.error("❌ Erreur après le départ du nœud " + leftId + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package reseau.cluster;
+
+/**
+ * What the other nodes of a cluster know of a player: enough to pair it and
+ * to drive a stand-in for it on the node hosting its game.
+ */
+public final class PlayerDescriptor {
+    /** Number of message fields of a descriptor */
+    public static final int FIELDS = 7;
+
+    private final String playerId;
+    private final String playerName;
+    private final int rating;
+    private final long rttMillis;
+    private final boolean binaryProtocol;
+    private final boolean messageCodes;
+    private final String remoteAddress;
+
+    /**
+     * @param playerId      cluster-wide id of the player
+     * @param rttMillis     heartbeat round-trip time, Matchmaker.UNKNOWN_RTT if not measured
+     * @param remoteAddress address of the player, for logs
+     */
+    public PlayerDescriptor(String playerId, String playerName, int rating, long rttMillis,
+                            boolean binaryProtocol, boolean messageCodes, String remoteAddress) {
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.rating = rating;
+        this.rttMillis = rttMillis;
+        this.binaryProtocol = binaryProtocol;
+        this.messageCodes = messageCodes;
+        this.remoteAddress = remoteAddress;
+    }
+
+    /**
+     * Writes the {@link #FIELDS} message fields of the descriptor from index offset
+     */
+    void writeTo(String[] fields, int offset) {
+        fields[offset] = playerId;
+        fields[offset + 1] = playerName;
+        fields[offset + 2] = Integer.toString(rating);
+        fields[offset + 3] = Long.toString(rttMillis);
+        fields[offset + 4] = Boolean.toString(binaryProtocol);
+        fields[offset + 5] = Boolean.toString(messageCodes);
+        fields[offset + 6] = remoteAddress;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the fields are not a descriptor
+     */
+    static PlayerDescriptor readFrom(ClusterMessage message, int offset) {
+        if (message.getFieldCount() < offset + FIELDS) {
+            throw new IllegalArgumentException("Descripteur de joueur incomplet dans " + message);
+        }
+        return new PlayerDescriptor(message.getField(offset), message.getField(offset + 1),
+                Integer.parseInt(message.getField(offset + 2)), Long.parseLong(message.getField(offset + 3)),
+                Boolean.parseBoolean(message.getField(offset + 4)), Boolean.parseBoolean(message.getField(offset + 5)),
+                message.getField(offset + 6));
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public long getRttMillis() {
+        return rttMillis;
+    }
+
+    public boolean usesBinaryProtocol() {
+        return binaryProtocol;
+    }
+
+    public boolean usesMessageCodes() {
+        return messageCodes;
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+}
@@ -0,0 +1,134 @@
+package reseau.cluster;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+import reseau.server.ClientChannel;
+
+/**
+ * Channel of a player connected to another node of the cluster: output is
+ * buffered and sent to the player's home node in one OUTPUT message per
+ * flush, which writes it to the real connection.
+ */
+public class RemoteClientChannel implements ClientChannel {
+    private final ClusterTransport transport;
+    private final String homeNode;
+    private final String playerId;
+    private final String remoteAddress;
+    private final Runnable onClose;
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+    private volatile boolean open = true;
+
+    /**
+     * @param homeNode      node holding the player's connection
+     * @param playerId      cluster-wide id of the player
+     * @param remoteAddress address of the player, for logs
+     * @param onClose       called once when the game node closes the channel
+     */
+    public RemoteClientChannel(ClusterTransport transport, String homeNode, String playerId,
+                               String remoteAddress, Runnable onClose) {
+        this.transport = transport;
+        this.homeNode = homeNode;
+        this.playerId = playerId;
+        this.remoteAddress = remoteAddress;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public void sendLine(String line) {
+        sendBytes((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void sendBytes(byte[] data) {
+        if (!open) {
+            return;
+        }
+        bufferLock.lock();
+        try {
+            buffer.write(data, 0, data.length);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean flush() {
+        byte[] bytes;
+        bufferLock.lock();
+        try {
+            if (buffer.size() == 0) {
+                return false;
+            }
+            bytes = buffer.toByteArray();
+            buffer.reset();
+        } finally {
+            bufferLock.unlock();
+        }
+        transport.send(homeNode, new ClusterMessage(ClusterMessage.Type.OUTPUT, transport.getNodeId(), bytes, playerId));
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        flush();
+        open = false;
+        transport.send(homeNode, new ClusterMessage(ClusterMessage.Type.CLOSE, transport.getNodeId(), playerId));
+        onClose.run();
+    }
+
+    @Override
+    public void abort() {
+        bufferLock.lock();
+        try {
+            buffer.reset();
+        } finally {
+            bufferLock.unlock();
+        }
+        close();
+    }
+
+    /**
+     * Hands the player back to its home node when its game is over, keeping
+     * its connection open
+     */
+    public void release() {
+        if (!open) {
+            return;
+        }
+        flush();
+        open = false;
+        transport.send(homeNode, new ClusterMessage(ClusterMessage.Type.RELEASE, transport.getNodeId(), playerId));
+        onClose.run();
+    }
+
+    /**
+     * Marks the channel closed after the player left on its home node
+     */
+    public void detach() {
+        open = false;
+        onClose.run();
+    }
+
+    /**
+     * @return node holding the player's connection
+     */
+    public String getHomeNode() {
+        return homeNode;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+}
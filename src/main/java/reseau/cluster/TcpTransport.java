@@ -0,0 +1,351 @@
+package reseau.cluster;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import reseau.server.ServerLog;
+
+/**
+ * Transport between server processes over TCP, one line per message.
+ *
+ * Each node listens on its cluster port and keeps one outgoing connection
+ * per peer. Sending only queues the message: a writer thread per peer
+ * connects, writes the queued messages and reconnects after a failure, so a
+ * dead peer never blocks the caller (the NIO event loop, a game worker or
+ * the matcher). An idle writer sends a heartbeat, so a peer that stops is
+ * noticed even when nothing is sent to it: a peer that cannot be connected
+ * leaves the live nodes and is reported to the listener as gone, and comes
+ * back once it can be connected again. Messages received on a connection
+ * are handled on that connection's thread, so messages from one peer keep
+ * their order.
+ */
+public class TcpTransport implements ClusterTransport {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final long RECONNECT_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int OUTBOX_CAPACITY = 4096;
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 500;
+
+    private final String nodeId;
+    private final int listenPort;
+    private final Map<String, PeerLink> peers = new ConcurrentHashMap<>();
+    private final Set<String> liveNodes = ConcurrentHashMap.newKeySet();
+    private final Set<Socket> incoming = ConcurrentHashMap.newKeySet();
+    private final ExecutorService selfInbox;
+    private volatile Listener listener;
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * @param nodeId     id of this node
+     * @param listenPort port receiving the messages of the other nodes
+     * @param peerAddresses address of each other node, by node id
+     */
+    public TcpTransport(String nodeId, int listenPort, Map<String, InetSocketAddress> peerAddresses) {
+        this.nodeId = nodeId;
+        this.listenPort = listenPort;
+        // Every peer counts as live until it fails to answer
+        liveNodes.add(nodeId);
+        liveNodes.addAll(peerAddresses.keySet());
+        peerAddresses.forEach((id, address) -> peers.put(id, new PeerLink(id, address)));
+        this.selfInbox = Executors.newSingleThreadExecutor(task -> daemon(task, "cluster-self"));
+    }
+
+    /**
+     * Parses a peer list of the form "id@host:port,id@host:port"
+     *
+     * @throws IllegalArgumentException on a malformed entry
+     */
+    public static Map<String, InetSocketAddress> parsePeers(String value) {
+        Map<String, InetSocketAddress> result = new ConcurrentHashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int at = entry.indexOf('@');
+            int colon = entry.lastIndexOf(':');
+            if (at <= 0 || colon < at) {
+                throw new IllegalArgumentException("Pair invalide (attendu id@hôte:port): " + entry);
+            }
+            int port = Integer.parseInt(entry.substring(colon + 1));
+            result.put(entry.substring(0, at), InetSocketAddress.createUnresolved(entry.substring(at + 1, colon), port));
+        }
+        return result;
+    }
+
+    @Override
+    public void start(Listener listener) throws IOException {
+        this.listener = listener;
+        serverSocket = new ServerSocket(listenPort);
+        daemon(this::acceptLoop, "cluster-acceptor").start();
+        ServerLog.info("🔗 Nœud " + nodeId + " à l'écoute du cluster sur le port " + listenPort);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public SortedSet<String> getNodes() {
+        SortedSet<String> nodes = new TreeSet<>(peers.keySet());
+        nodes.add(nodeId);
+        return nodes;
+    }
+
+    @Override
+    public SortedSet<String> getLiveNodes() {
+        return new TreeSet<>(liveNodes);
+    }
+
+    @Override
+    public void send(String targetId, ClusterMessage message) {
+        if (targetId.equals(nodeId)) {
+            selfInbox.execute(() -> deliver(message));
+            return;
+        }
+        PeerLink peer = peers.get(targetId);
+        if (peer == null) {
+            ServerLog.warn("⚠️ Nœud inconnu " + targetId + ", message perdu: " + message);
+            return;
+        }
+        peer.send(message.encode());
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            ServerLog.warn("❌ Erreur lors de la fermeture du port du cluster: " + e.getMessage());
+        }
+        peers.values().forEach(PeerLink::close);
+        // The peers see the links drop, as if the process had stopped
+        for (Socket socket : incoming) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already broken
+            }
+        }
+        selfInbox.shutdown();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                daemon(() -> readLoop(socket), "cluster-in-" + socket.getRemoteSocketAddress()).start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    ServerLog.warn("❌ Connexion de cluster refusée: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readLoop(Socket socket) {
+        incoming.add(socket);
+        try (BufferedReader input = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = input.readLine()) != null) {
+                try {
+                    ClusterMessage message = ClusterMessage.decode(line);
+                    if (message.getType() != ClusterMessage.Type.PING) {
+                        deliver(message);
+                    }
+                } catch (IllegalArgumentException e) {
+                    ServerLog.warn("⚠️ Message de cluster ignoré: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            ServerLog.info("🔗 Lien de cluster fermé: " + e.getMessage());
+        } finally {
+            incoming.remove(socket);
+        }
+    }
+
+    private void deliver(ClusterMessage message) {
+        try {
+            listener.onMessage(message);
+        } catch (RuntimeException e) {
+            ServerLog.error("❌ Erreur lors du traitement de " + message + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void nodeJoined(String peerId) {
+        liveNodes.add(peerId);
+        if (listener == null) {
+            return;  // Not started yet: the routing reads the live nodes when it needs them
+        }
+        try {
+            listener.onNodeJoined(peerId);
+        } catch (RuntimeException e) {
+            ServerLog.error("❌ Erreur après l'arrivée du nœud " + peerId + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void nodeLeft(String peerId) {
+        liveNodes.remove(peerId);
+        if (listener == null) {
+            return;  // Not started yet: the routing reads the live nodes when it needs them
+        }
+        try {
+            listener.onNodeLeft(peerId);
+        } catch (RuntimeException e) {
+            ServerLog.error("❌ Erreur après le départ du nœud " + peerId + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Outgoing connection to one peer, owned by its writer thread: send()
+     * only queues the line, the writer connects, writes, checks the link
+     * when idle and reconnects
+     */
+    private final class PeerLink {
+        private final String id;
+        private final InetSocketAddress address;
+        private final BlockingQueue<String> outbox = new ArrayBlockingQueue<>(OUTBOX_CAPACITY);
+        private final Thread writer;
+        private final String heartbeat = new ClusterMessage(ClusterMessage.Type.PING, nodeId).encode();
+        private volatile boolean closed = false;
+        private volatile boolean overflowing = false;
+        private volatile Socket socket;
+
+        // Writer thread only
+        private Writer output;
+        private boolean reachable = true;
+        private long retryAtNanos;
+
+        PeerLink(String id, InetSocketAddress address) {
+            this.id = id;
+            this.address = address;
+            this.writer = daemon(this::writeLoop, "cluster-out-" + id);
+            this.writer.start();
+        }
+
+        /**
+         * Queues a line for the writer thread, or drops it if the queue is full
+         */
+        void send(String line) {
+            if (outbox.offer(line)) {
+                overflowing = false;
+            } else if (!overflowing) {
+                overflowing = true;
+                ServerLog.warn("⚠️ File d'envoi vers le nœud " + id + " pleine, messages perdus");
+            }
+        }
+
+        private void writeLoop() {
+            try {
+                while (!closed) {
+                    String line = outbox.poll(HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (line == null) {
+                        line = heartbeat;  // Idle: a write or a connection attempt tells if the peer is still there
+                    }
+                    if (output == null && !connect()) {
+                        // Unreachable: drop what is queued instead of delivering it late
+                        outbox.clear();
+                        continue;
+                    }
+                    try {
+                        // One flush for everything queued meanwhile
+                        do {
+                            output.write(line);
+                            output.write('\n');
+                        } while ((line = outbox.poll()) != null);
+                        output.flush();
+                    } catch (IOException e) {
+                        if (!closed) {
+                            ServerLog.warn("⚠️ Nœud " + id + " injoignable (" + e.getMessage() + "), messages perdus");
+                        }
+                        closeSocket();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Closed
+            } finally {
+                closeSocket();
+            }
+        }
+
+        /**
+         * @return false if the peer cannot be reached, tried again at most every RECONNECT_DELAY
+         */
+        private boolean connect() {
+            if (!reachable && System.nanoTime() - retryAtNanos < 0) {
+                return false;
+            }
+            Socket connecting = new Socket();
+            try {
+                connecting.setTcpNoDelay(true);
+                connecting.connect(new InetSocketAddress(address.getHostString(), address.getPort()), CONNECT_TIMEOUT_MILLIS);
+                output = new BufferedWriter(new OutputStreamWriter(connecting.getOutputStream(), StandardCharsets.UTF_8));
+                socket = connecting;
+                if (!reachable) {
+                    ServerLog.info("🔗 Nœud " + id + " de nouveau joignable");
+                    reachable = true;
+                    nodeJoined(id);
+                }
+                return true;
+            } catch (IOException e) {
+                try {
+                    connecting.close();
+                } catch (IOException ignored) {
+                    // Never connected
+                }
+                if (reachable && !closed) {
+                    ServerLog.warn("⚠️ Nœud " + id + " injoignable (" + e.getMessage() + "), messages perdus");
+                    reachable = false;
+                    nodeLeft(id);
+                }
+                retryAtNanos = System.nanoTime() + RECONNECT_DELAY_NANOS;
+                return false;
+            }
+        }
+
+        void close() {
+            closed = true;
+            writer.interrupt();
+            closeSocket();  // Unblocks a write in progress
+        }
+
+        private void closeSocket() {
+            output = null;
+            Socket current = socket;
+            if (current != null) {
+                socket = null;
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    // Already broken
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package reseau.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import reseau.model.GameState;
+import reseau.protocol.MessageCode;
+import reseau.protocol.MoveCommand;
+
+/**
+ * One headless player: connects, negotiates message codes, asks for a game
+ * against the AI or another player, and plays random legal moves until it
+ * has finished its games, asking again whenever the server sends it back
+ * to the lobby. The board size is read from the BOARD lines, so
+ * bots play the larger boards as well.
+ *
+ * Runs on its own thread, reading the server's lines with blocking I/O.
+ */
+public class BotClient implements Runnable {
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    private final LoadTestConfig config;
+    private final LoadStats stats;
+    private final boolean againstAi;
+
+    private final Socket socket = new Socket();
+    private volatile boolean stopped = false;
+    private OutputStream output;
+
+    // Cells known to be taken: from the last board, plus moves the server refused
+    private GameState board = new GameState();
+    private final BitSet refusedCells = new BitSet();
+    private boolean myTurn = false;
+    private int pendingRow = -1;  // Sent before the first board, a move may not match the board size yet
+    private int pendingCol = -1;
+    private long pendingSentNanos = 0;
+    private int gamesPlayed = 0;
+
+    public BotClient(LoadTestConfig config, LoadStats stats, boolean againstAi) {
+        this.config = config;
+        this.stats = stats;
+        this.againstAi = againstAi;
+    }
+
+    @Override
+    public void run() {
+        long startNanos = System.nanoTime();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(config.getHost(), config.getPort()), CONNECT_TIMEOUT);
+        } catch (IOException e) {
+            stats.connectFailures.increment();
+            close();
+            return;
+        }
+
+        try {
+            output = socket.getOutputStream();
+            BufferedReader input = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 1024);
+
+            if (input.readLine() == null) {
+                stats.connectFailures.increment();
+                return;
+            }
+            stats.connected(startNanos);
+
+            send(MessageCode.HANDSHAKE + "\n" + (againstAi ? "AI" : "WAIT"));
+
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (handle(line)) {
+                    stats.finishedBots.increment();
+                    send("QUIT");
+                    return;
+                }
+            }
+            disconnected();
+        } catch (IOException e) {
+            disconnected();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Ends the bot at the end of the test, even in the middle of a game
+     */
+    public void stop() {
+        stopped = true;
+        close();
+    }
+
+    private void disconnected() {
+        // A bot stopped by the test did not lose its connection
+        if (!stopped) {
+            stats.disconnected.increment();
+        }
+    }
+
+    /**
+     * @return true once the bot has played all its games
+     */
+    private boolean handle(String line) throws IOException, InterruptedException {
+        MessageCode code = MessageCode.of(line);
+        if (code == null) {
+            return false;  // Welcome banner and handshake replies
+        }
+
+        switch (code) {
+            case BOARD:
+                board = MessageCode.parseBoard(MessageCode.textOf(line));
+                refusedCells.clear();
+                if (pendingRow >= 0 && board.isInside(pendingRow, pendingCol) && board.getCell(pendingRow, pendingCol) != ' ') {
+                    stats.moveLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - pendingSentNanos));
+                    stats.moves.increment();
+                    pendingRow = -1;
+                }
+                break;
+            case TURN:
+                myTurn = true;
+                play();
+                break;
+            case WAIT:
+                myTurn = false;
+                break;
+            case INVALID:
+                if (pendingRow >= 0) {
+                    // Most likely a cell taken since the last board: try another one
+                    stats.rejectedMoves.increment();
+                    if (board.isInside(pendingRow, pendingCol)) {
+                        refusedCells.set(pendingRow * board.getSize() + pendingCol);
+                    }
+                    pendingRow = -1;
+                    myTurn = true;
+                    play();
+                }
+                break;
+            case WIN:
+            case LOSE:
+            case DRAW:
+                myTurn = false;
+                pendingRow = -1;
+                board.resetBoard();
+                refusedCells.clear();
+                stats.games.increment();
+                if (++gamesPlayed >= config.getGames()) {
+                    return true;
+                }
+                send("REPLAY");
+                break;
+            case LOBBY:
+                // Opponent gone or no rematch in time: ask for a new game
+                myTurn = false;
+                pendingRow = -1;
+                board.resetBoard();
+                refusedCells.clear();
+                stats.lobbyReturns.increment();
+                send(againstAi ? "AI" : "WAIT");
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+
+    private boolean isFree(int cell) {
+        int size = board.getSize();
+        return !refusedCells.get(cell) && board.getCell(cell / size, cell % size) == ' ';
+    }
+
+    private void play() throws IOException, InterruptedException {
+        int cells = board.getSize() * board.getSize();
+        int free = cells - board.getFilledCells() - refusedCells.cardinality();
+        if (!myTurn || free <= 0) {
+            return;
+        }
+        if (config.getThinkMillis() > 0) {
+            Thread.sleep(config.getThinkMillis());
+        }
+
+        // Any free cell, at random
+        int skip = ThreadLocalRandom.current().nextInt(free);
+        int cell = 0;
+        while (!isFree(cell) || skip-- > 0) {
+            cell++;
+        }
+
+        myTurn = false;
+        pendingRow = cell / board.getSize();
+        pendingCol = cell % board.getSize();
+        pendingSentNanos = System.nanoTime();
+        send(MoveCommand.format(pendingRow, pendingCol));
+    }
+
+    private void send(String line) throws IOException {
+        output.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    private void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package reseau.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Capacity check for the server engines: opens N connections that never
+ * answer the AI/WAIT question, so every one of them keeps a server-side
+ * handler blocked in readLine(), and counts how many were greeted.
+ *
+ * Usage: java -cp target/classes reseau.loadtest.IdleConnections [host] [port] [connections] [holdSeconds]
+ *
+ * With --engine=blocking only the first 50 connections are greeted (fixed
+ * pool); with --engine=virtual or --engine=nio all of them should be.
+ */
+public class IdleConnections {
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int GREETING_TIMEOUT = 10000;
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 55555;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int holdSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        List<Socket> sockets = new ArrayList<>(count);
+        List<BufferedReader> readers = new ArrayList<>(count);
+
+        // Open every connection first
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            try {
+                Socket socket = new Socket();
+                socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+                sockets.add(socket);
+                readers.add(new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 256));
+            } catch (IOException e) {
+                System.err.println("❌ Connexion " + i + " échouée: " + e.getMessage());
+                break;
+            }
+        }
+        long connectMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("🔌 " + sockets.size() + "/" + count + " connexions ouvertes en " + connectMillis + " ms");
+
+        // Then wait for the welcome banner on each of them, within one global deadline
+        long deadline = System.currentTimeMillis() + GREETING_TIMEOUT;
+        int greeted = 0;
+        for (int i = 0; i < sockets.size(); i++) {
+            try {
+                sockets.get(i).setSoTimeout((int) Math.max(1, deadline - System.currentTimeMillis()));
+                if (readers.get(i).readLine() != null) {
+                    greeted++;
+                }
+            } catch (SocketTimeoutException e) {
+                // Not served by the server within the deadline
+            } catch (IOException e) {
+                System.err.println("❌ Lecture " + i + " échouée: " + e.getMessage());
+            }
+        }
+        long greetMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("👋 " + greeted + "/" + sockets.size() + " connexions accueillies après " + greetMillis + " ms");
+
+        // Keep every handler blocked in readLine() for a while
+        System.out.println("⏳ Maintien des connexions inactives pendant " + holdSeconds + " s...");
+        Thread.sleep(holdSeconds * 1000L);
+
+        int alive = 0;
+        for (Socket socket : sockets) {
+            if (!socket.isClosed() && socket.isConnected()) {
+                alive++;
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+        System.out.println("✅ " + alive + " connexions toujours ouvertes à la fin du test");
+    }
+}
@@ -0,0 +1,44 @@
+package reseau.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import reseau.server.LatencyHistogram;
+
+/**
+ * Counters shared by all the bots of a load test
+ */
+public class LoadStats {
+    // One minute, in microseconds: anything slower is a failure anyway
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    final LongAdder connected = new LongAdder();
+    final LongAdder connectFailures = new LongAdder();
+    final LongAdder disconnected = new LongAdder();
+    final LongAdder games = new LongAdder();
+    final LongAdder moves = new LongAdder();
+    final LongAdder rejectedMoves = new LongAdder();
+    final LongAdder finishedBots = new LongAdder();
+    final LongAdder lobbyReturns = new LongAdder();
+
+    // Connection opened until the welcome banner arrived
+    final LatencyHistogram connectLatency = new LatencyHistogram(HIGHEST_LATENCY_MICROS);
+    // Move sent until the board showing it arrived
+    final LatencyHistogram moveLatency = new LatencyHistogram(HIGHEST_LATENCY_MICROS);
+
+    private volatile long lastConnectedNanos;
+
+    void connected(long startNanos) {
+        long now = System.nanoTime();
+        connectLatency.record(TimeUnit.NANOSECONDS.toMicros(now - startNanos));
+        connected.increment();
+        lastConnectedNanos = now;
+    }
+
+    /**
+     * @return when the most recent bot got connected, in System.nanoTime() terms
+     */
+    long getLastConnectedNanos() {
+        return lastConnectedNanos;
+    }
+}
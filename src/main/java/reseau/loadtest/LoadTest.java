@@ -0,0 +1,119 @@
+package reseau.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import reseau.server.LatencyHistogram;
+import reseau.server.VirtualThreads;
+
+/**
+ * Capacity test for a running server, without JavaFX: starts bot players
+ * that play real games, then reports connections per second, moves per
+ * second and the distribution of the move round-trip time (move sent until
+ * the board showing it comes back).
+ *
+ * Usage: java -cp target/morpion-game-1.0-SNAPSHOT.jar reseau.MorpionLauncher loadtest [host] [port] [options]
+ *
+ * See {@link LoadTestConfig} for the options. Bots that play each other
+ * are paired by the server, so their number should be even.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        LoadStats stats = new LoadStats();
+
+        int aiBots = (int) Math.round(config.getBots() * config.getAiRatio());
+        System.out.println("🤖 " + config.getBots() + " bots vers " + config.getHost() + ":" + config.getPort() +
+                " (" + aiBots + " contre l'IA, " + (config.getBots() - aiBots) + " entre eux), " +
+                config.getGames() + " parties chacun, réflexion " + config.getThinkMillis() + " ms");
+
+        // One thread per bot, virtual when the JVM has them
+        ExecutorService bots = VirtualThreads.isSupported()
+                ? VirtualThreads.newThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
+
+        List<BotClient> started = new ArrayList<>(config.getBots());
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.SECONDS.toNanos(config.getTimeoutSeconds());
+        Thread reporter = startReporter(config, stats, startNanos);
+
+        // Spread AI and human bots evenly, so each ramp step keeps the mix
+        long rampStepNanos = config.getBots() > 1 ? TimeUnit.MILLISECONDS.toNanos(config.getRampMillis()) / (config.getBots() - 1) : 0;
+        for (int i = 0; i < config.getBots(); i++) {
+            boolean againstAi = (long) (i + 1) * aiBots / config.getBots() > (long) i * aiBots / config.getBots();
+            BotClient bot = new BotClient(config, stats, againstAi);
+            started.add(bot);
+            bots.execute(bot);
+            if (rampStepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(rampStepNanos);
+            }
+        }
+
+        bots.shutdown();
+        if (!bots.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            System.out.println("⌛ Délai dépassé, arrêt des bots restants");
+            started.forEach(BotClient::stop);
+            bots.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        reporter.interrupt();
+
+        report(config, stats, startNanos, elapsedNanos);
+    }
+
+    private static Thread startReporter(LoadTestConfig config, LoadStats stats, long startNanos) {
+        Thread reporter = new Thread(() -> {
+            long previousMoves = 0;
+            try {
+                while (true) {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(config.getReportSeconds()));
+                    long moves = stats.moves.sum();
+                    System.out.println(String.format(Locale.ROOT,
+                            "⏱️ %5d s | connectés %d | parties %d | coups/s %.0f | p99 %.2f ms",
+                            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos),
+                            stats.connected.sum(), stats.games.sum(),
+                            (moves - previousMoves) / (double) config.getReportSeconds(),
+                            stats.moveLatency.getValueAtPercentile(99) / 1000.0));
+                    previousMoves = moves;
+                }
+            } catch (InterruptedException e) {
+                // Test over
+            }
+        }, "loadtest-report");
+        reporter.setDaemon(true);
+        reporter.start();
+        return reporter;
+    }
+
+    private static void report(LoadTestConfig config, LoadStats stats, long startNanos, long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        double connectSeconds = Math.max(1e-3, (stats.getLastConnectedNanos() - startNanos) / 1e9);
+
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "🔌 Connexions : %d/%d réussies, %d échecs, %.0f connexions/s",
+                stats.connected.sum(), config.getBots(), stats.connectFailures.sum(),
+                stats.connected.sum() / connectSeconds));
+        System.out.println("   Accueil    : " + percentiles(stats.connectLatency));
+        System.out.println(String.format(Locale.ROOT, "🎮 Parties    : %d terminées, %d/%d bots allés au bout, %d déconnectés, %d retours à l'accueil",
+                stats.games.sum(), stats.finishedBots.sum(), stats.connected.sum(), stats.disconnected.sum(),
+                stats.lobbyReturns.sum()));
+        System.out.println(String.format(Locale.ROOT, "🎲 Coups      : %d joués en %.1f s, %.0f coups/s, %d refusés",
+                stats.moves.sum(), elapsedSeconds, stats.moves.sum() / elapsedSeconds, stats.rejectedMoves.sum()));
+        System.out.println("   Aller-retour : " + percentiles(stats.moveLatency));
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "p50 %.2f ms | p90 %.2f ms | p99 %.2f ms | p99.9 %.2f ms | max %.2f ms (%d mesures)",
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMax() / 1000.0,
+                histogram.getCount());
+    }
+}
@@ -0,0 +1,143 @@
+package reseau.loadtest;
+
+import reseau.server.ServerConfig;
+
+/**
+ * Load test options, read from the command line.
+ *
+ * Usage: [host] [port] [--bots=N] [--ai-ratio=0..1] [--games=N] [--think=MS]
+ *        [--ramp=MS] [--timeout=S] [--report=S]
+ */
+public class LoadTestConfig {
+    private String host = "127.0.0.1";
+    private int port = ServerConfig.DEFAULT_PORT;
+    private int bots = 100;
+    private double aiRatio = 0.5;
+    private int games = 10;
+    private long thinkMillis = 0;
+    private long rampMillis = 0;
+    private int timeoutSeconds = 120;
+    private int reportSeconds = 5;
+
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        boolean hostSeen = false;
+
+        for (String arg : args) {
+            if (arg.startsWith("--bots=")) {
+                config.bots = parsePositive(arg.substring("--bots=".length()), config.bots);
+            } else if (arg.startsWith("--ai-ratio=")) {
+                config.aiRatio = parseRatio(arg.substring("--ai-ratio=".length()), config.aiRatio);
+            } else if (arg.startsWith("--games=")) {
+                config.games = parsePositive(arg.substring("--games=".length()), config.games);
+            } else if (arg.startsWith("--think=")) {
+                config.thinkMillis = parseNonNegative(arg.substring("--think=".length()), config.thinkMillis);
+            } else if (arg.startsWith("--ramp=")) {
+                config.rampMillis = parseNonNegative(arg.substring("--ramp=".length()), config.rampMillis);
+            } else if (arg.startsWith("--timeout=")) {
+                config.timeoutSeconds = parsePositive(arg.substring("--timeout=".length()), config.timeoutSeconds);
+            } else if (arg.startsWith("--report=")) {
+                config.reportSeconds = parsePositive(arg.substring("--report=".length()), config.reportSeconds);
+            } else if (arg.startsWith("--")) {
+                System.err.println("Option inconnue ignorée: " + arg);
+            } else if (!hostSeen && !isNumber(arg)) {
+                config.host = arg;
+                hostSeen = true;
+            } else {
+                config.port = parsePositive(arg, config.port);
+            }
+        }
+        return config;
+    }
+
+    private static boolean isNumber(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+
+    private static int parsePositive(String value, int defaultValue) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default value
+        }
+        System.err.println("Valeur invalide: " + value + ", utilisation de la valeur par défaut: " + defaultValue);
+        return defaultValue;
+    }
+
+    private static long parseNonNegative(String value, long defaultValue) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default value
+        }
+        System.err.println("Valeur invalide: " + value + ", utilisation de la valeur par défaut: " + defaultValue);
+        return defaultValue;
+    }
+
+    private static double parseRatio(String value, double defaultValue) {
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed >= 0 && parsed <= 1) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default value
+        }
+        System.err.println("Valeur invalide: " + value + ", utilisation de la valeur par défaut: " + defaultValue);
+        return defaultValue;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBots() {
+        return bots;
+    }
+
+    /**
+     * @return share of the bots playing against the server's AI; the others play each other
+     */
+    public double getAiRatio() {
+        return aiRatio;
+    }
+
+    /**
+     * @return games each bot plays before quitting
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @return pause before each move of a bot
+     */
+    public long getThinkMillis() {
+        return thinkMillis;
+    }
+
+    /**
+     * @return time over which the bot connections are spread, 0 to open them all at once
+     */
+    public long getRampMillis() {
+        return rampMillis;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public int getReportSeconds() {
+        return reportSeconds;
+    }
+}
@@ -13,6 +13,9 @@ import javafx.beans.property.StringProperty;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import reseau.ai.Difficulty;
+import reseau.ai.Tablebase;
+
 /**
  * Modèle contenant la logique du jeu de Morpion.
  * Implémente le pattern Observer avec les propriétés JavaFX.
@@ -32,6 +35,7 @@ public class GameModel {
     
     // Configuration
     private final BooleanProperty multiplayerMode = new SimpleBooleanProperty(false);
+    private final ObjectProperty<Difficulty> aiDifficulty = new SimpleObjectProperty<>(Difficulty.PERFECT);
     
     // Caractères des joueurs
     private char playerSymbol = 'X';
@@ -161,77 +165,14 @@ public class GameModel {
     }
     
     /**
-     * Fait jouer l'IA
+     * Fait jouer l'IA (coup lu dans la table de finales, ou à défaut dans la table de jeu parfait)
      */
     private void makeAIMove() {
-        // Stratégie de l'IA (implémentation simple)
-        boolean hasMoved = false;
-        
-        // 1. Essayer de gagner
-        hasMoved = tryWinningMove(opponentSymbol);
-        if (hasMoved) return;
-        
-        // 2. Bloquer le joueur s'il est sur le point de gagner
-        hasMoved = tryWinningMove(playerSymbol);
-        if (hasMoved) return;
-        
-        // 3. Jouer au centre si possible
-        if (gameState.get().getCell(1, 1) == ' ') {
-            gameState.get().setCell(1, 1, opponentSymbol);
-            finishAIMove();
-            return;
-        }
+        int cell = Tablebase.classic().chooseMove(gameState.get(), opponentSymbol, aiDifficulty.get());
+        if (cell < 0) return;
         
-        // 4. Jouer dans un coin
-        int[][] corners = {{0, 0}, {0, 2}, {2, 0}, {2, 2}};
-        for (int[] corner : corners) {
-            if (gameState.get().getCell(corner[0], corner[1]) == ' ') {
-                gameState.get().setCell(corner[0], corner[1], opponentSymbol);
-                finishAIMove();
-                return;
-            }
-        }
-        
-        // 5. Jouer sur le premier emplacement disponible
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (gameState.get().getCell(row, col) == ' ') {
-                    gameState.get().setCell(row, col, opponentSymbol);
-                    finishAIMove();
-                    return;
-                }
-            }
-        }
-    }
-    
-    /**
-     * Essaie de trouver un coup gagnant
-     */
-    private boolean tryWinningMove(char symbol) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (gameState.get().getCell(row, col) == ' ') {
-                    // Essayer le coup
-                    GameState tempState = gameState.get().copy();
-                    tempState.setCell(row, col, symbol);
-                    
-                    if (tempState.checkWin(symbol)) {
-                        if (symbol == opponentSymbol) {
-                            // IA gagne
-                            gameState.get().setCell(row, col, opponentSymbol);
-                            finishAIMove();
-                            return true;
-                        } else {
-                            // Bloquer le joueur
-                            gameState.get().setCell(row, col, opponentSymbol);
-                            finishAIMove();
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        return false;
+        gameState.get().setCell(cell / 3, cell % 3, opponentSymbol);
+        finishAIMove();
     }
     
     /**
@@ -384,4 +325,16 @@ public class GameModel {
     public boolean isMultiplayerMode() {
         return multiplayerMode.get();
     }
+    
+    public ObjectProperty<Difficulty> aiDifficultyProperty() {
+        return aiDifficulty;
+    }
+    
+    public Difficulty getAiDifficulty() {
+        return aiDifficulty.get();
+    }
+    
+    public void setAiDifficulty(Difficulty difficulty) {
+        aiDifficulty.set(difficulty);
+    }
 }
\ No newline at end of file
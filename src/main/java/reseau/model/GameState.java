@@ -1,152 +1,443 @@
 package reseau.model;
 
+import java.util.Arrays;
+
 /**
  * Classe représentant l'état du jeu de Morpion à un moment donné.
  * Cette classe est immuable une fois créée (sauf via les setters).
+ *
+ * Le plateau fait N×N cases et il faut aligner k symboles pour gagner :
+ * 3×3 et 3 pour le Morpion classique, 15×15 et 5 pour le Gomoku. Chaque
+ * joueur a un ensemble de bits (bit = ligne * N + colonne), et la victoire
+ * est détectée à chaque coup en ne regardant que les 4 lignes qui passent
+ * par la case jouée : le coût d'un coup est en O(k) quelle que soit la
+ * taille du plateau.
  */
 public class GameState {
-    // Plateau de jeu
-    private final char[][] board = new char[3][3];
-    
+    public static final int CLASSIC_SIZE = 3;
+    public static final int MAX_SIZE = 32;
+
+    /** Plus grand plateau qui a un code base 3 (3^16 tient dans un int), voir {@link #getTernaryCode()} */
+    public static final int MAX_CODED_CELLS = 16;
+
+    // Masques des 8 lignes gagnantes du 3×3 (bit = ligne * 3 + colonne), dans l'ordre de getWinningLineIndex
+    private static final int[] WIN_LINES = {
+        0x007, 0x038, 0x1C0,  // lignes 0-2
+        0x049, 0x092, 0x124,  // colonnes 0-2
+        0x111, 0x054          // diagonale principale, diagonale secondaire
+    };
+    private static final int FULL_BOARD = 0x1FF;
+
+    // Valeur en base 3 d'un octet de masque (chaque bit vaut 3^case)
+    private static final int[] TERNARY_BYTE = new int[256];
+    private static final int POW3_8 = 6561;  // 3^8
+
+    static {
+        for (int mask = 1; mask < TERNARY_BYTE.length; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            int power = 1;
+            for (int i = 0; i < lowest; i++) {
+                power *= 3;
+            }
+            TERNARY_BYTE[mask] = TERNARY_BYTE[mask & (mask - 1)] + power;
+        }
+    }
+
+    // Directions des lignes (ligne, colonne) : horizontale, verticale, diagonale, anti-diagonale
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final int size;
+    private final int winLength;
+
+    // Plateau de jeu : un bit par case pour chaque joueur, 64 cases par mot
+    private final long[] xBits;
+    private final long[] oBits;
+
+    // Ligne gagnante de chaque joueur (première case et direction), trouvée au coup qui l'a complétée
+    private int xWinCell = -1;
+    private int xWinDirection;
+    private int oWinCell = -1;
+    private int oWinDirection;
+
     // Position du dernier coup joué
     private int lastPlayedRow = -1;
     private int lastPlayedCol = -1;
-    
+
     /**
-     * Constructeur par défaut qui initialise un plateau vide
+     * Constructeur par défaut qui initialise un plateau 3×3 vide
      */
     public GameState() {
+        this(CLASSIC_SIZE, CLASSIC_SIZE);
+    }
+
+    /**
+     * Plateau vide de size×size cases où il faut aligner winLength symboles
+     */
+    public GameState(int size, int winLength) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Taille de plateau invalide: " + size);
+        }
+        if (winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Longueur d'alignement invalide: " + winLength + " pour un plateau de " + size);
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.xBits = new long[(size * size + 63) / 64];
+        this.oBits = new long[xBits.length];
         resetBoard();
     }
-    
+
+    /**
+     * Longueur d'alignement habituelle pour une taille de plateau :
+     * toute la ligne jusqu'à 5 cases, puis 5 (Gomoku)
+     */
+    public static int defaultWinLength(int size) {
+        return Math.min(size, 5);
+    }
+
     /**
      * Réinitialise le plateau de jeu
      */
     public void resetBoard() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                board[row][col] = ' ';
-            }
-        }
+        Arrays.fill(xBits, 0L);
+        Arrays.fill(oBits, 0L);
+        xWinCell = -1;
+        oWinCell = -1;
         lastPlayedRow = -1;
         lastPlayedCol = -1;
     }
-    
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
     /**
-     * Retourne le contenu d'une cellule du plateau
+     * @return true pour le plateau 3×3 classique, le seul que connaissent
+     *         les masques, la trame binaire et la table de l'IA parfaite
      */
-    public char getCell(int row, int col) {
-        if (row < 0 || row >= 3 || col < 0 || col >= 3) {
+    public boolean isClassic() {
+        return size == CLASSIC_SIZE && winLength == CLASSIC_SIZE;
+    }
+
+    /**
+     * @return true si la case existe sur ce plateau
+     */
+    public boolean isInside(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    private int cellOf(int row, int col) {
+        if (!isInside(row, col)) {
             throw new IndexOutOfBoundsException("Position invalide: [" + row + "," + col + "]");
         }
-        return board[row][col];
+        return row * size + col;
     }
-    
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Retourne le contenu d'une cellule du plateau
+     */
+    public char getCell(int row, int col) {
+        int cell = cellOf(row, col);
+        if (isSet(xBits, cell)) return 'X';
+        if (isSet(oBits, cell)) return 'O';
+        return ' ';
+    }
+
     /**
-     * Modifie le contenu d'une cellule du plateau
+     * Modifie le contenu d'une cellule du plateau ('X', 'O' ou ' ' pour la vider)
      */
     public void setCell(int row, int col, char value) {
-        if (row < 0 || row >= 3 || col < 0 || col >= 3) {
-            throw new IndexOutOfBoundsException("Position invalide: [" + row + "," + col + "]");
+        int cell = cellOf(row, col);
+        if (value != 'X' && value != 'O' && value != ' ') {
+            throw new IllegalArgumentException("Symbole invalide: '" + value + "'");
+        }
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        boolean wasEmpty = ((xBits[word] | oBits[word]) & bit) == 0;
+        xBits[word] &= ~bit;
+        oBits[word] &= ~bit;
+        if (value == 'X') {
+            xBits[word] |= bit;
+        } else if (value == 'O') {
+            oBits[word] |= bit;
         }
-        board[row][col] = value;
         lastPlayedRow = row;
         lastPlayedCol = col;
+
+        if (wasEmpty && value != ' ') {
+            // Cas normal d'un coup : seules les lignes passant par la case peuvent être nouvelles
+            if (winCellOf(value) < 0) {
+                findLineThrough(value, row, col);
+            }
+        } else {
+            // Case vidée ou remplacée : une ligne déjà trouvée a pu disparaître
+            recomputeWins();
+        }
+    }
+
+    private long[] bitsOf(char symbol) {
+        return symbol == 'X' ? xBits : (symbol == 'O' ? oBits : null);
+    }
+
+    private int winCellOf(char symbol) {
+        return symbol == 'X' ? xWinCell : (symbol == 'O' ? oWinCell : -1);
     }
-    
+
     /**
-     * Vérifie si le symbole spécifié a gagné
+     * Cherche, dans les 4 directions, une ligne de winLength symboles passant
+     * par la case, et la retient comme ligne gagnante du symbole
      */
-    public boolean checkWin(char symbol) {
-        // Vérifier les lignes
-        for (int i = 0; i < 3; i++) {
-            if (board[i][0] == symbol && board[i][1] == symbol && board[i][2] == symbol) {
-                return true;
+    private boolean findLineThrough(char symbol, int row, int col) {
+        long[] bits = bitsOf(symbol);
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int dr = DIRECTIONS[d][0];
+            int dc = DIRECTIONS[d][1];
+
+            // Symboles consécutifs avant la case, puis après, sans dépasser winLength
+            int before = 0;
+            int r = row - dr;
+            int c = col - dc;
+            while (before < winLength - 1 && isInside(r, c) && isSet(bits, r * size + c)) {
+                before++;
+                r -= dr;
+                c -= dc;
             }
-        }
-        
-        // Vérifier les colonnes
-        for (int i = 0; i < 3; i++) {
-            if (board[0][i] == symbol && board[1][i] == symbol && board[2][i] == symbol) {
+            int after = 0;
+            r = row + dr;
+            c = col + dc;
+            while (before + after < winLength - 1 && isInside(r, c) && isSet(bits, r * size + c)) {
+                after++;
+                r += dr;
+                c += dc;
+            }
+
+            if (before + after + 1 >= winLength) {
+                int start = (row - before * dr) * size + (col - before * dc);
+                if (symbol == 'X') {
+                    xWinCell = start;
+                    xWinDirection = d;
+                } else {
+                    oWinCell = start;
+                    oWinDirection = d;
+                }
                 return true;
             }
         }
-        
-        // Vérifier les diagonales
-        if (board[0][0] == symbol && board[1][1] == symbol && board[2][2] == symbol) {
-            return true;
+        return false;
+    }
+
+    private void recomputeWins() {
+        xWinCell = -1;
+        oWinCell = -1;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (xWinCell < 0 && isSet(xBits, cell)) {
+                findLineThrough('X', cell / size, cell % size);
+            }
+            if (oWinCell < 0 && isSet(oBits, cell)) {
+                findLineThrough('O', cell / size, cell % size);
+            }
         }
-        
-        if (board[0][2] == symbol && board[1][1] == symbol && board[2][0] == symbol) {
-            return true;
+    }
+
+    /**
+     * Vérifie si le symbole spécifié a gagné
+     */
+    public boolean checkWin(char symbol) {
+        return winCellOf(symbol) >= 0;
+    }
+
+    /**
+     * Vérifie si jouer symbol dans la case vide (row, col) alignerait winLength
+     * symboles, sans modifier le plateau
+     */
+    public boolean wouldWin(char symbol, int row, int col) {
+        int cell = cellOf(row, col);
+        long[] bits = bitsOf(symbol);
+        long word = bits[cell >>> 6];
+        bits[cell >>> 6] |= 1L << cell;
+        int winCell = xWinCell;
+        int winDirection = xWinDirection;
+        int otherWinCell = oWinCell;
+        int otherWinDirection = oWinDirection;
+        try {
+            return findLineThrough(symbol, row, col);
+        } finally {
+            bits[cell >>> 6] = word;
+            xWinCell = winCell;
+            xWinDirection = winDirection;
+            oWinCell = otherWinCell;
+            oWinDirection = otherWinDirection;
         }
-        
-        return false;
     }
-    
+
     /**
      * Vérifie si le plateau est plein (match nul)
      */
     public boolean isBoardFull() {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (board[row][col] == ' ') {
-                    return false;
-                }
-            }
+        return getFilledCells() == size * size;
+    }
+
+    /**
+     * @return nombre de cases occupées
+     */
+    public int getFilledCells() {
+        int filled = 0;
+        for (int i = 0; i < xBits.length; i++) {
+            filled += Long.bitCount(xBits[i] | oBits[i]);
         }
-        return true;
+        return filled;
     }
-    
+
     /**
      * Crée une copie profonde de l'état du jeu
      */
     public GameState copy() {
-        GameState copy = new GameState();
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                copy.board[row][col] = this.board[row][col];
-            }
-        }
+        GameState copy = new GameState(size, winLength);
+        System.arraycopy(xBits, 0, copy.xBits, 0, xBits.length);
+        System.arraycopy(oBits, 0, copy.oBits, 0, oBits.length);
+        copy.xWinCell = this.xWinCell;
+        copy.xWinDirection = this.xWinDirection;
+        copy.oWinCell = this.oWinCell;
+        copy.oWinDirection = this.oWinDirection;
         copy.lastPlayedRow = this.lastPlayedRow;
         copy.lastPlayedCol = this.lastPlayedCol;
         return copy;
     }
-    
+
+    /**
+     * Code base 3 du plateau : somme des chiffres des cases (ligne * taille
+     * + colonne), 0 = vide, 1 = X, 2 = O. C'est l'index de la table de jeu
+     * parfait, du cache des dessins et de la table de finales.
+     *
+     * @throws IllegalStateException au-delà de {@link #MAX_CODED_CELLS} cases
+     */
+    public int getTernaryCode() {
+        if (size * size > MAX_CODED_CELLS) {
+            throw new IllegalStateException("Plateau trop grand pour un code base 3: " + size + "×" + size);
+        }
+        return ternaryCode((int) xBits[0], (int) oBits[0]);
+    }
+
+    /**
+     * Code base 3 d'un plateau donné par les masques de bits de X et de O
+     * (16 cases au plus)
+     */
+    public static int ternaryCode(int xMask, int oMask) {
+        return ternaryOf(xMask) + 2 * ternaryOf(oMask);
+    }
+
+    private static int ternaryOf(int mask) {
+        return TERNARY_BYTE[mask & 0xFF] + POW3_8 * TERNARY_BYTE[(mask >>> 8) & 0xFF];
+    }
+
+    /**
+     * Cases occupées par X (bit = ligne * 3 + colonne), plateau 3×3 uniquement
+     */
+    public int getXMask() {
+        return (int) xBits[0];
+    }
+
+    /**
+     * Cases occupées par O (bit = ligne * 3 + colonne), plateau 3×3 uniquement
+     */
+    public int getOMask() {
+        return (int) oBits[0];
+    }
+
+    /**
+     * Encodage compact du plateau 3×3 : les 9 bits de X suivis des 9 bits de O
+     */
+    public int getPackedBoard() {
+        return getXMask() | (getOMask() << 9);
+    }
+
+    /**
+     * Reconstruit un état 3×3 à partir de son encodage compact (voir getPackedBoard)
+     * @param lastMove Dernier coup joué (ligne * 3 + colonne), ou -1
+     */
+    public static GameState fromPackedBoard(int packedBoard, int lastMove) {
+        GameState state = new GameState();
+        state.xBits[0] = packedBoard & FULL_BOARD;
+        state.oBits[0] = (packedBoard >>> 9) & FULL_BOARD & ~state.xBits[0];
+        state.recomputeWins();
+        if (lastMove >= 0) {
+            state.lastPlayedRow = lastMove / 3;
+            state.lastPlayedCol = lastMove % 3;
+        }
+        return state;
+    }
+
     /**
      * Retourne la position de la dernière ligne jouée
      */
     public int getLastPlayedRow() {
         return lastPlayedRow;
     }
-    
+
     /**
      * Retourne la position de la dernière colonne jouée
      */
     public int getLastPlayedCol() {
         return lastPlayedCol;
     }
-    
+
     /**
      * Représentation textuelle du plateau
      */
     @Override
     public String toString() {
+        // Colonnes de 3 caractères, 4 au-delà de 10 pour les numéros à deux chiffres
+        int width = size > 10 ? 4 : 3;
+        String label = size > 10 ? "%2d" : "%d";
+        String margin = size > 10 ? "   " : "  ";
+        String bar = repeat('─', width);
+
+        StringBuilder header = new StringBuilder(margin).append(' ');
+        for (int j = 0; j < size; j++) {
+            header.append(center(String.format(size > 10 ? "%-2d" : "%d", j), width)).append(' ');
+        }
         StringBuilder sb = new StringBuilder();
-        sb.append("\n    0   1   2\n");
-        sb.append("  ┌───┬───┬───┐\n");
-        for (int i = 0; i < 3; i++) {
-            sb.append(i).append(" │ ");
-            for (int j = 0; j < 3; j++) {
-                sb.append(board[i][j] == ' ' ? " " : board[i][j]).append(" │ ");
+        sb.append('\n').append(header.toString().replaceAll("\\s+$", "")).append('\n');
+        sb.append(margin).append(border('┌', bar, '┬', '┐')).append('\n');
+        for (int i = 0; i < size; i++) {
+            sb.append(String.format(label, i)).append(" │");
+            for (int j = 0; j < size; j++) {
+                sb.append(center(String.valueOf(getCell(i, j)), width)).append('│');
             }
-            sb.append("\n");
-            if (i < 2) sb.append("  ├───┼───┼───┤\n");
+            sb.append(' ').append('\n');
+            if (i < size - 1) sb.append(margin).append(border('├', bar, '┼', '┤')).append('\n');
         }
-        sb.append("  └───┴───┴───┘\n");
+        sb.append(margin).append(border('└', bar, '┴', '┘')).append('\n');
         return sb.toString();
     }
-    
+
+    private String border(char left, String bar, char middle, char right) {
+        StringBuilder line = new StringBuilder().append(left);
+        for (int j = 0; j < size; j++) {
+            line.append(bar).append(j < size - 1 ? middle : right);
+        }
+        return line.toString();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static String center(String text, int width) {
+        int left = (width - text.length()) / 2;
+        return repeat(' ', left) + text + repeat(' ', width - left - text.length());
+    }
+
     /**
      * Equals et hashCode pour comparaison d'états
      */
@@ -155,81 +446,77 @@ public class GameState {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         GameState that = (GameState) o;
-        
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (this.board[row][col] != that.board[row][col]) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return this.size == that.size && this.winLength == that.winLength
+                && Arrays.equals(this.xBits, that.xBits) && Arrays.equals(this.oBits, that.oBits);
     }
-    
+
     @Override
     public int hashCode() {
-        int result = 0;
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                result = 31 * result + board[row][col];
-            }
+        if (isClassic()) {
+            return getPackedBoard();
         }
-        return result;
+        return 31 * Arrays.hashCode(xBits) + Arrays.hashCode(oBits);
     }
 
     /**
- * Obtient l'index de la ligne gagnante pour un symbole donné
+ * Obtient l'index de la ligne gagnante pour un symbole donné (plateau 3×3)
  * 0-2: lignes horizontales
  * 3-5: colonnes verticales
  * 6: diagonale principale (haut-gauche à bas-droite)
  * 7: diagonale secondaire (haut-droite à bas-gauche)
  * -1: aucune ligne gagnante
- * 
+ *
  * @param symbol Le symbole pour lequel chercher une ligne gagnante ('X' ou 'O')
  * @return L'index de la ligne gagnante ou -1 si aucune
  */
 public int getWinningLineIndex(char symbol) {
-    // Check rows (0-2)
-    for (int i = 0; i < 3; i++) {
-        if (board[i][0] == symbol && board[i][1] == symbol && board[i][2] == symbol) {
-            return i;  // winning row index
-        }
+    if (!isClassic()) {
+        return -1;  // Only the 3×3 lines have an index, see getWinningCells(char)
     }
-    
-    // Check columns (3-5)
-    for (int i = 0; i < 3; i++) {
-        if (board[0][i] == symbol && board[1][i] == symbol && board[2][i] == symbol) {
-            return i + 3;  // winning column index + 3
+    int mask = symbol == 'X' ? getXMask() : (symbol == 'O' ? getOMask() : 0);
+    for (int i = 0; i < WIN_LINES.length; i++) {
+        if ((mask & WIN_LINES[i]) == WIN_LINES[i]) {
+            return i;
         }
     }
-    
-    // Check main diagonal (6)
-    if (board[0][0] == symbol && board[1][1] == symbol && board[2][2] == symbol) {
-        return 6;  // main diagonal
+    return -1;  // no winning line
+}
+
+/**
+ * Obtient les coordonnées des cellules de la ligne gagnante, quelle que soit
+ * la taille du plateau
+ *
+ * @param symbol Le symbole gagnant ('X' ou 'O')
+ * @return Les winLength coordonnées [row,col] de la ligne, ou null si aucune
+ */
+public int[][] getWinningCells(char symbol) {
+    int start = winCellOf(symbol);
+    if (start < 0) {
+        return null;
     }
-    
-    // Check secondary diagonal (7)
-    if (board[0][2] == symbol && board[1][1] == symbol && board[2][0] == symbol) {
-        return 7;  // secondary diagonal
+    int[] direction = DIRECTIONS[symbol == 'X' ? xWinDirection : oWinDirection];
+    int[][] cells = new int[winLength][2];
+    for (int i = 0; i < winLength; i++) {
+        cells[i][0] = start / size + i * direction[0];  // row
+        cells[i][1] = start % size + i * direction[1];  // column
     }
-    
-    return -1;  // no winning line
+    return cells;
 }
 
 /**
  * Obtient les coordonnées des cellules de la ligne gagnante
- * 
+ *
  * @param symbol Le symbole gagnant ('X' ou 'O')
  * @param lineIndex L'index de la ligne gagnante (retourné par getWinningLineIndex)
  * @return Un tableau 2D avec les coordonnées [row,col] des cellules gagnantes
  */
 public int[][] getWinningCells(char symbol, int lineIndex) {
     int[][] cells = new int[3][2];  // 3 cells, each with [row,col] coordinates
-    
+
     if (lineIndex < 0) {
         return null;  // No winning line
     }
-    
+
     // Horizontal rows (0-2)
     if (lineIndex >= 0 && lineIndex <= 2) {
         for (int col = 0; col < 3; col++) {
@@ -238,7 +525,7 @@ public int[][] getWinningCells(char symbol, int lineIndex) {
         }
         return cells;
     }
-    
+
     // Vertical columns (3-5)
     if (lineIndex >= 3 && lineIndex <= 5) {
         int colIndex = lineIndex - 3;
@@ -248,7 +535,7 @@ public int[][] getWinningCells(char symbol, int lineIndex) {
         }
         return cells;
     }
-    
+
     // Main diagonal (6)
     if (lineIndex == 6) {
         for (int i = 0; i < 3; i++) {
@@ -257,7 +544,7 @@ public int[][] getWinningCells(char symbol, int lineIndex) {
         }
         return cells;
     }
-    
+
     // Secondary diagonal (7)
     if (lineIndex == 7) {
         for (int i = 0; i < 3; i++) {
@@ -266,9 +553,9 @@ public int[][] getWinningCells(char symbol, int lineIndex) {
         }
         return cells;
     }
-    
+
     return null;  // Should never reach this
 }
 
 
-}
\ No newline at end of file
+}
@@ -1,8 +1,6 @@
 package reseau.model;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -10,6 +8,13 @@ import java.net.SocketTimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import reseau.protocol.BoardFrame;
+import reseau.protocol.Heartbeat;
+import reseau.protocol.MessageCode;
+import reseau.protocol.MoveCommand;
+import reseau.protocol.ProtocolReader;
+import reseau.protocol.SessionResume;
+
 /**
  * Gestionnaire de la communication réseau pour le jeu de Morpion.
  * Gère la connexion au serveur, l'envoi et la réception de messages.
@@ -20,10 +25,15 @@ public class NetworkManager {
     
     private GameModel gameModel;
     private Socket socket;
-    private BufferedReader input;
+    private ProtocolReader input;
     private PrintWriter output;
     private Thread receiverThread;
     private boolean connected = false;
+    private boolean binaryProtocol = false;
+    private boolean messageCodes = false;
+    
+    // Jeton de reprise de la partie en cours, null hors partie ou si le serveur ne le propose pas
+    private volatile String resumeToken;
     
     // Paramètres de connexion
     private String serverAddress = "127.0.0.1";
@@ -64,7 +74,7 @@ public class NetworkManager {
                 socket.connect(new InetSocketAddress(serverAddress, port), CONNECTION_TIMEOUT);
                 
                 // Set up communication streams
-                input = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+                input = new ProtocolReader(socket.getInputStream());
                 output = new PrintWriter(socket.getOutputStream(), true);
                 
                 // Connection established
@@ -85,10 +95,11 @@ public class NetworkManager {
     }
     
     /**
-     * Reconnecte au serveur en utilisant les derniers paramètres utilisés
+     * Reconnecte au serveur en utilisant les derniers paramètres utilisés.
+     * Pendant une partie, la connexion est coupée sans QUIT pour pouvoir la reprendre.
      */
     public void reconnect() {
-        disconnect();
+        closeConnection(resumeToken == null);
         connect(serverAddress, port);
     }
     
@@ -96,13 +107,21 @@ public class NetworkManager {
      * Déconnecte du serveur
      */
     public void disconnect() {
+        resumeToken = null;
+        closeConnection(true);
+    }
+    
+    /**
+     * Ferme la connexion, en annonçant le départ au serveur ou non
+     */
+    private void closeConnection(boolean sendQuit) {
         if (!connected) return;
         
         try {
             connected = false;
             
             // Send quit message if possible
-            if (output != null) {
+            if (sendQuit && output != null) {
                 output.println("QUIT");
             }
             
@@ -135,17 +154,31 @@ public class NetworkManager {
     private void startMessageReceiver() {
         receiverThread = new Thread(() -> {
             try {
-                String line;
-                
                 // Traiter les options initiales du serveur
                 handleInitialServerInteraction();
                 
-                // Boucle principale de réception
-                while (connected && (line = input.readLine()) != null) {
-                    processServerMessage(line);
+                // Boucle principale de réception : lignes texte et trames de plateau
+                ProtocolReader.Kind kind;
+                while (connected && (kind = input.next()) != ProtocolReader.Kind.END) {
+                    if (kind == ProtocolReader.Kind.FRAME) {
+                        processBoardFrame(input.getFrame());
+                    } else if (Heartbeat.isPing(input.getLine())) {
+                        output.println(Heartbeat.pongFor(input.getLine()));
+                    } else if (SessionResume.tokenOf(input.getLine()) != null) {
+                        resumeToken = SessionResume.tokenOf(input.getLine());
+                    } else if (messageCodes) {
+                        processCodedMessage(input.getLine());
+                    } else {
+                        processServerMessage(input.getLine());
+                    }
                 }
             } catch (IOException e) {
-                if (connected) {
+                if (connected && resumeToken != null) {
+                    // Coupure passagère : le serveur garde la partie le temps de se reconnecter
+                    LOGGER.log(Level.WARNING, "Connexion perdue, reprise de la partie", e);
+                    updateConnectionStatus("Connexion perdue, reprise de la partie...", false);
+                    reconnect();
+                } else if (connected) {
                     LOGGER.log(Level.SEVERE, "Erreur lors de la lecture des messages du serveur", e);
                     updateConnectionStatus("Connexion perdue: " + e.getMessage(), false);
                     connected = false;
@@ -169,11 +202,58 @@ public class NetworkManager {
         String choiceMsg = input.readLine();
         updateStatus(choiceMsg);
         
+        // Proposer le protocole binaire ; un ancien serveur répond "Option non reconnue"
+        output.println(BoardFrame.HANDSHAKE);
+        String handshakeReply = input.readLine();
+        binaryProtocol = BoardFrame.HANDSHAKE_ACK.equals(handshakeReply);
+        LOGGER.info(binaryProtocol ? "Protocole binaire activé" : "Protocole texte: " + handshakeReply);
+        
+        // Demander un code en tête de chaque message, même réponse d'un ancien serveur
+        output.println(MessageCode.HANDSHAKE);
+        String codesReply = input.readLine();
+        messageCodes = MessageCode.HANDSHAKE_ACK.equals(codesReply);
+        LOGGER.info(messageCodes ? "Codes de message activés" : "Messages sans code: " + codesReply);
+        
+        // Répondre aux sondages du serveur, qui repère ainsi les connexions mortes
+        output.println(Heartbeat.HANDSHAKE);
+        String pingReply = readReply();
+        LOGGER.info(Heartbeat.HANDSHAKE_ACK.equals(pingReply) ? "Battement de cœur activé" : "Pas de battement de cœur: " + pingReply);
+        
+        // Demander un jeton pour reprendre la partie après une coupure
+        output.println(SessionResume.HANDSHAKE);
+        String resumeReply = readReply();
+        boolean resumable = SessionResume.HANDSHAKE_ACK.equals(resumeReply);
+        LOGGER.info(resumable ? "Reprise de session activée" : "Pas de reprise de session: " + resumeReply);
+        
+        // Reprendre la partie interrompue si le serveur l'a gardée
+        String token = resumeToken;
+        if (resumable && token != null) {
+            output.println(SessionResume.resumeCommand(token));
+            if (SessionResume.RESUMED.equals(readReply())) {
+                updateStatus("🔁 Partie reprise");
+                return;
+            }
+            LOGGER.info("Partie expirée, nouvelle recherche d'adversaire");
+        }
+        resumeToken = null;
+        
         // Choisir d'attendre un adversaire humain
         output.println("WAIT");
         updateStatus("En attente d'un adversaire...");
     }
     
+    /**
+     * Lit la réponse à une demande, en répondant aux sondages reçus entre-temps
+     */
+    private String readReply() throws IOException {
+        String line = input.readLine();
+        while (line != null && Heartbeat.isPing(line)) {
+            output.println(Heartbeat.pongFor(line));
+            line = input.readLine();
+        }
+        return line;
+    }
+    
     /**
      * Traite les messages reçus du serveur
      */
@@ -202,39 +282,131 @@ public class NetworkManager {
         }
         
         // Pour les autres messages, traiter selon leur contenu
+        switch (classify(message)) {
+            case START:
+                // Indication sur qui commence
+                boolean myTurn = message.contains("Vous commencez") || 
+                                  message.contains("VOTRE TOUR");
+                gameModel.updateFromServer(gameModel.getGameState(), myTurn);
+                updateStatus(message);
+                break;
+            case TURN:
+                // C'est notre tour
+                gameModel.updateFromServer(gameModel.getGameState(), true);
+                updateStatus("🎲 C'est votre tour! Cliquez sur une case pour jouer.");
+                break;
+            case WAIT:
+                // Attente du tour de l'adversaire
+                gameModel.updateFromServer(gameModel.getGameState(), false);
+                updateStatus(message);
+                break;
+            case WIN:
+                // Victoire
+                updateStatus(message);
+                gameModel.notifyGameWon();
+                break;
+            case LOSE:
+                // Défaite
+                updateStatus(message);
+                gameModel.notifyGameLost();
+                break;
+            case DRAW:
+                // Match nul
+                updateStatus(message);
+                gameModel.notifyGameDraw();
+                break;
+            case INVALID:
+                // Coup invalide, on redonne le tour au joueur
+                updateStatus("⛔ " + message);
+                gameModel.updateFromServer(gameModel.getGameState(), true);
+                break;
+            default:
+                // Autres messages
+                updateStatus(message);
+                break;
+        }
+    }
+    
+    /**
+     * Sens d'un message texte (hors plateau) du protocole d'origine
+     */
+    enum TextMessage {
+        START, TURN, WAIT, WIN, LOSE, DRAW, INVALID, OTHER
+    }
+    
+    /**
+     * Reconnaît un message texte d'après son contenu, sans effet de bord
+     */
+    static TextMessage classify(String message) {
         if (message.contains("commence") || message.contains("commence la partie")) {
-            // Indication sur qui commence
-            boolean myTurn = message.contains("Vous commencez") || 
-                              message.contains("VOTRE TOUR");
-            gameModel.updateFromServer(gameModel.getGameState(), myTurn);
-            updateStatus(message);
+            return TextMessage.START;
         } else if (message.contains("Votre tour") || message.contains("C'EST VOTRE TOUR")) {
-            // C'est notre tour
-            gameModel.updateFromServer(gameModel.getGameState(), true);
-            updateStatus("🎲 C'est votre tour! Cliquez sur une case pour jouer.");
+            return TextMessage.TURN;
         } else if (message.contains("attendez") || message.contains("attente")) {
-            // Attente du tour de l'adversaire
-            gameModel.updateFromServer(gameModel.getGameState(), false);
-            updateStatus(message);
+            return TextMessage.WAIT;
         } else if (message.contains("gagné") && !message.contains("perdu")) {
-            // Victoire
-            updateStatus(message);
-            gameModel.notifyGameWon();
+            return TextMessage.WIN;
         } else if (message.contains("perdu") || message.contains("a gagné")) {
-            // Défaite
-            updateStatus(message);
-            gameModel.notifyGameLost();
+            return TextMessage.LOSE;
         } else if (message.contains("nul")) {
-            // Match nul
-            updateStatus(message);
-            gameModel.notifyGameDraw();
+            return TextMessage.DRAW;
         } else if (message.contains("Coup invalide") || message.contains("occupée")) {
-            // Coup invalide, on redonne le tour au joueur
-            updateStatus("⛔ " + message);
-            gameModel.updateFromServer(gameModel.getGameState(), true);
-        } else {
-            // Autres messages
-            updateStatus(message);
+            return TextMessage.INVALID;
+        }
+        return TextMessage.OTHER;
+    }
+    
+    /**
+     * Traite un message précédé de son code : le code suffit à savoir quoi faire,
+     * le texte n'est qu'affiché
+     */
+    private void processCodedMessage(String line) {
+        LOGGER.fine("Message reçu: " + line);
+        
+        MessageCode code = MessageCode.of(line);
+        if (code == null) {
+            updateStatus(line);
+            return;
+        }
+        
+        String text = MessageCode.textOf(line);
+        switch (code) {
+            case TURN:
+                gameModel.updateFromServer(gameModel.getGameState(), true);
+                updateStatus("🎲 C'est votre tour! Cliquez sur une case pour jouer.");
+                break;
+            case WAIT:
+                gameModel.updateFromServer(gameModel.getGameState(), false);
+                updateStatus(text);
+                break;
+            case BOARD:
+                try {
+                    gameModel.updateFromServer(MessageCode.parseBoard(text), gameModel.isMyTurn());
+                } catch (IllegalArgumentException e) {
+                    LOGGER.log(Level.SEVERE, "Erreur lors de l'analyse du plateau", e);
+                }
+                break;
+            case WIN:
+                updateStatus(text);
+                gameModel.notifyGameWon();
+                break;
+            case LOSE:
+                updateStatus(text);
+                gameModel.notifyGameLost();
+                break;
+            case DRAW:
+                updateStatus(text);
+                gameModel.notifyGameDraw();
+                break;
+            case INVALID:
+                // Coup refusé, on redonne le tour au joueur
+                updateStatus(text);
+                gameModel.updateFromServer(gameModel.getGameState(), true);
+                break;
+            case INFO:
+            default:
+                updateStatus(text);
+                break;
         }
     }
     
@@ -243,48 +415,65 @@ public class NetworkManager {
      */
     private void processBoard(String boardData) {
         try {
-            GameState newState = new GameState();
-            String[] lines = boardData.split("\n");
+            // Mettre à jour le modèle avec le nouvel état
+            gameModel.updateFromServer(parseBoard(boardData), gameModel.isMyTurn());
             
-            for (String line : lines) {
-                if (line.contains("│") && line.length() > 3) {
-                    // Recherche des lignes qui contiennent des données de cellule
-                    if (line.trim().length() > 0 && Character.isDigit(line.trim().charAt(0))) {
-                        int rowIdx = Character.getNumericValue(line.trim().charAt(0));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Erreur lors de l'analyse du plateau", e);
+        }
+    }
+    
+    /**
+     * Reconstruit l'état du jeu à partir du dessin texte du plateau
+     */
+    static GameState parseBoard(String boardData) {
+        GameState newState = new GameState();
+        String[] lines = boardData.split("\n");
+        
+        for (String line : lines) {
+            if (line.contains("│") && line.length() > 3) {
+                // Recherche des lignes qui contiennent des données de cellule
+                if (line.trim().length() > 0 && Character.isDigit(line.trim().charAt(0))) {
+                    int rowIdx = Character.getNumericValue(line.trim().charAt(0));
+                    
+                    if (rowIdx >= 0 && rowIdx <= 2) {
+                        // Trouver les positions des barres verticales
+                        int[] barPositions = new int[4]; // 4 barres attendues
+                        int barCount = 0;
                         
-                        if (rowIdx >= 0 && rowIdx <= 2) {
-                            // Trouver les positions des barres verticales
-                            int[] barPositions = new int[4]; // 4 barres attendues
-                            int barCount = 0;
-                            
-                            for (int pos = 0; pos < line.length() && barCount < 4; pos++) {
-                                if (line.charAt(pos) == '│') {
-                                    barPositions[barCount++] = pos;
-                                }
+                        for (int pos = 0; pos < line.length() && barCount < 4; pos++) {
+                            if (line.charAt(pos) == '│') {
+                                barPositions[barCount++] = pos;
                             }
-                            
-                            // Extraire le contenu des cellules
-                            if (barCount == 4) {
-                                for (int col = 0; col < 3; col++) {
-                                    String cellContent = line.substring(barPositions[col] + 1, barPositions[col + 1]).trim();
-                                    if (cellContent.equals("X")) {
-                                        newState.setCell(rowIdx, col, 'X');
-                                    } else if (cellContent.equals("O")) {
-                                        newState.setCell(rowIdx, col, 'O');
-                                    }
+                        }
+                        
+                        // Extraire le contenu des cellules
+                        if (barCount == 4) {
+                            for (int col = 0; col < 3; col++) {
+                                String cellContent = line.substring(barPositions[col] + 1, barPositions[col + 1]).trim();
+                                if (cellContent.equals("X")) {
+                                    newState.setCell(rowIdx, col, 'X');
+                                } else if (cellContent.equals("O")) {
+                                    newState.setCell(rowIdx, col, 'O');
                                 }
                             }
                         }
                     }
                 }
             }
-            
-            // Mettre à jour le modèle avec le nouvel état
-            gameModel.updateFromServer(newState, gameModel.isMyTurn());
-            
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Erreur lors de l'analyse du plateau", e);
         }
+        return newState;
+    }
+    
+    /**
+     * Traite une trame binaire de plateau : aucune analyse de texte nécessaire
+     */
+    private void processBoardFrame(byte[] frame) {
+        if (frame[1] != BoardFrame.TYPE_BOARD) {
+            LOGGER.warning("Type de trame inconnu: " + frame[1]);
+            return;
+        }
+        gameModel.updateFromServer(BoardFrame.decodeBoard(frame), gameModel.isMyTurn());
     }
     
     /**
@@ -295,7 +484,7 @@ public class NetworkManager {
     public void sendMove(int row, int col) {
         if (!connected || output == null) return;
         
-        String moveCmd = row + "" + col;
+        String moveCmd = MoveCommand.format(row, col);
         LOGGER.info("Envoi du coup: " + moveCmd);
         output.println(moveCmd);
     }
@@ -339,6 +528,20 @@ public class NetworkManager {
         return connected && socket != null && socket.isConnected() && !socket.isClosed();
     }
     
+    /**
+     * Indique si le serveur envoie le plateau sous forme de trames binaires
+     */
+    public boolean isBinaryProtocol() {
+        return binaryProtocol;
+    }
+    
+    /**
+     * Indique si le serveur fait précéder ses messages d'un code
+     */
+    public boolean usesMessageCodes() {
+        return messageCodes;
+    }
+    
     /**
      * Récupère l'adresse du serveur
      */
@@ -0,0 +1,92 @@
+package reseau.protocol;
+
+import reseau.model.GameState;
+
+/**
+ * Trame binaire de taille fixe représentant le plateau, envoyée à la place
+ * du dessin texte du plateau aux clients qui ont négocié le protocole binaire.
+ *
+ * Négociation : juste après le message de bienvenue, le client envoie la ligne
+ * {@link #HANDSHAKE}; un serveur compatible répond {@link #HANDSHAKE_ACK}, un
+ * ancien serveur répond par son message d'option non reconnue et la partie
+ * continue en mode texte.
+ *
+ * Format (8 octets) :
+ * <pre>
+ *  0     marqueur 0x00 (aucune ligne texte ne commence par cet octet)
+ *  1     type de trame (1 = plateau)
+ *  2-4   plateau compacté, big-endian : 9 bits de X puis 9 bits de O
+ *  5     joueur au trait : 0 aucun, 1 X, 2 O
+ *  6     résultat : 0 en cours, 1 X gagne, 2 O gagne, 3 match nul
+ *  7     dernier coup (ligne * 3 + colonne), 0xFF si aucun
+ * </pre>
+ */
+public final class BoardFrame {
+    public static final String HANDSHAKE = "PROTO BIN";
+    public static final String HANDSHAKE_ACK = "PROTO BIN OK";
+
+    public static final byte MARKER = 0x00;
+    public static final byte TYPE_BOARD = 0x01;
+    public static final int SIZE = 8;
+
+    public static final int RESULT_IN_PROGRESS = 0;
+    public static final int RESULT_X_WINS = 1;
+    public static final int RESULT_O_WINS = 2;
+    public static final int RESULT_DRAW = 3;
+
+    private static final int NO_MOVE = 0xFF;
+
+    private BoardFrame() {
+    }
+
+    /**
+     * Encode le plateau et le joueur au trait (' ' si personne)
+     */
+    public static byte[] encode(GameState state, char turn) {
+        int packed = state.getPackedBoard();
+        int lastMove = state.getLastPlayedRow() < 0
+                ? NO_MOVE
+                : state.getLastPlayedRow() * 3 + state.getLastPlayedCol();
+
+        byte[] frame = new byte[SIZE];
+        frame[0] = MARKER;
+        frame[1] = TYPE_BOARD;
+        frame[2] = (byte) (packed >>> 16);
+        frame[3] = (byte) (packed >>> 8);
+        frame[4] = (byte) packed;
+        frame[5] = (byte) (turn == 'X' ? 1 : (turn == 'O' ? 2 : 0));
+        frame[6] = (byte) resultOf(state);
+        frame[7] = (byte) lastMove;
+        return frame;
+    }
+
+    /**
+     * Résultat de la partie tel que codé dans la trame
+     */
+    public static int resultOf(GameState state) {
+        if (state.checkWin('X')) return RESULT_X_WINS;
+        if (state.checkWin('O')) return RESULT_O_WINS;
+        if (state.isBoardFull()) return RESULT_DRAW;
+        return RESULT_IN_PROGRESS;
+    }
+
+    /**
+     * Reconstruit l'état du plateau contenu dans une trame
+     */
+    public static GameState decodeBoard(byte[] frame) {
+        int packed = ((frame[2] & 0xFF) << 16) | ((frame[3] & 0xFF) << 8) | (frame[4] & 0xFF);
+        int lastMove = frame[7] & 0xFF;
+        return GameState.fromPackedBoard(packed, lastMove == NO_MOVE ? -1 : lastMove);
+    }
+
+    /**
+     * @return 'X', 'O' ou ' ' si personne n'a le trait
+     */
+    public static char decodeTurn(byte[] frame) {
+        return frame[5] == 1 ? 'X' : (frame[5] == 2 ? 'O' : ' ');
+    }
+
+    public static int decodeResult(byte[] frame) {
+        return frame[6];
+    }
+}
@@ -0,0 +1,55 @@
+package reseau.protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import reseau.model.GameState;
+
+/**
+ * Dessin texte du plateau déjà encodé en UTF-8, prêt à être écrit sur la
+ * socket des clients du protocole texte.
+ *
+ * Le dessin ne dépend que du contenu des 9 cases : il n'existe que 3^9
+ * plateaux, donc chaque dessin est construit et encodé une seule fois puis
+ * partagé par toutes les parties et tous les destinataires. Les grands
+ * plateaux, trop nombreux pour être gardés, sont dessinés à chaque envoi.
+ */
+public final class BoardText {
+    private static final int POSITIONS = 19683;  // 3^9
+
+    private static final AtomicReferenceArray<byte[]> CACHE = new AtomicReferenceArray<>(POSITIONS);
+    private static final AtomicInteger cachedBoards = new AtomicInteger();
+
+    private BoardText() {
+    }
+
+    /**
+     * @return le dessin du plateau suivi d'une fin de ligne, en UTF-8.
+     *         Le tableau est partagé : il ne doit pas être modifié.
+     */
+    public static byte[] encode(GameState state) {
+        if (!state.isClassic()) {
+            return (state.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+        int key = state.getTernaryCode();
+        byte[] text = CACHE.get(key);
+        if (text == null) {
+            // Deux threads peuvent construire le même dessin : ils sont identiques
+            text = (state.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+            if (CACHE.compareAndSet(key, null, text)) {
+                cachedBoards.incrementAndGet();
+            } else {
+                text = CACHE.get(key);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * @return nombre de plateaux déjà encodés
+     */
+    public static int getCachedBoards() {
+        return cachedBoards.get();
+    }
+}
@@ -0,0 +1,56 @@
+package reseau.protocol;
+
+/**
+ * Battement de cœur entre le serveur et le client, pour repérer les
+ * connexions mortes (câble débranché, réseau mobile perdu) que TCP ne
+ * signale pas.
+ *
+ * Négociation : le client envoie {@link #HANDSHAKE} avant son choix de mode ;
+ * un serveur compatible répond {@link #HANDSHAKE_ACK}. Une fois la partie ou
+ * l'attente commencée, le serveur envoie "PING n" quand le client est resté
+ * silencieux un moment, et le client répond aussitôt "PONG n". Un client qui
+ * ne répond plus est déconnecté.
+ */
+public final class Heartbeat {
+    public static final String HANDSHAKE = "PROTO PING";
+    public static final String HANDSHAKE_ACK = "PROTO PING OK";
+
+    private static final String PING_PREFIX = "PING ";
+    private static final String PONG_PREFIX = "PONG ";
+
+    private Heartbeat() {
+    }
+
+    /**
+     * @return la ligne de sondage envoyée par le serveur
+     */
+    public static String ping(long sequence) {
+        return PING_PREFIX + sequence;
+    }
+
+    public static boolean isPing(String line) {
+        return line.startsWith(PING_PREFIX);
+    }
+
+    public static boolean isPong(String line) {
+        return line.regionMatches(true, 0, PONG_PREFIX, 0, PONG_PREFIX.length());
+    }
+
+    /**
+     * @return la réponse du client à une ligne de sondage
+     */
+    public static String pongFor(String pingLine) {
+        return PONG_PREFIX + pingLine.substring(PING_PREFIX.length()).trim();
+    }
+
+    /**
+     * @return le numéro de sondage d'une réponse, ou -1 s'il est illisible
+     */
+    public static long sequenceOf(String pongLine) {
+        try {
+            return Long.parseLong(pongLine.substring(PONG_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
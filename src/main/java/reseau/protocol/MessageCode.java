@@ -0,0 +1,112 @@
+package reseau.protocol;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import reseau.model.GameState;
+
+/**
+ * Codes machine placés en tête des messages du serveur, pour que le client
+ * réagisse avec un simple switch au lieu de chercher des mots du texte français.
+ *
+ * Négociation : juste après le message de bienvenue, le client envoie la ligne
+ * {@link #HANDSHAKE}; un serveur compatible répond {@link #HANDSHAKE_ACK} puis
+ * envoie chaque message sous la forme "CODE texte". Sans négociation, les
+ * messages restent en texte libre comme avant.
+ *
+ * Avec les codes, le plateau texte est envoyé sur une seule ligne :
+ * "BOARD " suivi des cases ligne par ligne ('X', 'O' ou '.' si vide) :
+ * 9 pour le 3×3, N×N pour les grands plateaux, dont la taille se déduit
+ * du nombre de cases.
+ */
+public enum MessageCode {
+    /** C'est au destinataire de jouer */
+    TURN,
+    /** Le destinataire doit attendre (adversaire, IA, appariement) */
+    WAIT,
+    /** État du plateau */
+    BOARD,
+    /** Le destinataire a gagné */
+    WIN,
+    /** Le destinataire a perdu */
+    LOSE,
+    /** Match nul */
+    DRAW,
+    /** Coup ou commande refusé */
+    INVALID,
+    /** Le destinataire est revenu à l'accueil : il doit choisir AI ou WAIT */
+    LOBBY,
+    /** Information sans changement d'état */
+    INFO;
+
+    public static final String HANDSHAKE = "PROTO CODES";
+    public static final String HANDSHAKE_ACK = "PROTO CODES OK";
+
+    private static final char EMPTY_CELL = '.';
+
+    private static final Map<String, MessageCode> BY_NAME = new HashMap<>();
+
+    static {
+        for (MessageCode code : values()) {
+            BY_NAME.put(code.name(), code);
+        }
+    }
+
+    /**
+     * @return la ligne à envoyer : code, espace, texte
+     */
+    public String format(String text) {
+        return name() + ' ' + text;
+    }
+
+    /**
+     * @return le code en tête de la ligne, ou null si la ligne n'en a pas
+     */
+    public static MessageCode of(String line) {
+        int space = line.indexOf(' ');
+        return BY_NAME.get(space < 0 ? line : line.substring(0, space));
+    }
+
+    /**
+     * @return le texte qui suit le code
+     */
+    public static String textOf(String line) {
+        int space = line.indexOf(' ');
+        return space < 0 ? "" : line.substring(space + 1);
+    }
+
+    /**
+     * @return la ligne BOARD décrivant le plateau
+     */
+    public static String boardLine(GameState state) {
+        int size = state.getSize();
+        char[] cells = new char[size * size];
+        for (int i = 0; i < cells.length; i++) {
+            char cell = state.getCell(i / size, i % size);
+            cells[i] = cell == ' ' ? EMPTY_CELL : cell;
+        }
+        return BOARD.format(new String(cells));
+    }
+
+    /**
+     * Décode le texte d'une ligne BOARD (les cases qui suivent le code).
+     * La ligne ne dit pas combien de symboles il faut aligner : le plateau
+     * rendu utilise la longueur habituelle pour sa taille.
+     *
+     * @throws IllegalArgumentException si le texte n'est pas un plateau valide
+     */
+    public static GameState parseBoard(String text) {
+        int size = (int) Math.round(Math.sqrt(text.length()));
+        if (size == 0 || size * size != text.length() || size > GameState.MAX_SIZE) {
+            throw new IllegalArgumentException("Plateau invalide: " + text);
+        }
+        GameState state = new GameState(size, GameState.defaultWinLength(size));
+        for (int i = 0; i < text.length(); i++) {
+            char cell = text.charAt(i);
+            if (cell != EMPTY_CELL) {
+                state.setCell(i / size, i % size, cell);
+            }
+        }
+        return state;
+    }
+}
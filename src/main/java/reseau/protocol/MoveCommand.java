@@ -0,0 +1,65 @@
+package reseau.protocol;
+
+/**
+ * Coup envoyé par le client au serveur : la ligne puis la colonne.
+ *
+ * Deux chiffres collés ("01") tant que les deux coordonnées sont inférieures
+ * à 10, comme les clients l'ont toujours fait ; séparées par un espace
+ * ("12 7") sur les grands plateaux. Le serveur accepte les deux formes.
+ */
+public final class MoveCommand {
+    // Assez pour les plus grands plateaux (GameState.MAX_SIZE)
+    private static final int MAX_DIGITS = 2;
+
+    private MoveCommand() {
+    }
+
+    /**
+     * @return la commande à envoyer pour jouer en (row, col)
+     */
+    public static String format(int row, int col) {
+        if (row < 10 && col < 10) {
+            return "" + row + col;
+        }
+        return row + " " + col;
+    }
+
+    /**
+     * @return {ligne, colonne}, ou null si la commande n'est pas un coup
+     */
+    public static int[] parse(String command) {
+        String text = command.trim();
+        if (text.length() == 2 && isDigit(text.charAt(0)) && isDigit(text.charAt(1))) {
+            return new int[] {text.charAt(0) - '0', text.charAt(1) - '0'};
+        }
+
+        int space = text.indexOf(' ');
+        if (space < 0) {
+            return null;
+        }
+        int row = parseCoordinate(text.substring(0, space));
+        int col = parseCoordinate(text.substring(space + 1).trim());
+        if (row < 0 || col < 0) {
+            return null;
+        }
+        return new int[] {row, col};
+    }
+
+    private static int parseCoordinate(String text) {
+        if (text.isEmpty() || text.length() > MAX_DIGITS) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (!isDigit(text.charAt(i))) {
+                return -1;
+            }
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,108 @@
+package reseau.protocol;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Lecture des messages du serveur : lignes texte UTF-8 et, si le protocole
+ * binaire a été négocié, trames de plateau de taille fixe sur le même flux.
+ */
+public class ProtocolReader {
+
+    /**
+     * Type du dernier message lu
+     */
+    public enum Kind {
+        LINE,
+        FRAME,
+        END
+    }
+
+    private final InputStream input;
+    private final byte[] frame = new byte[BoardFrame.SIZE];
+    private byte[] lineBuffer = new byte[256];
+    private String line;
+
+    public ProtocolReader(InputStream input) {
+        this.input = new BufferedInputStream(input);
+    }
+
+    /**
+     * Lit le message suivant
+     *
+     * @return LINE (voir {@link #getLine()}), FRAME (voir {@link #getFrame()}) ou END en fin de flux
+     */
+    public Kind next() throws IOException {
+        int first = input.read();
+        if (first < 0) {
+            return Kind.END;
+        }
+
+        if (first == BoardFrame.MARKER) {
+            frame[0] = (byte) first;
+            readFully(frame, 1, BoardFrame.SIZE - 1);
+            return Kind.FRAME;
+        }
+
+        int length = 0;
+        int b = first;
+        while (b >= 0 && b != '\n') {
+            if (length == lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, lineBuffer.length * 2);
+            }
+            lineBuffer[length++] = (byte) b;
+            b = input.read();
+        }
+        if (length > 0 && lineBuffer[length - 1] == '\r') {
+            length--;
+        }
+        line = new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+        return Kind.LINE;
+    }
+
+    /**
+     * Lit le prochain message en attendant une ligne texte
+     *
+     * @return la ligne, ou null en fin de flux
+     * @throws IOException si une trame arrive à la place
+     */
+    public String readLine() throws IOException {
+        Kind kind = next();
+        if (kind == Kind.END) {
+            return null;
+        }
+        if (kind == Kind.FRAME) {
+            throw new IOException("Trame binaire reçue alors qu'une ligne texte était attendue");
+        }
+        return line;
+    }
+
+    /**
+     * @return la dernière ligne lue
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * @return la dernière trame lue (le tableau est réutilisé par l'appel suivant)
+     */
+    public byte[] getFrame() {
+        return frame;
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = input.read(buffer, offset, length);
+            if (count < 0) {
+                throw new EOFException("Trame incomplète");
+            }
+            offset += count;
+            length -= count;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package reseau.protocol;
+
+/**
+ * Reprise d'une partie après une coupure réseau passagère.
+ *
+ * Négociation : le client envoie {@link #HANDSHAKE} avant son choix de mode ;
+ * un serveur compatible répond {@link #HANDSHAKE_ACK}. Au début de chaque
+ * partie, le serveur envoie alors la ligne "SESSION jeton".
+ *
+ * Si la connexion tombe, le serveur garde la partie pendant un délai de grâce.
+ * Le client se reconnecte, renégocie ses protocoles puis envoie "RESUME jeton"
+ * au lieu de AI ou WAIT : le serveur répond {@link #RESUMED} suivi de l'état
+ * de la partie, ou {@link #FAILED} si le jeton est inconnu ou expiré (le
+ * client fait alors un nouveau choix de mode).
+ */
+public final class SessionResume {
+    public static final String HANDSHAKE = "PROTO RESUME";
+    public static final String HANDSHAKE_ACK = "PROTO RESUME OK";
+    public static final String RESUMED = "RESUME OK";
+    public static final String FAILED = "RESUME FAILED";
+
+    private static final String TOKEN_PREFIX = "SESSION ";
+    private static final String COMMAND_PREFIX = "RESUME ";
+
+    private SessionResume() {
+    }
+
+    /**
+     * @return la ligne annonçant le jeton de reprise
+     */
+    public static String tokenLine(String token) {
+        return TOKEN_PREFIX + token;
+    }
+
+    /**
+     * @return le jeton annoncé par la ligne, ou null si ce n'est pas une annonce de jeton
+     */
+    public static String tokenOf(String line) {
+        return line.startsWith(TOKEN_PREFIX) ? line.substring(TOKEN_PREFIX.length()).trim() : null;
+    }
+
+    /**
+     * @return la commande de reprise à envoyer au serveur
+     */
+    public static String resumeCommand(String token) {
+        return COMMAND_PREFIX + token;
+    }
+
+    /**
+     * @return le jeton d'une commande de reprise, ou null si ce n'en est pas une
+     */
+    public static String tokenOfCommand(String line) {
+        return line.regionMatches(true, 0, COMMAND_PREFIX, 0, COMMAND_PREFIX.length())
+                ? line.substring(COMMAND_PREFIX.length()).trim() : null;
+    }
+}
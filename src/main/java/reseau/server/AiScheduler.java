@@ -0,0 +1,124 @@
+package reseau.server;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared timer for the AI turns of every game: a small pool of threads
+ * plays each AI move after the configured "thinking" delay, instead of one
+ * sleeping thread per move.
+ *
+ * The queue is bounded; when it is full the AI move runs immediately on
+ * the calling thread, without delay.
+ */
+public class AiScheduler {
+    private final ScheduledThreadPoolExecutor executor;
+    private final long delayMillis;
+    private final int maxQueuedTurns;
+
+    // Metrics
+    private final LongAdder scheduledTurns = new LongAdder();
+    private final LongAdder inlineTurns = new LongAdder();
+    private final LongAdder completedTurns = new LongAdder();
+    private final LongAdder lagSamples = new LongAdder();
+    private final LongAdder totalLagNanos = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    /**
+     * @param threads        number of threads playing AI moves
+     * @param delayMillis    delay before each AI move, 0 to play immediately
+     * @param maxQueuedTurns maximum number of pending AI moves
+     */
+    public AiScheduler(int threads, long delayMillis, int maxQueuedTurns) {
+        this.delayMillis = delayMillis;
+        this.maxQueuedTurns = maxQueuedTurns;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = task -> {
+            Thread thread = new Thread(task, "ai-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ScheduledThreadPoolExecutor(threads, threadFactory);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Plays an AI turn after the configured delay.
+     */
+    public void schedule(Runnable aiTurn) {
+        if (executor.getQueue().size() >= maxQueuedTurns) {
+            // Saturated: do not queue more work, play the move right away
+            inlineTurns.increment();
+            aiTurn.run();
+            completedTurns.increment();
+            return;
+        }
+
+        long dueTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        scheduledTurns.increment();
+        executor.schedule(() -> {
+            recordLag(System.nanoTime() - dueTime);
+            try {
+                aiTurn.run();
+            } catch (RuntimeException e) {
+                ServerLog.error("❌ Erreur pendant le coup de l'IA: " + e.getMessage(), e);
+            } finally {
+                completedTurns.increment();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void recordLag(long lagNanos) {
+        long lag = Math.max(0, lagNanos);
+        lagSamples.increment();
+        totalLagNanos.add(lag);
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return number of AI moves waiting for their delay or for a free thread
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getScheduledTurns() {
+        return scheduledTurns.sum();
+    }
+
+    /**
+     * @return number of AI moves played on the caller's thread because the queue was full
+     */
+    public long getInlineTurns() {
+        return inlineTurns.sum();
+    }
+
+    public long getCompletedTurns() {
+        return completedTurns.sum();
+    }
+
+    /**
+     * @return average delay between the planned and the actual start of a scheduled AI move
+     */
+    public long getAverageLagMicros() {
+        long samples = lagSamples.sum();
+        return samples == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalLagNanos.sum() / samples);
+    }
+
+    public long getMaxLagMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLagNanos.get());
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+}
@@ -0,0 +1,260 @@
+package reseau.server;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log entries from a background thread so that game threads never
+ * block on the console or a file.
+ *
+ * Producers claim a slot of a fixed-size ring buffer with one CAS and
+ * return; the writer thread wakes up periodically (or when the buffer is
+ * half full), drains everything published so far and writes it as one
+ * batch. When the buffer is full, entries are dropped and counted rather
+ * than slowing the caller down.
+ *
+ * With a file, the log rotates by size: app.log, app.log.1, ... app.log.N.
+ */
+public class AsyncLogAppender {
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /**
+     * One log line, formatted by the writer thread
+     */
+    static final class Entry {
+        final long timeMillis;
+        final ServerLog.Level level;
+        final String threadName;
+        final String message;
+        final Throwable error;
+
+        Entry(ServerLog.Level level, String message, Throwable error) {
+            this.timeMillis = System.currentTimeMillis();
+            this.level = level;
+            this.threadName = Thread.currentThread().getName();
+            this.message = message;
+            this.error = error;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head = 0;  // only written by the writer thread
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private OutputStream output;
+    private long fileBytes;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+    private final LongAdder droppedEntries = new LongAdder();
+    private final LongAdder writtenEntries = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private long reportedDrops = 0;
+
+    /**
+     * @param capacity     ring buffer size, rounded up to a power of two
+     * @param file         log file, or null to write to the console
+     * @param maxFileBytes size that triggers a rotation of the log file
+     * @param maxFiles     number of rotated files kept besides the current one
+     */
+    public AsyncLogAppender(int capacity, Path file, long maxFileBytes, int maxFiles) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+
+        if (file != null) {
+            openFile();
+        } else {
+            output = System.out;
+        }
+
+        this.writer = new Thread(this::writeLoop, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an entry without blocking.
+     *
+     * @return false if the buffer was full and the entry was dropped
+     */
+    boolean append(Entry entry) {
+        long claimed;
+        long used;
+        do {
+            claimed = tail.get();
+            used = claimed - head;
+            if (used > mask) {
+                droppedEntries.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+
+        slots.set((int) (claimed & mask), entry);
+
+        // The writer polls on its own; only hurry it when the buffer fills up or on errors
+        if (used == (mask + 1) / 2 || entry.level == ServerLog.Level.ERROR) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the entries still queued and stops the writer thread.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDroppedEntries() {
+        return droppedEntries.sum();
+    }
+
+    public long getWrittenEntries() {
+        return writtenEntries.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    private void writeLoop() {
+        StringBuilder batch = new StringBuilder(8192);
+        while (running) {
+            LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+            drainInto(batch);
+        }
+        drainInto(batch);
+
+        if (output != System.out) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                System.err.println("❌ Erreur lors de la fermeture du journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private void drainInto(StringBuilder batch) {
+        batch.setLength(0);
+        int count = 0;
+        long position = head;
+
+        Entry entry;
+        while ((entry = slots.get((int) (position & mask))) != null) {
+            slots.set((int) (position & mask), null);
+            position++;
+            head = position;
+            format(entry, batch);
+            count++;
+        }
+
+        long dropped = droppedEntries.sum();
+        if (dropped != reportedDrops) {
+            batch.append(TIME_FORMAT.format(Instant.now())).append(" WARN  [log-writer] ⚠️ ")
+                    .append(dropped - reportedDrops).append(" messages perdus (tampon du journal plein)\n");
+            reportedDrops = dropped;
+        }
+
+        if (batch.length() > 0) {
+            write(batch);
+            writtenEntries.add(count);
+            batches.increment();
+        }
+    }
+
+    private static void format(Entry entry, StringBuilder out) {
+        out.append(TIME_FORMAT.format(Instant.ofEpochMilli(entry.timeMillis))).append(' ');
+        String level = entry.level.name();
+        out.append(level);
+        for (int i = level.length(); i < 6; i++) {
+            out.append(' ');
+        }
+        out.append('[').append(entry.threadName).append("] ").append(entry.message).append('\n');
+
+        if (entry.error != null) {
+            StringWriter trace = new StringWriter();
+            entry.error.printStackTrace(new PrintWriter(trace));
+            out.append(trace);
+        }
+    }
+
+    private void write(StringBuilder batch) {
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            output.write(bytes);
+            output.flush();
+            if (file != null) {
+                fileBytes += bytes.length;
+                if (fileBytes >= maxFileBytes) {
+                    rotate();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur d'écriture du journal: " + e.getMessage());
+        }
+    }
+
+    private void openFile() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        fileBytes = Files.exists(file) ? Files.size(file) : 0;
+        output = new BufferedOutputStream(new FileOutputStream(file.toFile(), true));
+    }
+
+    /**
+     * app.log.(N-1) becomes app.log.N, ..., app.log becomes app.log.1
+     */
+    private void rotate() throws IOException {
+        output.close();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = rotatedFile(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotatedFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(file, rotatedFile(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file);
+        }
+        openFile();
+    }
+
+    private Path rotatedFile(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,55 @@
+package reseau.server;
+
+import java.io.IOException;
+
+/**
+ * Outgoing side of a client connection, independent of the network engine
+ * (one thread per connection or NIO selector).
+ */
+public interface ClientChannel {
+
+    /**
+     * Queues one line of the text protocol for the client.
+     * Implementations must be safe to call from any thread.
+     */
+    void sendLine(String line);
+
+    /**
+     * Queues already encoded bytes (binary protocol frames) as they are.
+     * Implementations must be safe to call from any thread.
+     */
+    void sendBytes(byte[] data);
+
+    /**
+     * Writes the lines and frames queued since the last flush. The session
+     * calls it once at the end of each game event; if it does not, the
+     * {@link WriteCoalescer} does after its latency bound.
+     * Never blocks on the socket: callers are shared threads (game workers,
+     * the coalescer timer), and a client that stops reading must only
+     * delay its own output.
+     *
+     * @return true if there was buffered output to write
+     */
+    boolean flush();
+
+    /**
+     * Closes the connection once the already queued lines have been sent.
+     */
+    void close() throws IOException;
+
+    /**
+     * Closes the connection at once, dropping queued output. Used on
+     * connections that stopped answering, where a flush could block.
+     */
+    void abort();
+
+    /**
+     * @return true while the connection is open and no close has been requested
+     */
+    boolean isOpen();
+
+    /**
+     * @return the remote host address of the client
+     */
+    String getRemoteAddress();
+}
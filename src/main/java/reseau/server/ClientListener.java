@@ -0,0 +1,28 @@
+package reseau.server;
+
+import java.io.IOException;
+
+/**
+ * Incoming side of a client connection: the network engine calls these
+ * methods as lines of the text protocol arrive.
+ * Calls for a given connection are never concurrent.
+ */
+public interface ClientListener {
+
+    /**
+     * Called once, when the connection is ready to send and receive.
+     */
+    void onOpen();
+
+    /**
+     * Called for each complete line received, without the line terminator.
+     */
+    void onLine(String line);
+
+    /**
+     * Called once when the connection ends.
+     *
+     * @param cause the I/O error that ended the connection, or null on a normal close
+     */
+    void onDisconnect(IOException cause);
+}
@@ -0,0 +1,135 @@
+package reseau.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared worker threads running the events of every game.
+ *
+ * Each game posts its events (moves, AI turns, rematch requests,
+ * disconnections...) to its own {@link Mailbox}. A mailbox is drained by at
+ * most one worker at a time, in the order the events were posted, so the
+ * state of a game is only ever touched by one thread and needs no lock,
+ * while thousands of games share a few threads.
+ */
+public class GameExecutor {
+    // Events run before a busy mailbox gives its worker back to the other games
+    private static final int MAX_EVENTS_PER_RUN = 64;
+
+    private final ThreadPoolExecutor workers;
+
+    // Metrics
+    private final LongAdder postedEvents = new LongAdder();
+    private final LongAdder completedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+
+    /**
+     * Events of one game, run one after the other on the shared workers
+     */
+    public final class Mailbox implements Executor {
+        private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Mailbox() {
+        }
+
+        /**
+         * Posts an event; returns at once, the event runs after the ones
+         * already posted to this mailbox
+         */
+        @Override
+        public void execute(Runnable event) {
+            postedEvents.increment();
+            events.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable event;
+                int run = 0;
+                while (run < MAX_EVENTS_PER_RUN && (event = events.poll()) != null) {
+                    try {
+                        event.run();
+                    } catch (RuntimeException e) {
+                        failedEvents.increment();
+                        ServerLog.error("❌ Erreur pendant un événement de partie: " + e.getMessage(), e);
+                    } finally {
+                        completedEvents.increment();
+                    }
+                    run++;
+                }
+            } finally {
+                // Even when an Error escapes an event, the game must not stay wedged
+                scheduled.set(false);
+                // Events posted while the flag was still set would be left behind
+                if (!events.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param threads number of worker threads shared by all games
+     */
+    public GameExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "game-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @return an empty mailbox for a new game
+     */
+    public Mailbox newMailbox() {
+        return new Mailbox();
+    }
+
+    public int getThreads() {
+        return workers.getMaximumPoolSize();
+    }
+
+    /**
+     * @return events posted and not finished yet, over all games
+     */
+    public long getPendingEvents() {
+        return Math.max(0, postedEvents.sum() - completedEvents.sum());
+    }
+
+    /**
+     * @return mailboxes waiting for a free worker
+     */
+    public int getReadyGames() {
+        return workers.getQueue().size();
+    }
+
+    public long getCompletedEvents() {
+        return completedEvents.sum();
+    }
+
+    public long getFailedEvents() {
+        return failedEvents.sum();
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
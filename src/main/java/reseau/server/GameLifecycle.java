@@ -0,0 +1,172 @@
+package reseau.server;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Phases of the games, the allowed moves between them, and the number of
+ * live games in each phase.
+ *
+ * A game that is over (finished, or waiting for both players to agree on a
+ * rematch) is closed after the rematch timeout, so no game outlives the
+ * interest of its players.
+ */
+public class GameLifecycle {
+
+    public enum Phase {
+        /** Players being seated */
+        CREATED,
+        /** Moves being played */
+        IN_PROGRESS,
+        /** Won, drawn or abandoned; players may ask for a rematch */
+        FINISHED,
+        /** One player asked for a rematch, the other has not answered yet */
+        AWAITING_REMATCH,
+        /** Removed from the server; final */
+        CLOSED;
+
+        /**
+         * @return true if a game in this phase may move to the next one
+         */
+        public boolean canBecome(Phase next) {
+            switch (this) {
+                case CREATED:
+                    return next == IN_PROGRESS || next == CLOSED;
+                case IN_PROGRESS:
+                    return next == FINISHED || next == CLOSED;
+                case FINISHED:
+                    return next == IN_PROGRESS || next == AWAITING_REMATCH || next == CLOSED;
+                case AWAITING_REMATCH:
+                    return next == IN_PROGRESS || next == CLOSED;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * @return true if the game waits for its players to start it again
+         */
+        public boolean isOver() {
+            return this == FINISHED || this == AWAITING_REMATCH;
+        }
+    }
+
+    /**
+     * Phase of one game
+     */
+    public final class Tracker {
+        private final Runnable onTimeout;
+        private final AtomicReference<Phase> phase = new AtomicReference<>(Phase.CREATED);
+        private ScheduledFuture<?> timeout;  // guarded by the tracker
+
+        private Tracker(Runnable onTimeout) {
+            this.onTimeout = onTimeout;
+        }
+
+        public Phase getPhase() {
+            return phase.get();
+        }
+
+        /**
+         * Moves the game to the next phase, if allowed from the current one
+         *
+         * @return false if the move is not allowed (e.g. the game is already closed)
+         */
+        public boolean moveTo(Phase next) {
+            Phase current;
+            do {
+                current = phase.get();
+                if (!current.canBecome(next)) {
+                    return false;
+                }
+            } while (!phase.compareAndSet(current, next));
+            moved(current, next);
+            return true;
+        }
+
+        private void moved(Phase previous, Phase next) {
+            live[previous.ordinal()].decrement();
+            live[next.ordinal()].increment();
+
+            synchronized (this) {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                    timeout = null;
+                }
+                if (next.isOver() && rematchTimeoutMillis > 0) {
+                    timeout = timer.schedule(() -> expire(next), rematchTimeoutMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        private void expire(Phase expected) {
+            // Only if no rematch started meanwhile
+            if (phase.compareAndSet(expected, Phase.CLOSED)) {
+                moved(expected, Phase.CLOSED);
+                timedOut.increment();
+                onTimeout.run();
+            }
+        }
+    }
+
+    private final long rematchTimeoutMillis;
+    private final LongAdder[] live = new LongAdder[Phase.values().length];
+    private final LongAdder timedOut = new LongAdder();
+    private final ScheduledThreadPoolExecutor timer;
+
+    /**
+     * @param rematchTimeoutMillis how long a game that is over waits for a rematch; 0 for ever
+     */
+    public GameLifecycle(long rematchTimeoutMillis) {
+        this.rematchTimeoutMillis = rematchTimeoutMillis;
+        for (int i = 0; i < live.length; i++) {
+            live[i] = new LongAdder();
+        }
+        this.timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "game-lifecycle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts tracking a new game, in phase CREATED
+     *
+     * @param onTimeout called on the timer thread once the game was closed for lack of a rematch
+     */
+    public Tracker track(Runnable onTimeout) {
+        live[Phase.CREATED.ordinal()].increment();
+        return new Tracker(onTimeout);
+    }
+
+    /**
+     * @return games currently in the phase; for CLOSED, games closed since start-up
+     */
+    public long getGames(Phase phase) {
+        return live[phase.ordinal()].sum();
+    }
+
+    /**
+     * @return games not closed yet
+     */
+    public long getLiveGames() {
+        long total = 0;
+        for (Phase phase : Phase.values()) {
+            if (phase != Phase.CLOSED) {
+                total += getGames(phase);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return games closed because no rematch started in time
+     */
+    public long getTimedOutGames() {
+        return timedOut.sum();
+    }
+}
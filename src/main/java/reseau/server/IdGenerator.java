@@ -0,0 +1,79 @@
+package reseau.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unique 64-bit ids for games and player sessions, without locks.
+ *
+ * Layout, from the high bits: 41 bits of milliseconds since {@link #EPOCH_MILLIS}
+ * (about 69 years), 10 bits of node number, 12 bits of sequence. Ids of one
+ * node strictly increase: more than 4096 ids in one millisecond borrow the
+ * next millisecond, and a clock going backwards is ignored. Nodes of a
+ * cluster have distinct numbers, so their ids never collide.
+ */
+public final class IdGenerator {
+    /** 2025-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1_735_689_600_000L;
+    public static final int MAX_NODE = (1 << 10) - 1;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    // Last id handed out, without the node bits: timestamp << SEQUENCE_BITS | sequence
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * @throws IllegalArgumentException if the node number does not fit in 10 bits
+     */
+    public IdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Numéro de nœud hors limites (0-" + MAX_NODE + "): " + node);
+        }
+        this.node = node;
+    }
+
+    /**
+     * @return a new id, greater than every id this generator returned before
+     */
+    public long next() {
+        while (true) {
+            long previous = last.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long candidate = now > (previous >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : previous + 1;
+            if (last.compareAndSet(previous, candidate)) {
+                long timestamp = candidate >>> SEQUENCE_BITS;
+                return timestamp << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | (candidate & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * @return the compact form of an id used in logs and messages (base 36, at most 13 characters)
+     */
+    public static String format(long id) {
+        return Long.toString(id, Character.MAX_RADIX);
+    }
+
+    /**
+     * @throws NumberFormatException if the text is not the compact form of an id
+     */
+    public static long parse(String text) {
+        return Long.parseLong(text, Character.MAX_RADIX);
+    }
+
+    /**
+     * @return the node that generated the id
+     */
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    /**
+     * @return the creation time of the id, in epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
@@ -0,0 +1,220 @@
+package reseau.server;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closes connections that went idle or stopped answering, on a timer.
+ *
+ * Each tracked connection records when its client last typed a command and
+ * when anything at all (including a heartbeat reply) was last heard from it.
+ * Every sweep, a connection idle for longer than its session's current
+ * timeout is reaped; a heartbeat connection silent for a while is sent a
+ * ping, and reaped as unresponsive after {@link #UNRESPONSIVE_AFTER_PINGS}
+ * ping intervals without an answer.
+ */
+public class IdleReaper {
+    public static final int UNRESPONSIVE_AFTER_PINGS = 3;
+
+    private static final long MAX_SWEEP_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Session of a tracked connection
+     */
+    public interface Session {
+
+        /**
+         * @return how long the client may stay idle in its current state, 0 for no limit
+         */
+        long getIdleTimeoutMillis();
+
+        void sendPing(long sequence);
+
+        /**
+         * Ends a session whose client stayed idle too long
+         */
+        void reapIdle();
+
+        /**
+         * Drops a connection that stopped answering pings
+         */
+        void reapUnresponsive();
+    }
+
+    /**
+     * Liveness of one connection
+     */
+    public final class Activity {
+        private final Session session;
+        private volatile long lastInputNanos;
+        private volatile long lastHeardNanos;
+        private volatile boolean heartbeat = false;
+        private volatile long pingSequence = 0;
+        private volatile long pingSentNanos = 0;
+        private volatile long rttMillis = -1;
+
+        private Activity(Session session) {
+            this.session = session;
+            this.lastInputNanos = System.nanoTime();
+            this.lastHeardNanos = lastInputNanos;
+        }
+
+        /**
+         * Records a command typed by the client
+         */
+        public void touch() {
+            long now = System.nanoTime();
+            lastInputNanos = now;
+            lastHeardNanos = now;
+        }
+
+        /**
+         * Records a heartbeat reply
+         */
+        public void pong(long sequence) {
+            long now = System.nanoTime();
+            lastHeardNanos = now;
+            pongs.increment();
+            if (sequence == pingSequence && pingSentNanos != 0) {
+                long sample = TimeUnit.NANOSECONDS.toMillis(now - pingSentNanos);
+                long previous = rttMillis;
+                // Smoothed like TCP's round-trip estimate
+                rttMillis = previous < 0 ? sample : (7 * previous + sample) / 8;
+                pingSentNanos = 0;
+            }
+        }
+
+        /**
+         * Starts pinging the client, once it answers pings. The first ping
+         * goes out at once, so the round-trip time is known early.
+         */
+        public void enableHeartbeat() {
+            if (pingIntervalNanos > 0 && !heartbeat) {
+                long now = System.nanoTime();
+                lastHeardNanos = now;
+                heartbeat = true;
+                ping(now);
+            }
+        }
+
+        private void ping(long now) {
+            pingSentNanos = now;
+            pingsSent.increment();
+            session.sendPing(++pingSequence);
+        }
+
+        /**
+         * @return smoothed heartbeat round-trip time, or -1 before the first reply
+         */
+        public long getRttMillis() {
+            return rttMillis;
+        }
+
+        /**
+         * Stops tracking, when the connection ends
+         */
+        public void cancel() {
+            activities.remove(this);
+        }
+    }
+
+    private final long pingIntervalNanos;
+    private final Set<Activity> activities = ConcurrentHashMap.newKeySet();
+    private final Thread sweeper;
+
+    private final LongAdder reapedIdle = new LongAdder();
+    private final LongAdder reapedUnresponsive = new LongAdder();
+    private final LongAdder pingsSent = new LongAdder();
+    private final LongAdder pongs = new LongAdder();
+
+    /**
+     * @param pingIntervalMillis silence before a heartbeat connection is pinged, 0 to never ping
+     */
+    public IdleReaper(long pingIntervalMillis) {
+        this.pingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pingIntervalMillis);
+        long sweepMillis = pingIntervalMillis > 0
+                ? Math.max(1, Math.min(MAX_SWEEP_INTERVAL_MILLIS, pingIntervalMillis / 2))
+                : MAX_SWEEP_INTERVAL_MILLIS;
+        this.sweeper = new Thread(() -> sweepLoop(sweepMillis), "idle-reaper");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    /**
+     * Starts tracking a new connection
+     */
+    public Activity track(Session session) {
+        Activity activity = new Activity(session);
+        activities.add(activity);
+        return activity;
+    }
+
+    private void sweepLoop(long sweepMillis) {
+        while (true) {
+            try {
+                Thread.sleep(sweepMillis);
+                sweep(System.nanoTime());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                ServerLog.error("❌ Erreur lors du contrôle des connexions inactives: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void sweep(long now) {
+        for (Activity activity : activities) {
+            Session session = activity.session;
+
+            long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(session.getIdleTimeoutMillis());
+            if (idleTimeoutNanos > 0 && now - activity.lastInputNanos > idleTimeoutNanos) {
+                activities.remove(activity);
+                reapedIdle.increment();
+                session.reapIdle();
+                continue;
+            }
+
+            if (!activity.heartbeat) {
+                continue;
+            }
+            long silentNanos = now - activity.lastHeardNanos;
+            if (silentNanos > UNRESPONSIVE_AFTER_PINGS * pingIntervalNanos) {
+                activities.remove(activity);
+                reapedUnresponsive.increment();
+                session.reapUnresponsive();
+            } else if (silentNanos >= pingIntervalNanos
+                    && (activity.pingSentNanos == 0 || now - activity.pingSentNanos >= pingIntervalNanos)) {
+                activity.ping(now);
+            }
+        }
+    }
+
+    public boolean isHeartbeatEnabled() {
+        return pingIntervalNanos > 0;
+    }
+
+    public long getReapedIdle() {
+        return reapedIdle.sum();
+    }
+
+    public long getReapedUnresponsive() {
+        return reapedUnresponsive.sum();
+    }
+
+    public long getPingsSent() {
+        return pingsSent.sum();
+    }
+
+    public long getPongs() {
+        return pongs.sum();
+    }
+
+    /**
+     * @return connections currently tracked
+     */
+    public int getTrackedConnections() {
+        return activities.size();
+    }
+}
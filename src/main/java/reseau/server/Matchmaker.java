@@ -0,0 +1,290 @@
+package reseau.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Pairs waiting players on a dedicated thread.
+ *
+ * Waiting players are sharded into buckets by rating band and measured
+ * round-trip time, each bucket a lock-free queue: joining or leaving the
+ * queue is O(1) and never contends with other players. Every batch interval
+ * the matcher thread pairs players inside each bucket in arrival order, then
+ * pairs each player left alone in its bucket for too long with the lone
+ * player of the nearest bucket: closest rating band first, then closest
+ * round-trip time band.
+ *
+ * @param <P> player type
+ */
+public class Matchmaker<P> {
+    public static final int DEFAULT_RATING = 1000;
+    public static final long UNKNOWN_RTT = -1;
+
+    private static final int RATING_BAND_WIDTH = 200;
+    private static final int RATING_BANDS = 15;
+    private static final long[] RTT_BAND_LIMITS_MILLIS = {50, 150};
+    private static final int RTT_BANDS = RTT_BAND_LIMITS_MILLIS.length + 1;
+    private static final long WIDEN_AFTER_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * A place in the queue, used to leave it
+     */
+    public static final class Ticket<P> {
+        private static final int WAITING = 0;
+        private static final int CLAIMED = 1;  // being paired by the matcher thread
+        private static final int MATCHED = 2;
+        private static final int CANCELLED = 3;
+
+        private final P player;
+        private final int bucket;
+        private final long enqueuedNanos;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Ticket(P player, int bucket) {
+            this.player = player;
+            this.bucket = bucket;
+            this.enqueuedNanos = System.nanoTime();
+        }
+
+        /**
+         * Leaves the queue.
+         *
+         * @return false if the player was already matched
+         */
+        public boolean cancel() {
+            while (true) {
+                if (state.compareAndSet(WAITING, CANCELLED)) {
+                    return true;
+                }
+                if (state.get() != CLAIMED) {
+                    return false;
+                }
+                // The matcher thread is between its two claims: wait for its decision
+                Thread.onSpinWait();
+            }
+        }
+
+        private boolean isWaiting() {
+            return state.get() == WAITING;
+        }
+    }
+
+    private final Queue<Ticket<P>>[] buckets;
+    // Player alone in its bucket after the last batch, owned by the matcher thread
+    private final Ticket<P>[] leftovers;
+    private final BiConsumer<P, P> onMatch;
+    private final Predicate<P> isAvailable;
+    private final long batchIntervalNanos;
+    private final Thread matcher;
+
+    // Metrics
+    private final AtomicInteger queuedPlayers = new AtomicInteger();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder widenedMatches = new LongAdder();
+    private final LatencyHistogram waitTimes = new LatencyHistogram(TimeUnit.MINUTES.toMicros(10));
+
+    /**
+     * @param batchIntervalMillis time between two pairing passes
+     * @param isAvailable         false for players that can no longer be matched (disconnected)
+     * @param onMatch             starts a game, called on the matcher thread with the
+     *                            longest waiting player first
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Matchmaker(long batchIntervalMillis, Predicate<P> isAvailable, BiConsumer<P, P> onMatch) {
+        this.batchIntervalNanos = TimeUnit.MILLISECONDS.toNanos(batchIntervalMillis);
+        this.isAvailable = isAvailable;
+        this.onMatch = onMatch;
+
+        this.buckets = new Queue[RATING_BANDS * RTT_BANDS];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.leftovers = new Ticket[buckets.length];
+
+        this.matcher = new Thread(this::matchLoop, "matchmaker");
+        this.matcher.setDaemon(true);
+        this.matcher.start();
+    }
+
+    /**
+     * Adds a player to the queue of its bucket.
+     *
+     * @param rating    player rating ({@link #DEFAULT_RATING} if unknown)
+     * @param rttMillis measured round-trip time, {@link #UNKNOWN_RTT} if not measured
+     */
+    public Ticket<P> enqueue(P player, int rating, long rttMillis) {
+        Ticket<P> ticket = new Ticket<>(player, bucketOf(rating, rttMillis));
+        buckets[ticket.bucket].add(ticket);
+        queuedPlayers.incrementAndGet();
+        return ticket;
+    }
+
+    private static int bucketOf(int rating, long rttMillis) {
+        int ratingBand = Math.max(0, Math.min(RATING_BANDS - 1, rating / RATING_BAND_WIDTH));
+        int rttBand = 0;
+        if (rttMillis != UNKNOWN_RTT) {
+            while (rttBand < RTT_BAND_LIMITS_MILLIS.length && rttMillis >= RTT_BAND_LIMITS_MILLIS[rttBand]) {
+                rttBand++;
+            }
+        }
+        return ratingBand * RTT_BANDS + rttBand;
+    }
+
+    private void matchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, batchIntervalNanos);
+            try {
+                matchBatch();
+            } catch (RuntimeException e) {
+                ServerLog.error("❌ Erreur pendant l'appariement: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void matchBatch() {
+        long now = System.nanoTime();
+
+        // Pairs inside each bucket, in arrival order
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            Ticket<P> waiting = leftovers[bucket];
+            if (waiting != null && !isLive(waiting)) {
+                queuedPlayers.decrementAndGet();
+                waiting = null;
+            }
+            Ticket<P> next;
+            while ((next = pollLive(buckets[bucket])) != null) {
+                waiting = waiting == null ? next : pair(waiting, next, now, false);
+            }
+            leftovers[bucket] = waiting;
+        }
+
+        // Players alone in their bucket for too long: pair with the lone player of the nearest bucket
+        for (int bucket = 0; bucket < leftovers.length; bucket++) {
+            Ticket<P> lone = leftovers[bucket];
+            if (lone == null || now - lone.enqueuedNanos < WIDEN_AFTER_NANOS) {
+                continue;
+            }
+            int nearest = nearestLoneBucket(bucket, now);
+            if (nearest < 0) {
+                continue;
+            }
+            Ticket<P> other = leftovers[nearest];
+            leftovers[bucket] = null;
+            leftovers[nearest] = null;
+            Ticket<P> survivor = pair(lone, other, now, true);
+            if (survivor != null) {
+                leftovers[survivor.bucket] = survivor;
+            }
+        }
+    }
+
+    /**
+     * @return the other bucket whose lone player waited too long, nearest
+     *         to bucket by rating band then by round-trip time band, or -1
+     */
+    private int nearestLoneBucket(int bucket, long now) {
+        int nearest = -1;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int other = 0; other < leftovers.length; other++) {
+            Ticket<P> lone = leftovers[other];
+            if (other == bucket || lone == null || now - lone.enqueuedNanos < WIDEN_AFTER_NANOS) {
+                continue;
+            }
+            int distance = Math.abs(other / RTT_BANDS - bucket / RTT_BANDS) * RTT_BANDS
+                    + Math.abs(other % RTT_BANDS - bucket % RTT_BANDS);
+            if (distance < nearestDistance) {
+                nearest = other;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private Ticket<P> pollLive(Queue<Ticket<P>> queue) {
+        Ticket<P> ticket;
+        while ((ticket = queue.poll()) != null) {
+            if (isLive(ticket)) {
+                return ticket;
+            }
+            queuedPlayers.decrementAndGet();
+        }
+        return null;
+    }
+
+    private boolean isLive(Ticket<P> ticket) {
+        return ticket.isWaiting() && isAvailable.test(ticket.player);
+    }
+
+    /**
+     * Starts a game between two waiting players.
+     *
+     * @param widened true for players of different buckets
+     * @return null if they were matched or both left the queue, otherwise
+     *         the one still waiting because the other left in the meantime
+     */
+    private Ticket<P> pair(Ticket<P> first, Ticket<P> second, long now, boolean widened) {
+        if (first.enqueuedNanos > second.enqueuedNanos) {
+            Ticket<P> swap = first;
+            first = second;
+            second = swap;
+        }
+        if (!first.state.compareAndSet(Ticket.WAITING, Ticket.CLAIMED)) {
+            queuedPlayers.decrementAndGet();
+            return second;
+        }
+        if (!second.state.compareAndSet(Ticket.WAITING, Ticket.MATCHED)) {
+            queuedPlayers.decrementAndGet();
+            if (first.state.compareAndSet(Ticket.CLAIMED, Ticket.WAITING)) {
+                return first;
+            }
+            queuedPlayers.decrementAndGet();
+            return null;
+        }
+        first.state.set(Ticket.MATCHED);  // cancel() waits while CLAIMED
+
+        queuedPlayers.addAndGet(-2);
+        matches.increment();
+        if (widened) {
+            widenedMatches.increment();
+        }
+        waitTimes.record(TimeUnit.NANOSECONDS.toMicros(now - first.enqueuedNanos));
+        waitTimes.record(TimeUnit.NANOSECONDS.toMicros(now - second.enqueuedNanos));
+        onMatch.accept(first.player, second.player);
+        return null;
+    }
+
+    /**
+     * @return time matched players waited in the queue, in microseconds
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * @return players in the queue, including those that left it and were not skipped yet
+     */
+    public int getQueuedPlayers() {
+        return queuedPlayers.get();
+    }
+
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    /**
+     * @return matches between players of different buckets
+     */
+    public long getWidenedMatches() {
+        return widenedMatches.sum();
+    }
+
+    public void shutdown() {
+        matcher.interrupt();
+    }
+}
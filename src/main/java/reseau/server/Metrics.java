@@ -0,0 +1,126 @@
+package reseau.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Named server metrics, rendered in the Prometheus text exposition format.
+ *
+ * Nothing is copied when a metric is registered: each one reads the live
+ * counter of its component (LongAdder, queue size, ...) when the metrics
+ * are rendered, so recording costs nothing more than the counter itself.
+ */
+public class Metrics {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double MICROS_PER_SECOND = 1_000_000.0;
+
+    private interface Family {
+        void write(StringBuilder out);
+    }
+
+    private final String prefix;
+    private final List<Family> families = new ArrayList<>();
+
+    /**
+     * @param prefix added in front of every metric name, e.g. "morpion_"
+     */
+    public Metrics(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Value that only grows (events since start-up)
+     */
+    public synchronized void counter(String name, String help, LongSupplier value) {
+        String fullName = prefix + name;
+        families.add(out -> {
+            header(out, fullName, help, "counter");
+            sample(out, fullName, "", value.getAsLong());
+        });
+    }
+
+    /**
+     * Value that goes up and down
+     */
+    public synchronized void gauge(String name, String help, DoubleSupplier value) {
+        String fullName = prefix + name;
+        families.add(out -> {
+            header(out, fullName, help, "gauge");
+            sample(out, fullName, "", value.getAsDouble());
+        });
+    }
+
+    /**
+     * Gauge with one series per value of a label
+     *
+     * @param values current value of each label value, read at every rendering
+     */
+    public synchronized void gauge(String name, String help, String label,
+                                   Supplier<? extends Map<String, ? extends Number>> values) {
+        String fullName = prefix + name;
+        families.add(out -> {
+            header(out, fullName, help, "gauge");
+            for (Map.Entry<String, ? extends Number> entry : values.get().entrySet()) {
+                sample(out, fullName, "{" + label + "=\"" + escape(entry.getKey()) + "\"}",
+                        entry.getValue().doubleValue());
+            }
+        });
+    }
+
+    /**
+     * Latency distribution, recorded in microseconds and exposed in seconds
+     * as a summary (quantiles, sum and count)
+     */
+    public synchronized void summary(String name, String help, LatencyHistogram histogram) {
+        String fullName = prefix + name;
+        families.add(out -> {
+            header(out, fullName, help, "summary");
+            for (double quantile : QUANTILES) {
+                sample(out, fullName, "{quantile=\"" + quantile + "\"}",
+                        histogram.getValueAtPercentile(quantile * 100) / MICROS_PER_SECOND);
+            }
+            sample(out, fullName + "_sum", "", histogram.getSum() / MICROS_PER_SECOND);
+            sample(out, fullName + "_count", "", histogram.getCount());
+        });
+    }
+
+    /**
+     * @return every metric, in the order they were registered
+     */
+    public synchronized String render() {
+        StringBuilder out = new StringBuilder(8192);
+        for (Family family : families) {
+            family.write(out);
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);  // Double.toString: exact, and readable by Prometheus
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,409 @@
+package reseau.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Non-blocking network engine: one acceptor thread and a few selector
+ * event loops serve every connection. Each connection frames incoming
+ * bytes into lines and queues outgoing lines until its socket is writable,
+ * so the text protocol is the same as with the blocking engine.
+ *
+ * Queued output is only handed to the event loop on {@link ClientChannel#flush()},
+ * and the loop writes everything queued for a connection with one gathering write.
+ */
+public class NioServer {
+    private static final int ACCEPT_BACKLOG = 1024;
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int INITIAL_LINE_BUFFER_SIZE = 64;
+    private static final int MAX_LINE_LENGTH = 1024;
+    private static final int MAX_GATHERED_BUFFERS = 64;
+
+    private final int port;
+    private final EventLoop[] loops;
+    private final WriteCoalescer coalescer;
+    private final Function<ClientChannel, ClientListener> listenerFactory;
+
+    /**
+     * @param port            port to listen on
+     * @param loopCount       number of selector threads
+     * @param coalescer       output batching shared by the connections
+     * @param listenerFactory creates the session bound to each new connection
+     */
+    public NioServer(int port, int loopCount, WriteCoalescer coalescer,
+                     Function<ClientChannel, ClientListener> listenerFactory) throws IOException {
+        this.port = port;
+        this.coalescer = coalescer;
+        this.listenerFactory = listenerFactory;
+        this.loops = new EventLoop[Math.max(1, loopCount)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+        }
+    }
+
+    /**
+     * Starts the event loops and accepts connections on the calling thread.
+     * Only returns if the listening socket fails.
+     */
+    public void run() throws IOException {
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+            int next = 0;
+
+            while (true) {
+                SocketChannel socketChannel = serverChannel.accept();
+                try {
+                    socketChannel.configureBlocking(false);
+                    socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+                    // Spread connections over the loops in round-robin order
+                    EventLoop loop = loops[next];
+                    next = (next + 1) % loops.length;
+
+                    Connection connection = new Connection(loop, socketChannel, coalescer);
+                    connection.listener = listenerFactory.apply(connection);
+                    loop.register(connection);
+                } catch (IOException e) {
+                    ServerLog.warn("❌ Connexion refusée: " + e.getMessage());
+                    socketChannel.close();
+                }
+            }
+        } finally {
+            for (EventLoop loop : loops) {
+                loop.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Selector thread owning a subset of the connections.
+     * All reads, writes and closes of its connections happen on this thread.
+     */
+    private static final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final ByteBuffer[] gatherBuffers = new ByteBuffer[MAX_GATHERED_BUFFERS];
+        private final Queue<Connection> newConnections = new ConcurrentLinkedQueue<>();
+        private final Queue<Connection> pendingFlushes = new ConcurrentLinkedQueue<>();
+        private volatile boolean running = true;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-loop-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void register(Connection connection) {
+            newConnections.add(connection);
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            running = false;
+            selector.wakeup();
+        }
+
+        boolean inLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    registerNewConnections();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handleKey(key);
+                    }
+
+                    // Lines queued while processing input are written in one pass
+                    flushPendingConnections();
+                } catch (IOException e) {
+                    ServerLog.error("❌ Erreur de la boucle NIO: " + e.getMessage());
+                }
+            }
+
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).closeNow(null);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                ServerLog.warn("❌ Erreur lors de la fermeture du sélecteur: " + e.getMessage());
+            }
+        }
+
+        private void registerNewConnections() {
+            Connection connection;
+            while ((connection = newConnections.poll()) != null) {
+                try {
+                    connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+                    connection.listener.onOpen();
+                    connection.writePending();
+                } catch (IOException e) {
+                    connection.closeNow(e);
+                }
+            }
+        }
+
+        private void handleKey(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isValid() && key.isReadable()) {
+                    connection.read(readBuffer);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.writePending();
+                }
+            } catch (IOException e) {
+                connection.closeNow(e);
+            } catch (RuntimeException e) {
+                // A failing session must not take the whole loop down
+                ServerLog.error("❌ Erreur inattendue sur " + connection.remoteAddress + ": " + e, e);
+                connection.closeNow(null);
+            }
+        }
+
+        private void flushPendingConnections() {
+            Connection connection;
+            while ((connection = pendingFlushes.poll()) != null) {
+                connection.flushScheduled.set(false);
+                try {
+                    connection.writePending();
+                } catch (IOException e) {
+                    connection.closeNow(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * State of one non-blocking connection: line framing on the way in,
+     * a queue of encoded lines on the way out.
+     */
+    private static final class Connection implements ClientChannel {
+        private final EventLoop loop;
+        private final SocketChannel channel;
+        private final String remoteAddress;
+        private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final WriteCoalescer coalescer;
+        private ClientListener listener;
+        private SelectionKey key;
+
+        // Bytes of the line being received, owned by the loop thread
+        private byte[] lineBuffer = new byte[INITIAL_LINE_BUFFER_SIZE];
+        private int lineLength = 0;
+
+        private volatile boolean open = true;
+        private volatile boolean closeRequested = false;
+        private volatile boolean abortRequested = false;
+
+        Connection(EventLoop loop, SocketChannel channel, WriteCoalescer coalescer) throws IOException {
+            this.loop = loop;
+            this.channel = channel;
+            this.coalescer = coalescer;
+            this.remoteAddress = ((InetSocketAddress) channel.getRemoteAddress()).getAddress().getHostAddress();
+        }
+
+        @Override
+        public void sendLine(String line) {
+            if (!open || closeRequested) {
+                return;
+            }
+            queue(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public void sendBytes(byte[] data) {
+            if (!open || closeRequested) {
+                return;
+            }
+            queue(ByteBuffer.wrap(data));
+        }
+
+        private void queue(ByteBuffer buffer) {
+            writeQueue.add(buffer);
+            coalescer.recordMessage(buffer.remaining());
+            if (!coalescer.isEnabled()) {
+                scheduleFlush();
+            } else if (dirty.compareAndSet(false, true)) {
+                coalescer.register(this);
+            }
+        }
+
+        @Override
+        public boolean flush() {
+            if (!dirty.getAndSet(false)) {
+                return false;
+            }
+            scheduleFlush();
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (!open || closeRequested) {
+                return;
+            }
+            closeRequested = true;
+            scheduleFlush();
+        }
+
+        @Override
+        public void abort() {
+            if (!open) {
+                return;
+            }
+            abortRequested = true;
+            closeRequested = true;
+            scheduleFlush();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open && !closeRequested;
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return remoteAddress;
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true)) {
+                loop.pendingFlushes.add(this);
+                if (!loop.inLoop()) {
+                    loop.selector.wakeup();
+                }
+            }
+        }
+
+        /**
+         * Reads what is available and hands every complete line to the listener.
+         */
+        void read(ByteBuffer readBuffer) throws IOException {
+            readBuffer.clear();
+            int count = channel.read(readBuffer);
+            if (count < 0) {
+                closeNow(null);
+                return;
+            }
+            readBuffer.flip();
+
+            while (readBuffer.hasRemaining() && isOpen()) {
+                byte b = readBuffer.get();
+                if (b == '\n') {
+                    int length = lineLength;
+                    if (length > 0 && lineBuffer[length - 1] == '\r') {
+                        length--;
+                    }
+                    lineLength = 0;
+                    listener.onLine(new String(lineBuffer, 0, length, StandardCharsets.UTF_8));
+                } else {
+                    appendToLine(b);
+                }
+            }
+        }
+
+        private void appendToLine(byte b) throws IOException {
+            if (lineLength == lineBuffer.length) {
+                if (lineBuffer.length >= MAX_LINE_LENGTH) {
+                    throw new IOException("Ligne trop longue");
+                }
+                lineBuffer = Arrays.copyOf(lineBuffer, Math.min(lineBuffer.length * 2, MAX_LINE_LENGTH));
+            }
+            lineBuffer[lineLength++] = b;
+        }
+
+        /**
+         * Writes queued lines until the socket buffer is full, then waits for OP_WRITE.
+         * Runs on the loop thread; several queued buffers go out in one gathering write.
+         */
+        void writePending() throws IOException {
+            if (!open || key == null) {
+                return;
+            }
+            if (abortRequested) {
+                // Queued output is dropped, even if the peer stopped reading
+                closeNow(null);
+                return;
+            }
+
+            ByteBuffer[] batch = loop.gatherBuffers;
+            while (true) {
+                int count = 0;
+                for (ByteBuffer buffer : writeQueue) {
+                    if (count == batch.length) {
+                        break;
+                    }
+                    batch[count++] = buffer;
+                }
+                if (count == 0) {
+                    break;
+                }
+
+                channel.write(batch, 0, count);
+                coalescer.recordWrite();
+
+                int written = 0;
+                while (written < count && !batch[written].hasRemaining()) {
+                    writeQueue.poll();
+                    written++;
+                }
+                Arrays.fill(batch, 0, count, null);
+
+                if (written < count) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(SelectionKey.OP_READ);
+
+            if (closeRequested) {
+                closeNow(null);
+            }
+        }
+
+        void closeNow(IOException cause) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            writeQueue.clear();
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                ServerLog.warn("❌ Erreur lors de la fermeture de " + remoteAddress + ": " + e.getMessage());
+            }
+            listener.onDisconnect(cause);
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package reseau.server;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import reseau.ai.Difficulty;
+import reseau.model.GameState;
+
+/**
+ * Server start-up options, read from the command line.
+ *
+ * Usage: [port] [--engine=blocking|virtual|nio] [--io-threads=N] [--game-threads=N]
+ *        [--board-size=N] [--win-length=K]
+ *        [--ai-delay=MS] [--ai-threads=N] [--ai-queue=N] [--ai-level=easy|medium|hard|perfect]
+ *        [--ai-engine=alphabeta|mcts|greedy] [--ai-time=MS] [--ai-search-threads=N] [--tablebase=PATH]
+ *        [--write-latency=MS] [--match-interval=MS] [--resume-grace=MS]
+ *        [--ping-interval=MS] [--idle-lobby=MS] [--idle-game=MS] [--rematch-timeout=MS]
+ *        [--cluster-node=ID --cluster-port=PORT --cluster-peers=id@host:port,...] [--metrics-port=PORT]
+ *        [--benchmark] [--log-level=debug|info|warn|error|off] [--log-file=PATH]
+ */
+public class ServerConfig {
+    public static final int DEFAULT_PORT = 55555;
+
+    /**
+     * Network engine serving the client connections
+     */
+    public enum Engine {
+        /** One pooled thread per connection, blocking reads */
+        BLOCKING,
+        /** One virtual thread per connection, blocking reads (Java 21+) */
+        VIRTUAL,
+        /** A few selector threads for all connections */
+        NIO
+    }
+
+    /**
+     * AI playing the boards larger than 3×3 (the classic board always uses the perfect-play table)
+     */
+    public enum AiEngine {
+        /** Alpha-beta search within a time budget per move */
+        ALPHABETA,
+        /** Monte Carlo tree search within a time budget per move */
+        MCTS,
+        /** One move ahead: win, block, else extend the longest line */
+        GREEDY
+    }
+
+    private int port = DEFAULT_PORT;
+    private Engine engine = Engine.BLOCKING;
+    private int ioThreads = Runtime.getRuntime().availableProcessors();
+    private int gameThreads = Runtime.getRuntime().availableProcessors();
+    private int boardSize = GameState.CLASSIC_SIZE;
+    private int winLength = 0;  // 0: usual length for the board size
+    private long aiDelayMillis = 1000;
+    private int aiThreads = 2;
+    private int aiQueueSize = 10000;
+    private Difficulty aiDifficulty = Difficulty.PERFECT;
+    private AiEngine aiEngine = AiEngine.ALPHABETA;
+    private long aiTimeMillis = 100;
+    private int aiSearchThreads = Runtime.getRuntime().availableProcessors();
+    private Path tablebase = null;
+    private long writeLatencyMillis = 5;
+    private int matchIntervalMillis = 20;
+    private long resumeGraceMillis = 30_000;
+    private long pingIntervalMillis = 15_000;
+    private long idleLobbyMillis = 300_000;
+    private long idleGameMillis = 120_000;
+    private long rematchTimeoutMillis = 60_000;
+    private String clusterNode = null;
+    private int clusterPort = DEFAULT_PORT + 1000;
+    private String clusterPeers = "";
+    private int metricsPort = 0;
+    private boolean benchmark = false;
+    private ServerLog.Level logLevel = ServerLog.Level.INFO;
+    private Path logFile = null;
+
+    public static ServerConfig parse(String[] args) {
+        ServerConfig config = new ServerConfig();
+
+        for (String arg : args) {
+            if (arg.startsWith("--engine=")) {
+                String value = arg.substring("--engine=".length());
+                try {
+                    config.engine = Engine.valueOf(value.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Moteur réseau inconnu: " + value + ", utilisation du moteur " +
+                            config.engine.name().toLowerCase());
+                }
+            } else if (arg.startsWith("--io-threads=")) {
+                config.ioThreads = parsePositive(arg.substring("--io-threads=".length()), config.ioThreads);
+            } else if (arg.startsWith("--game-threads=")) {
+                config.gameThreads = parsePositive(arg.substring("--game-threads=".length()), config.gameThreads);
+            } else if (arg.startsWith("--board-size=")) {
+                config.boardSize = parsePositive(arg.substring("--board-size=".length()), config.boardSize);
+            } else if (arg.startsWith("--win-length=")) {
+                config.winLength = parsePositive(arg.substring("--win-length=".length()), config.winLength);
+            } else if (arg.startsWith("--ai-delay=")) {
+                config.aiDelayMillis = parseNonNegative(arg.substring("--ai-delay=".length()), config.aiDelayMillis);
+            } else if (arg.startsWith("--ai-threads=")) {
+                config.aiThreads = parsePositive(arg.substring("--ai-threads=".length()), config.aiThreads);
+            } else if (arg.startsWith("--ai-queue=")) {
+                config.aiQueueSize = parsePositive(arg.substring("--ai-queue=".length()), config.aiQueueSize);
+            } else if (arg.startsWith("--ai-level=")) {
+                String value = arg.substring("--ai-level=".length());
+                config.aiDifficulty = Difficulty.fromName(value, config.aiDifficulty);
+                if (!config.aiDifficulty.name().equalsIgnoreCase(value)) {
+                    System.err.println("Niveau d'IA inconnu: " + value + ", utilisation du niveau " +
+                            config.aiDifficulty.name().toLowerCase());
+                }
+            } else if (arg.startsWith("--ai-engine=")) {
+                String value = arg.substring("--ai-engine=".length());
+                try {
+                    config.aiEngine = AiEngine.valueOf(value.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("IA inconnue: " + value + ", utilisation de l'IA " +
+                            config.aiEngine.name().toLowerCase());
+                }
+            } else if (arg.startsWith("--ai-time=")) {
+                config.aiTimeMillis = parsePositive(arg.substring("--ai-time=".length()), (int) config.aiTimeMillis);
+            } else if (arg.startsWith("--ai-search-threads=")) {
+                config.aiSearchThreads = parsePositive(arg.substring("--ai-search-threads=".length()), config.aiSearchThreads);
+            } else if (arg.startsWith("--tablebase=")) {
+                config.tablebase = Paths.get(arg.substring("--tablebase=".length()));
+            } else if (arg.startsWith("--write-latency=")) {
+                config.writeLatencyMillis = parseNonNegative(arg.substring("--write-latency=".length()), config.writeLatencyMillis);
+            } else if (arg.startsWith("--match-interval=")) {
+                config.matchIntervalMillis = parsePositive(arg.substring("--match-interval=".length()), config.matchIntervalMillis);
+            } else if (arg.startsWith("--resume-grace=")) {
+                config.resumeGraceMillis = parseNonNegative(arg.substring("--resume-grace=".length()), config.resumeGraceMillis);
+            } else if (arg.startsWith("--ping-interval=")) {
+                config.pingIntervalMillis = parseNonNegative(arg.substring("--ping-interval=".length()), config.pingIntervalMillis);
+            } else if (arg.startsWith("--idle-lobby=")) {
+                config.idleLobbyMillis = parseNonNegative(arg.substring("--idle-lobby=".length()), config.idleLobbyMillis);
+            } else if (arg.startsWith("--idle-game=")) {
+                config.idleGameMillis = parseNonNegative(arg.substring("--idle-game=".length()), config.idleGameMillis);
+            } else if (arg.startsWith("--rematch-timeout=")) {
+                config.rematchTimeoutMillis = parseNonNegative(arg.substring("--rematch-timeout=".length()), config.rematchTimeoutMillis);
+            } else if (arg.startsWith("--cluster-node=")) {
+                config.clusterNode = arg.substring("--cluster-node=".length());
+            } else if (arg.startsWith("--cluster-port=")) {
+                config.clusterPort = parsePositive(arg.substring("--cluster-port=".length()), config.clusterPort);
+            } else if (arg.startsWith("--cluster-peers=")) {
+                config.clusterPeers = arg.substring("--cluster-peers=".length());
+            } else if (arg.startsWith("--metrics-port=")) {
+                config.metricsPort = parsePositive(arg.substring("--metrics-port=".length()), config.metricsPort);
+            } else if (arg.startsWith("--log-level=")) {
+                String value = arg.substring("--log-level=".length());
+                config.logLevel = ServerLog.Level.fromName(value, config.logLevel);
+                if (!config.logLevel.name().equalsIgnoreCase(value)) {
+                    System.err.println("Niveau de journal inconnu: " + value + ", utilisation du niveau " +
+                            config.logLevel.name().toLowerCase());
+                }
+            } else if (arg.startsWith("--log-file=")) {
+                config.logFile = Paths.get(arg.substring("--log-file=".length()));
+            } else if (arg.equals("--benchmark")) {
+                config.benchmark = true;
+            } else if (arg.startsWith("--")) {
+                System.err.println("Option inconnue ignorée: " + arg);
+            } else {
+                try {
+                    config.port = Integer.parseInt(arg);
+                } catch (NumberFormatException e) {
+                    System.err.println("Format de port invalide, utilisation du port par défaut: " + config.port);
+                }
+            }
+        }
+
+        if (config.boardSize > GameState.MAX_SIZE) {
+            System.err.println("Plateau trop grand: " + config.boardSize + ", utilisation de la taille maximale " + GameState.MAX_SIZE);
+            config.boardSize = GameState.MAX_SIZE;
+        }
+        if (config.winLength > config.boardSize) {
+            System.err.println("Alignement plus long que le plateau: " + config.winLength + ", utilisation de la longueur habituelle");
+            config.winLength = 0;
+        }
+        if (config.winLength == 0) {
+            config.winLength = GameState.defaultWinLength(config.boardSize);
+        }
+
+        // Benchmark runs measure the server, not the AI's simulated thinking time
+        if (config.benchmark) {
+            config.aiDelayMillis = 0;
+        }
+
+        return config;
+    }
+
+    private static int parsePositive(String value, int defaultValue) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default value
+        }
+        System.err.println("Valeur invalide: " + value + ", utilisation de la valeur par défaut: " + defaultValue);
+        return defaultValue;
+    }
+
+    private static long parseNonNegative(String value, long defaultValue) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default value
+        }
+        System.err.println("Valeur invalide: " + value + ", utilisation de la valeur par défaut: " + defaultValue);
+        return defaultValue;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public int getGameThreads() {
+        return gameThreads;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * @return symbols to line up to win
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * @return delay before each AI move, in milliseconds (0 in benchmark mode)
+     */
+    public long getAiDelayMillis() {
+        return aiDelayMillis;
+    }
+
+    public int getAiThreads() {
+        return aiThreads;
+    }
+
+    public int getAiQueueSize() {
+        return aiQueueSize;
+    }
+
+    public Difficulty getAiDifficulty() {
+        return aiDifficulty;
+    }
+
+    public AiEngine getAiEngine() {
+        return aiEngine;
+    }
+
+    /**
+     * @return thinking time of the alpha-beta or MCTS search for each AI move, in milliseconds
+     */
+    public long getAiTimeMillis() {
+        return aiTimeMillis;
+    }
+
+    /**
+     * @return threads of the alpha-beta or MCTS searches, shared by every game
+     */
+    public int getAiSearchThreads() {
+        return aiSearchThreads;
+    }
+
+    /**
+     * @return solved-position file written by the "tablebase" command, or null
+     */
+    public Path getTablebase() {
+        return tablebase;
+    }
+
+    /**
+     * @return longest time output may stay buffered before being written, 0 to write every message immediately
+     */
+    public long getWriteLatencyMillis() {
+        return writeLatencyMillis;
+    }
+
+    /**
+     * @return time between two pairing passes of the matchmaker, in milliseconds
+     */
+    public int getMatchIntervalMillis() {
+        return matchIntervalMillis;
+    }
+
+    /**
+     * @return how long a player whose connection dropped keeps its seat (0: no resumption)
+     */
+    public long getResumeGraceMillis() {
+        return resumeGraceMillis;
+    }
+
+    /**
+     * @return silence after which a client that answers pings is pinged (0: no heartbeat)
+     */
+    public long getPingIntervalMillis() {
+        return pingIntervalMillis;
+    }
+
+    /**
+     * @return longest idle time before choosing a mode or while waiting for an opponent (0: no limit)
+     */
+    public long getIdleLobbyMillis() {
+        return idleLobbyMillis;
+    }
+
+    /**
+     * @return longest idle time during a game (0: no limit)
+     */
+    public long getIdleGameMillis() {
+        return idleGameMillis;
+    }
+
+    /**
+     * @return how long a finished game waits for a rematch before it is closed (0: for ever)
+     */
+    public long getRematchTimeoutMillis() {
+        return rematchTimeoutMillis;
+    }
+
+    /**
+     * @return local port of the HTTP metrics endpoint, 0 if it is disabled
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    /**
+     * @return id of this node in the cluster, or null to run alone
+     */
+    public String getClusterNode() {
+        return clusterNode;
+    }
+
+    public int getClusterPort() {
+        return clusterPort;
+    }
+
+    /**
+     * @return the other nodes, as "id@host:port" separated by commas
+     */
+    public String getClusterPeers() {
+        return clusterPeers;
+    }
+
+    public boolean isBenchmark() {
+        return benchmark;
+    }
+
+    public ServerLog.Level getLogLevel() {
+        return logLevel;
+    }
+
+    /**
+     * @return the log file, or null to log to the console
+     */
+    public Path getLogFile() {
+        return logFile;
+    }
+}
@@ -0,0 +1,153 @@
+package reseau.server;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Server log: a level check on the calling thread, everything else
+ * (formatting, console or file output) on the {@link AsyncLogAppender}
+ * writer thread.
+ *
+ * Messages that need concatenation are passed as a Supplier so that
+ * disabled levels cost a single comparison. A Supplier that captures
+ * variables is still allocated at the call site, so the per-move and
+ * per-message paths check {@link #isEnabled} first and build the string
+ * only when it is logged.
+ */
+public final class ServerLog {
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final long MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_ROTATED_FILES = 5;
+
+    /**
+     * Log levels, from the most to the least verbose
+     */
+    public enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR,
+        OFF;
+
+        /**
+         * @return the level with this name (case-insensitive), or defaultLevel if unknown
+         */
+        public static Level fromName(String name, Level defaultLevel) {
+            for (Level level : values()) {
+                if (level.name().equalsIgnoreCase(name)) {
+                    return level;
+                }
+            }
+            return defaultLevel;
+        }
+    }
+
+    private static volatile Level level = Level.INFO;
+    private static volatile AsyncLogAppender appender;
+
+    static {
+        // Daemon writer: write what is still queued when the JVM exits, whichever appender is current
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            AsyncLogAppender current = appender;
+            if (current != null) {
+                current.close();
+            }
+        }, "log-shutdown"));
+    }
+
+    private ServerLog() {
+    }
+
+    /**
+     * Sets the level and the destination of the log. Called once at start-up,
+     * before the server accepts connections.
+     *
+     * @param file log file, or null to log to the console
+     */
+    public static synchronized void configure(Level newLevel, Path file) throws IOException {
+        level = newLevel;
+        AsyncLogAppender previous = appender;
+        appender = createAppender(file);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public static boolean isEnabled(Level candidate) {
+        return candidate != Level.OFF && candidate.compareTo(level) >= 0;
+    }
+
+    public static void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            append(Level.DEBUG, message, null);
+        }
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            append(Level.DEBUG, message.get(), null);
+        }
+    }
+
+    public static void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            append(Level.INFO, message, null);
+        }
+    }
+
+    public static void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            append(Level.INFO, message.get(), null);
+        }
+    }
+
+    public static void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            append(Level.WARN, message, null);
+        }
+    }
+
+    public static void error(String message) {
+        error(message, null);
+    }
+
+    public static void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            append(Level.ERROR, message, error);
+        }
+    }
+
+    /**
+     * @return the appender, for its counters
+     */
+    public static AsyncLogAppender getAppender() {
+        return appender();
+    }
+
+    private static void append(Level entryLevel, String message, Throwable error) {
+        appender().append(new AsyncLogAppender.Entry(entryLevel, message, error));
+    }
+
+    private static AsyncLogAppender appender() {
+        AsyncLogAppender current = appender;
+        if (current == null) {
+            synchronized (ServerLog.class) {
+                current = appender;
+                if (current == null) {
+                    try {
+                        current = createAppender(null);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);  // the console needs no file
+                    }
+                    appender = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static AsyncLogAppender createAppender(Path file) throws IOException {
+        return new AsyncLogAppender(BUFFER_CAPACITY, file, MAX_FILE_BYTES, MAX_ROTATED_FILES);
+    }
+}
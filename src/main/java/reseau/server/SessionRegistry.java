@@ -0,0 +1,159 @@
+package reseau.server;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resume tokens of players in a game, and the grace period during which a
+ * player whose connection dropped keeps its seat.
+ *
+ * A token is issued once per player and stays valid until it is released.
+ * While a player is parked, a timer runs; resuming before it fires cancels
+ * it, otherwise the expiry callback ends the player's session.
+ *
+ * @param <P> player type
+ */
+public class SessionRegistry<P> {
+    private static final int TOKEN_BYTES = 16;
+
+    private final long graceMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Session<P>> sessions = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    private static final class Session<P> {
+        final P player;
+        ScheduledFuture<?> expiry;  // guarded by the session
+
+        Session(P player) {
+            this.player = player;
+        }
+    }
+
+    /**
+     * @param graceMillis how long a parked player keeps its seat; 0 disables resumption
+     */
+    public SessionRegistry(long graceMillis) {
+        this.graceMillis = graceMillis;
+        this.timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "session-grace");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public boolean isEnabled() {
+        return graceMillis > 0;
+    }
+
+    public long getGraceMillis() {
+        return graceMillis;
+    }
+
+    /**
+     * @return a new unguessable token identifying the player
+     */
+    public String issue(P player) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder(2 * TOKEN_BYTES);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        String value = token.toString();
+        sessions.put(value, new Session<>(player));
+        issued.increment();
+        return value;
+    }
+
+    /**
+     * Starts the grace period of a player whose connection dropped
+     *
+     * @param onExpire called on the timer thread if the player does not come back in time
+     */
+    public void park(String token, Runnable onExpire) {
+        Session<P> session = sessions.get(token);
+        if (session == null) {
+            onExpire.run();
+            return;
+        }
+        synchronized (session) {
+            session.expiry = timer.schedule(() -> {
+                if (sessions.remove(token, session)) {
+                    expired.increment();
+                    onExpire.run();
+                }
+            }, graceMillis, TimeUnit.MILLISECONDS);
+        }
+        parked.increment();
+    }
+
+    /**
+     * Takes the seat of a token back, stopping its grace period
+     *
+     * @return the player, or null if the token is unknown or its grace period is over
+     */
+    public P resume(String token) {
+        Session<P> session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        synchronized (session) {
+            if (session.expiry != null) {
+                if (!session.expiry.cancel(false)) {
+                    return null;  // Expiry already running
+                }
+                session.expiry = null;
+            }
+        }
+        resumed.increment();
+        return session.player;
+    }
+
+    /**
+     * Invalidates a token, when its player leaves for good
+     */
+    public void release(String token) {
+        Session<P> session = sessions.remove(token);
+        if (session != null) {
+            synchronized (session) {
+                if (session.expiry != null) {
+                    session.expiry.cancel(false);
+                }
+            }
+        }
+    }
+
+    public long getIssued() {
+        return issued.sum();
+    }
+
+    public long getParked() {
+        return parked.sum();
+    }
+
+    public long getResumed() {
+        return resumed.sum();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    /**
+     * @return tokens currently valid
+     */
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,250 @@
+package reseau.server;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking connection served by one thread: {@link #run()} reads lines
+ * until the socket closes and forwards them to the listener.
+ *
+ * Outgoing lines collect in memory until {@link #flush()}, which hands them
+ * to a writer task of the connection. Only that task writes to the socket,
+ * so a client that stops reading blocks its own writer and never the
+ * thread that flushed. Its output piles up in memory meanwhile: past
+ * {@link #MAX_UNSENT_BYTES} the connection is dropped.
+ */
+public class SocketClientChannel implements ClientChannel, Runnable {
+    /** Flushed output a client may leave unread before it is disconnected */
+    public static final int MAX_UNSENT_BYTES = 1 << 20;
+
+    private final Socket socket;
+    private final WriteCoalescer coalescer;
+    private final Executor writers;
+    private ClientListener listener;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile OutputStream output;
+    private volatile boolean open = true;
+
+    // Guarded by writeLock
+    private final ByteArrayOutputStream buffered = new ByteArrayOutputStream();  // since the last flush
+    private final ByteArrayOutputStream ready = new ByteArrayOutputStream();     // flushed, not written yet
+    private boolean dirty = false;
+    private boolean writing = false;
+    private boolean closeRequested = false;
+
+    /**
+     * @param writers runs the writer task of the connection while it has output to write
+     */
+    public SocketClientChannel(Socket socket, WriteCoalescer coalescer, Executor writers) {
+        this.socket = socket;
+        this.coalescer = coalescer;
+        this.writers = writers;
+    }
+
+    public void setListener(ClientListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Setup I/O
+            BufferedReader input = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            output = socket.getOutputStream();
+
+            listener.onOpen();
+
+            String inputLine;
+            while (open && (inputLine = input.readLine()) != null) {
+                listener.onLine(inputLine);
+            }
+            listener.onDisconnect(null);
+        } catch (IOException e) {
+            listener.onDisconnect(e);
+        }
+    }
+
+    @Override
+    public void sendLine(String line) {
+        sendBytes((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void sendBytes(byte[] data) {
+        if (output == null || !open) {
+            return;
+        }
+
+        // Lines and frames from different threads must not interleave
+        writeLock.lock();
+        try {
+            buffered.write(data, 0, data.length);
+            coalescer.recordMessage(data.length);
+            if (!coalescer.isEnabled()) {
+                handOff();
+            } else if (!dirty) {
+                dirty = true;
+                coalescer.register(this);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean flush() {
+        writeLock.lock();
+        try {
+            if (!dirty) {
+                return false;
+            }
+            dirty = false;
+            handOff();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Moves the buffered output to the writer task, starting it if it is
+     * not running. Called with writeLock held.
+     */
+    private void handOff() {
+        moveBufferedToReady();
+        if (ready.size() > MAX_UNSENT_BYTES) {
+            ServerLog.warn("⚠️ Client " + getRemoteAddress() + " ne lit plus ses messages, connexion coupée");
+            abort();
+            return;
+        }
+        startWriter();
+    }
+
+    /**
+     * Called with writeLock held
+     */
+    private void moveBufferedToReady() {
+        try {
+            buffered.writeTo(ready);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // In-memory streams do not fail
+        }
+        buffered.reset();
+    }
+
+    /**
+     * Called with writeLock held
+     */
+    private void startWriter() {
+        if (writing || (ready.size() == 0 && !closeRequested)) {
+            return;
+        }
+        writing = true;
+        try {
+            writers.execute(this::writeReady);
+        } catch (RejectedExecutionException e) {
+            // Server shutting down
+            writing = false;
+        }
+    }
+
+    /**
+     * Writer task: writes the flushed output until none is left, then
+     * closes the socket if a close was requested meanwhile
+     */
+    private void writeReady() {
+        while (true) {
+            byte[] data;
+            writeLock.lock();
+            try {
+                if (ready.size() == 0) {
+                    writing = false;
+                    if (closeRequested) {
+                        closeSocket();
+                    }
+                    return;
+                }
+                data = ready.toByteArray();
+                ready.reset();
+            } finally {
+                writeLock.unlock();
+            }
+
+            try {
+                output.write(data);
+                output.flush();
+                coalescer.recordWrite();
+            } catch (IOException e) {
+                // Broken connection: the read loop sees the closed socket and reports it
+                abort();
+                writeLock.lock();
+                try {
+                    writing = false;
+                } finally {
+                    writeLock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // Lines queued before the close (e.g. "Au revoir") still go out, then the writer closes the socket
+        writeLock.lock();
+        try {
+            open = false;
+            closeRequested = true;
+            dirty = false;
+            moveBufferedToReady();
+            startWriter();
+            if (!writing) {
+                closeSocket();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void abort() {
+        open = false;
+        closeSocket();
+        writeLock.lock();
+        try {
+            buffered.reset();
+            ready.reset();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            // Also unblocks a writer stuck on a full send buffer
+            socket.close();
+        } catch (IOException e) {
+            // Already broken
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open && !socket.isClosed();
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return socket.getInetAddress().getHostAddress();
+    }
+}
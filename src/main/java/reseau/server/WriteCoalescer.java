@@ -0,0 +1,130 @@
+package reseau.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Output batching shared by every connection.
+ *
+ * Channels buffer the lines and frames of a game event and write them in one
+ * go when the session calls {@link ClientChannel#flush()} at the end of the
+ * event. As a safety net, a timer flushes any channel that still holds
+ * buffered output after the latency bound. Flushing only hands the output
+ * to the connection's writer, so a slow client cannot hold up the timer.
+ *
+ * With a latency bound of 0, channels write every message immediately.
+ */
+public class WriteCoalescer {
+    private final long maxLatencyMillis;
+    private final ScheduledExecutorService timer;
+    private final Queue<ClientChannel> dirtyChannels = new ConcurrentLinkedQueue<>();
+
+    // Metrics
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder timerFlushes = new LongAdder();
+
+    /**
+     * @param maxLatencyMillis longest time output may stay buffered, 0 to disable batching
+     */
+    public WriteCoalescer(long maxLatencyMillis) {
+        this.maxLatencyMillis = maxLatencyMillis;
+        if (maxLatencyMillis > 0) {
+            this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "write-coalescer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.timer.scheduleAtFixedRate(this::flushLateChannels, maxLatencyMillis, maxLatencyMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.timer = null;
+        }
+    }
+
+    /**
+     * @return false if channels must write every message immediately
+     */
+    public boolean isEnabled() {
+        return timer != null;
+    }
+
+    /**
+     * Called by a channel when it buffers output after having been flushed,
+     * so that the timer flushes it if the session does not.
+     */
+    void register(ClientChannel channel) {
+        dirtyChannels.add(channel);
+    }
+
+    /**
+     * Counts one line or frame handed to a channel
+     */
+    void recordMessage(int length) {
+        messages.increment();
+        bytes.add(length);
+    }
+
+    /**
+     * Counts one write to the socket
+     */
+    void recordWrite() {
+        writes.increment();
+    }
+
+    private void flushLateChannels() {
+        // Only the channels registered before this run: new ones wait for the next tick
+        for (int pending = dirtyChannels.size(); pending > 0; pending--) {
+            ClientChannel channel = dirtyChannels.poll();
+            if (channel == null) {
+                break;
+            }
+            if (channel.flush()) {
+                timerFlushes.increment();
+            }
+        }
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    /**
+     * @return bytes handed to the channels, whether written yet or not
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    /**
+     * @return flushes done by the latency timer because the session did not flush in time
+     */
+    public long getTimerFlushes() {
+        return timerFlushes.sum();
+    }
+
+    /**
+     * @return socket writes avoided by batching (messages minus actual writes)
+     */
+    public long getSyscallsSaved() {
+        return Math.max(0, getMessages() - getWrites());
+    }
+
+    public void shutdown() {
+        if (timer != null) {
+            timer.shutdown();
+        }
+    }
+}
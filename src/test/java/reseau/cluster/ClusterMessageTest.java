@@ -0,0 +1,63 @@
+package reseau.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Line format of {@link TcpTransport}
+ */
+class ClusterMessageTest {
+
+    @Test
+    void fieldsSurviveEncoding() {
+        ClusterMessage message = new ClusterMessage(ClusterMessage.Type.INPUT, "node-1", "42", "1 2", "", "🎮 é");
+
+        ClusterMessage decoded = ClusterMessage.decode(message.encode());
+
+        assertEquals(ClusterMessage.Type.INPUT, decoded.getType());
+        assertEquals("node-1", decoded.getSource());
+        assertEquals(4, decoded.getFieldCount());
+        assertEquals("1 2", decoded.getField(1));
+        assertEquals("", decoded.getField(2));
+        assertEquals("🎮 é", decoded.getField(3));
+        assertNull(decoded.getPayload());
+    }
+
+    @Test
+    void payloadIsCarriedAsRawBytes() {
+        byte[] output = new byte[256];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = (byte) i;
+        }
+        ClusterMessage message = new ClusterMessage(ClusterMessage.Type.OUTPUT, "b", output, "42");
+
+        String line = message.encode();
+        ClusterMessage decoded = ClusterMessage.decode(line);
+
+        assertEquals(1, decoded.getFieldCount());
+        assertEquals("42", decoded.getField(0));
+        assertArrayEquals(output, decoded.getPayload());
+        // Base64 once: 4 characters per 3 bytes
+        assertEquals((output.length + 2) / 3 * 4 + 1, line.length() - line.lastIndexOf(' ') - 1);
+    }
+
+    @Test
+    void emptyPayloadIsNotAField() {
+        ClusterMessage decoded = ClusterMessage.decode(
+                new ClusterMessage(ClusterMessage.Type.OUTPUT, "b", new byte[0], "42").encode());
+
+        assertEquals(1, decoded.getFieldCount());
+        assertArrayEquals(new byte[0], decoded.getPayload());
+    }
+
+    @Test
+    void malformedLinesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ClusterMessage.decode("ENQUEUE"));
+        assertThrows(IllegalArgumentException.class, () -> ClusterMessage.decode("UNKNOWN a"));
+        assertThrows(IllegalArgumentException.class, () -> ClusterMessage.decode("INPUT a %%%"));
+    }
+}
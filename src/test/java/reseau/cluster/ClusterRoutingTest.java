@@ -0,0 +1,394 @@
+package reseau.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Routing between two or three nodes of one JVM, over {@link LoopbackTransport},
+ * and over {@link TcpTransport} for the nodes that stop and come back
+ */
+class ClusterRoutingTest {
+    private static final long MATCH_INTERVAL_MILLIS = 5;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final LoopbackTransport.Hub hub = new LoopbackTransport.Hub();
+    private final Map<String, Integer> tcpPorts = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * A player as the routing sees it, local or stand-in
+     */
+    private static final class TestPlayer {
+        final String id;
+        final long rttMillis;
+        final RemoteClientChannel channel;  // null for players connected to their node
+        volatile boolean connected;
+
+        TestPlayer(String id, long rttMillis, RemoteClientChannel channel, boolean connected) {
+            this.id = id;
+            this.rttMillis = rttMillis;
+            this.channel = channel;
+            this.connected = connected;
+        }
+    }
+
+    /**
+     * What the host of a node was asked to do
+     */
+    private static final class Event {
+        final String kind;
+        final TestPlayer player;
+        final TestPlayer other;
+        final Object data;
+
+        Event(String kind, TestPlayer player, TestPlayer other, Object data) {
+            this.kind = kind;
+            this.player = player;
+            this.other = other;
+            this.data = data;
+        }
+    }
+
+    private static final class Node implements ClusterRouting.Host<TestPlayer> {
+        final ClusterTransport transport;
+        final ClusterRouting<TestPlayer> routing;
+        final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        final List<PlayerDescriptor> standInDescriptors = new ArrayList<>();
+        final Map<String, TestPlayer> joined = new ConcurrentHashMap<>();
+
+        Node(ClusterTransport transport) throws IOException {
+            this.transport = transport;
+            routing = new ClusterRouting<>(transport, this, MATCH_INTERVAL_MILLIS);
+            transport.start(routing);
+        }
+
+        TestPlayer join(String playerId, long rttMillis) {
+            TestPlayer player = new TestPlayer(playerId, rttMillis, null, true);
+            joined.put(playerId, player);
+            routing.enqueue(player);
+            return player;
+        }
+
+        Event next(String kind) throws InterruptedException {
+            Event event = events.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertNotNull(event, "no " + kind + " on node " + transport.getNodeId());
+            assertEquals(kind, event.kind);
+            return event;
+        }
+
+        void stop() {
+            transport.close();
+            routing.shutdown();
+        }
+
+        @Override
+        public PlayerDescriptor describe(TestPlayer player) {
+            return new PlayerDescriptor(player.id, "Joueur " + player.id, 1000, player.rttMillis,
+                    false, true, "127.0.0.1:" + player.id.hashCode());
+        }
+
+        @Override
+        public synchronized TestPlayer createStandIn(PlayerDescriptor descriptor, RemoteClientChannel channel, boolean connected) {
+            standInDescriptors.add(descriptor);
+            return new TestPlayer(descriptor.getPlayerId(), descriptor.getRttMillis(), channel, connected);
+        }
+
+        @Override
+        public boolean isConnected(TestPlayer player) {
+            return player.connected;
+        }
+
+        @Override
+        public void startGame(TestPlayer first, TestPlayer second) {
+            events.add(new Event("game", first, second, null));
+        }
+
+        @Override
+        public void onRelayedInput(TestPlayer standIn, String line) {
+            events.add(new Event("input", standIn, null, line));
+        }
+
+        @Override
+        public void onRemoteLeft(TestPlayer standIn) {
+            standIn.connected = false;
+            events.add(new Event("left", standIn, null, null));
+        }
+
+        @Override
+        public void onRelayedOutput(TestPlayer player, byte[] output) {
+            events.add(new Event("output", player, null, output));
+        }
+
+        @Override
+        public void onReleased(TestPlayer player) {
+            events.add(new Event("released", player, null, null));
+        }
+
+        @Override
+        public void onClosed(TestPlayer player) {
+            player.connected = false;
+            events.add(new Event("closed", player, null, null));
+        }
+    }
+
+    private Node node(String id) throws IOException {
+        Node node = new Node(new LoopbackTransport(hub, id));
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * Node of a TCP cluster made of a, b and c, all on the loopback interface
+     */
+    private Node tcpNode(String id) throws IOException {
+        if (tcpPorts.isEmpty()) {
+            for (String nodeId : List.of("a", "b", "c")) {
+                try (ServerSocket socket = new ServerSocket(0)) {
+                    tcpPorts.put(nodeId, socket.getLocalPort());
+                }
+            }
+        }
+        Map<String, InetSocketAddress> peers = new HashMap<>();
+        tcpPorts.forEach((nodeId, port) -> {
+            if (!nodeId.equals(id)) {
+                peers.put(nodeId, InetSocketAddress.createUnresolved("127.0.0.1", port));
+            }
+        });
+        Node node = new Node(new TcpTransport(id, tcpPorts.get(id), peers));
+        nodes.add(node);
+        return node;
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(Node::stop);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Pairs alice of b with bob of c: the game is hosted by b, alice waited longest
+     */
+    private Event pairAcrossNodes(Node b, Node c) throws InterruptedException {
+        // Both reach the coordinator's inbox in this order
+        TestPlayer alice = b.join("alice", 40);
+        c.join("bob", 40);
+        Event game = b.next("game");
+        assertSame(alice, game.player);
+        await(() -> c.routing.isRelayed("bob"));
+        return game;
+    }
+
+    @Test
+    void pairsPlayersOfDifferentNodesOnTheLongestWaitingPlayersNode() throws Exception {
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+
+        Event game = pairAcrossNodes(b, c);
+
+        assertEquals("bob", game.other.id);
+        assertNotNull(game.other.channel, "bob plays through a stand-in on b");
+        assertEquals("c", game.other.channel.getHomeNode());
+        assertEquals(40, b.standInDescriptors.get(0).getRttMillis(), "the round-trip time reaches the game node");
+        assertFalse(b.routing.isRelayed("alice"));
+        assertTrue(a.events.isEmpty());
+        assertTrue(c.events.isEmpty());
+    }
+
+    @Test
+    void relaysMovesAndOutputBetweenHomeAndGameNode() throws Exception {
+        node("a");
+        Node b = node("b");
+        Node c = node("c");
+        TestPlayer bobStandIn = pairAcrossNodes(b, c).other;
+
+        assertTrue(c.routing.relayInput("bob", "11"));
+        Event input = b.next("input");
+        assertSame(bobStandIn, input.player);
+        assertEquals("11", input.data);
+
+        // Output is relayed as raw bytes, whatever they are
+        byte[] frame = {0x00, (byte) 0xFF, (byte) 0x80, 'O', '\n'};
+        bobStandIn.channel.sendBytes(frame);
+        bobStandIn.channel.sendLine("🏆 Partie terminée");
+        assertTrue(bobStandIn.channel.flush());
+        Event output = c.next("output");
+        assertEquals("bob", output.player.id);
+        byte[] line = "🏆 Partie terminée\n".getBytes(StandardCharsets.UTF_8);
+        byte[] expected = new byte[frame.length + line.length];
+        System.arraycopy(frame, 0, expected, 0, frame.length);
+        System.arraycopy(line, 0, expected, frame.length, line.length);
+        assertArrayEquals(expected, (byte[]) output.data);
+
+        // Game over: bob goes back to the mode choice on its own node
+        bobStandIn.channel.release();
+        assertEquals("bob", c.next("released").player.id);
+        assertFalse(c.routing.isRelayed("bob"));
+        assertFalse(c.routing.relayInput("bob", "00"));
+    }
+
+    @Test
+    void remotePlayerLeavingDisconnectsItsStandIn() throws Exception {
+        node("a");
+        Node b = node("b");
+        Node c = node("c");
+        TestPlayer bobStandIn = pairAcrossNodes(b, c).other;
+
+        c.routing.playerLeft("bob", new TestPlayer("bob", 40, null, false));
+        assertTrue(c.routing.isRelayed("bob"), "another player with the same id does not leave for bob");
+
+        c.routing.playerLeft("bob", c.joined.get("bob"));
+        assertSame(bobStandIn, b.next("left").player);
+        assertFalse(bobStandIn.channel.isOpen());
+        assertFalse(c.routing.isRelayed("bob"));
+    }
+
+    @Test
+    void cancelledWaitingPlayerIsNotMatched() throws Exception {
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+
+        TestPlayer alice = b.join("alice", 40);
+        b.routing.playerLeft("alice", alice);
+        TestPlayer bob = c.join("bob", 40);
+        TestPlayer carol = c.join("carol", 40);
+
+        Event game = c.next("game");
+        assertSame(bob, game.player);
+        assertSame(carol, game.other);
+        Thread.sleep(10 * MATCH_INTERVAL_MILLIS);
+        assertTrue(b.events.isEmpty(), "alice left the queue");
+        assertEquals(0, a.routing.getQueuedPlayers());
+    }
+
+    @Test
+    void playerQueuedAgainKeepsOnlyItsLatestPlace() throws Exception {
+        Node a = node("a");
+        Node b = node("b");
+
+        TestPlayer alice = b.join("alice", 40);
+        b.routing.enqueue(alice);  // WAIT again before being matched
+        TestPlayer bob = b.join("bob", 40);
+
+        Event game = b.next("game");
+        assertSame(alice, game.player);
+        assertSame(bob, game.other);
+        Thread.sleep(10 * MATCH_INTERVAL_MILLIS);
+        assertTrue(b.events.isEmpty(), "alice is matched once");
+        assertEquals(0, a.routing.getQueuedPlayers());
+    }
+
+    @Test
+    void gameNodeLeavingReleasesItsRelayedPlayers() throws Exception {
+        node("a");
+        Node b = node("b");
+        Node c = node("c");
+        pairAcrossNodes(b, c);
+
+        b.transport.close();
+
+        assertEquals("bob", c.next("released").player.id);
+        assertFalse(c.routing.isRelayed("bob"));
+    }
+
+    @Test
+    void homeNodeLeavingDisconnectsItsStandIns() throws Exception {
+        node("a");
+        Node b = node("b");
+        Node c = node("c");
+        TestPlayer bobStandIn = pairAcrossNodes(b, c).other;
+
+        c.transport.close();
+
+        assertSame(bobStandIn, b.next("left").player);
+        assertFalse(bobStandIn.channel.isOpen());
+    }
+
+    @Test
+    void coordinatorLeavingQueuesWaitingPlayersOnTheNextOne() throws Exception {
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+
+        TestPlayer alice = b.join("alice", 40);
+        await(() -> a.routing.getQueuedPlayers() == 1);
+        a.transport.close();
+        await(() -> b.routing.getQueuedPlayers() == 1);
+        c.join("bob", 40);
+
+        Event game = b.next("game");
+        assertSame(alice, game.player);
+        assertEquals("bob", game.other.id);
+        assertEquals("b", b.routing.coordinator());
+    }
+
+    @Test
+    void tcpCoordinatorStoppingQueuesWaitingPlayersOnTheNextOne() throws Exception {
+        Node a = tcpNode("a");
+        Node b = tcpNode("b");
+        Node c = tcpNode("c");
+
+        TestPlayer alice = b.join("alice", 40);
+        await(() -> a.routing.getQueuedPlayers() == 1);
+        // Nothing is sent to a afterwards: b and c notice it stopped on their own
+        a.stop();
+        await(() -> b.routing.getQueuedPlayers() == 1);
+        await(() -> "b".equals(c.routing.coordinator()));
+        c.join("bob", 40);
+
+        Event game = b.next("game");
+        assertSame(alice, game.player);
+        assertEquals("bob", game.other.id);
+    }
+
+    @Test
+    void tcpCoordinatorComingBackTakesTheWaitingPlayersBack() throws Exception {
+        Node a = tcpNode("a");
+        Node b = tcpNode("b");
+        Node c = tcpNode("c");
+        a.stop();
+        await(() -> "b".equals(b.routing.coordinator()) && "b".equals(c.routing.coordinator()));
+
+        TestPlayer alice = b.join("alice", 40);
+        await(() -> b.routing.getQueuedPlayers() == 1);
+        Node restarted = tcpNode("a");
+        await(() -> restarted.routing.getQueuedPlayers() == 1);
+        await(() -> b.routing.getQueuedPlayers() == 0);
+        await(() -> "a".equals(c.routing.coordinator()));
+        c.join("bob", 40);
+
+        Event game = b.next("game");
+        assertSame(alice, game.player);
+        assertEquals("bob", game.other.id);
+        assertTrue(a.events.isEmpty());
+    }
+}
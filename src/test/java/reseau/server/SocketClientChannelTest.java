@@ -0,0 +1,107 @@
+package reseau.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Blocking connection over a loopback socket
+ */
+class SocketClientChannelTest {
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final WriteCoalescer coalescer = new WriteCoalescer(5);
+    private final CountDownLatch opened = new CountDownLatch(1);
+    private final CountDownLatch disconnected = new CountDownLatch(1);
+    private ServerSocket serverSocket;
+    private Socket client;
+    private SocketClientChannel channel;
+
+    @BeforeEach
+    void connect() throws Exception {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        channel = new SocketClientChannel(serverSocket.accept(), coalescer, threads);
+        channel.setListener(new ClientListener() {
+            @Override
+            public void onOpen() {
+                opened.countDown();
+            }
+
+            @Override
+            public void onLine(String line) {
+            }
+
+            @Override
+            public void onDisconnect(IOException cause) {
+                disconnected.countDown();
+            }
+        });
+        threads.execute(channel);
+        assertTrue(opened.await(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void disconnect() throws IOException {
+        channel.abort();
+        client.close();
+        serverSocket.close();
+        coalescer.shutdown();
+        threads.shutdownNow();
+    }
+
+    @Test
+    void flushDoesNotBlockOnAClientThatStopsReading() {
+        byte[] chunk = new byte[64 * 1024];
+        // Far more than the socket buffers hold: a blocking flush would never return
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 256; i++) {
+                channel.sendBytes(chunk);
+                channel.flush();
+            }
+        });
+    }
+
+    @Test
+    void clientThatStopsReadingIsDisconnected() throws InterruptedException {
+        byte[] chunk = new byte[64 * 1024];
+        for (int i = 0; i < 256 && channel.isOpen(); i++) {
+            channel.sendBytes(chunk);
+            channel.flush();
+        }
+        assertFalse(channel.isOpen());
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void closeWritesQueuedLinesBeforeClosing() throws Exception {
+        channel.sendLine("🎮 Bienvenue");
+        channel.flush();
+        channel.sendLine("👋 Au revoir!");
+        channel.close();
+
+        BufferedReader input = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals("🎮 Bienvenue", input.readLine());
+        assertEquals("👋 Au revoir!", input.readLine());
+        assertNull(input.readLine());
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+    }
+}